@@ -1,18 +1,39 @@
 package com.revature;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import com.revature.controller.AuthenticationController;
+import com.revature.controller.BatchController;
+import com.revature.controller.ChangeController;
 import com.revature.controller.IngredientController;
 import com.revature.controller.RecipeController;
+import com.revature.dao.ChangeLogDAO;
 import com.revature.dao.ChefDAO;
 import com.revature.dao.IngredientDAO;
 import com.revature.dao.RecipeDAO;
+import com.revature.dao.SessionDAO;
 import com.revature.service.AuthenticationService;
+import com.revature.service.ChangeBroadcaster;
+import com.revature.service.ChangeService;
 import com.revature.service.ChefService;
 import com.revature.service.IngredientService;
+import com.revature.service.RecipeImportService;
 import com.revature.service.RecipeService;
 import com.revature.util.AdminMiddleware;
+import com.revature.util.AsyncExecutor;
+import com.revature.util.Bulkheads;
 import com.revature.util.ConnectionUtil;
 import com.revature.util.JavalinAppUtil;
+import com.revature.util.PasswordHasher;
+import com.revature.util.SessionStore;
+import com.revature.util.TokenSigner;
 import com.revature.util.DBUtil;
 
 import io.javalin.Javalin;
@@ -35,6 +56,10 @@ public class Main {
     @SuppressWarnings("unused")
     private static JavalinAppUtil JAVALIN_APP_UTIL;
 
+    /** Service class for bulk importing recipes. */
+    @SuppressWarnings("unused")    
+    private static RecipeImportService RECIPE_IMPORT_SERVICE;
+
     /** Controller for managing recipe-related requests. */
     @SuppressWarnings("unused")    
     private static RecipeController RECIPE_CONTROLLER;
@@ -75,10 +100,124 @@ public class Main {
     @SuppressWarnings("unused")    
     private static IngredientController INGREDIENT_CONTROLLER;
 
+    /** Data Access Object for reading the change log. */
+    @SuppressWarnings("unused")    
+    private static ChangeLogDAO CHANGE_LOG_DAO;
+
+    /** Broadcaster pushing change log entries to live change stream subscribers. */
+    @SuppressWarnings("unused")    
+    private static ChangeBroadcaster CHANGE_BROADCASTER;
+
+    /** Service class for serving the change feed. */
+    @SuppressWarnings("unused")    
+    private static ChangeService CHANGE_SERVICE;
+
+    /** Controller for managing change feed requests. */
+    @SuppressWarnings("unused")    
+    private static ChangeController CHANGE_CONTROLLER;
+
+    /** Controller for running several recipe and ingredient requests in one round trip. */
+    @SuppressWarnings("unused")    
+    private static BatchController BATCH_CONTROLLER;
+
+    /** Data Access Object for persisting sessions. */
+    @SuppressWarnings("unused")    
+    private static SessionDAO SESSION_DAO;
+
+    /** Store of logged in sessions, persisted so that they survive restarts. */
+    @SuppressWarnings("unused")    
+    private static SessionStore SESSION_STORE;
+
+    /** Executor running the services' async methods, with their timeout. */
+    @SuppressWarnings("unused")    
+    private static AsyncExecutor ASYNC_EXECUTOR;
+
+    /** Bounded executors isolating searches, single-record operations, authentication and bulk transfers from each other. */
+    @SuppressWarnings("unused")    
+    private static Bulkheads BULKHEADS;
+
     /** Middleware for administering administrative functionalities. */
     @SuppressWarnings("unused")    
     private static AdminMiddleware ADMIN_MIDDLEWARE;
 
+    /**
+     * Creates the signer of stateless session tokens when a signing secret is configured through the AUTH_TOKEN_SECRET environment variable or the auth.token.secret system property. Every application node must be given the same secret.
+     *
+     * @return the token signer, or null to keep sessions in this process
+     */
+    private static TokenSigner createTokenSigner() {
+        String secret = System.getProperty("auth.token.secret", System.getenv("AUTH_TOKEN_SECRET"));
+        if (secret == null || secret.isBlank()) {
+            return null;
+        }
+        return new TokenSigner(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the password hasher. The PBKDF2 work factor can be raised through the auth.password.iterations system property; existing hashes are upgraded as their owners log in.
+     *
+     * @return the password hasher
+     */
+    private static PasswordHasher createPasswordHasher() {
+        int iterations = Integer.getInteger("auth.password.iterations", PasswordHasher.DEFAULT_ITERATIONS);
+        int threads = Runtime.getRuntime().availableProcessors();
+        return new PasswordHasher(iterations, threads, threads * 64);
+    }
+
+    /**
+     * Creates the executor for the services' async methods. Tasks follow the server's threading mode: with server.virtualThreads=true they run on virtual threads, and otherwise on a bounded pool of platform threads, sized by the service.asyncThreads system property, whose queue holds up to 64 tasks per thread before further tasks are rejected. The timeout can be changed through the service.timeoutMillis system property.
+     *
+     * @return the async executor
+     */
+    private static AsyncExecutor createAsyncExecutor() {
+        long timeoutMillis = Long.getLong("service.timeoutMillis", AsyncExecutor.DEFAULT_TIMEOUT_MILLIS);
+        if (useVirtualThreads()) {
+            return new AsyncExecutor(Executors.newVirtualThreadPerTaskExecutor(), timeoutMillis);
+        }
+        int threads = Integer.getInteger("service.asyncThreads", Runtime.getRuntime().availableProcessors() * 4);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 64), Thread.ofPlatform().name("async-service-", 0).daemon(true).factory());
+        pool.allowCoreThreadTimeOut(true);
+        return new AsyncExecutor(pool, timeoutMillis);
+    }
+
+    /**
+     * Whether request handlers run on virtual threads, as set by the server.virtualThreads system property; off by default, so handlers run on platform threads unless server.virtualThreads=true.
+     *
+     * @return true for virtual threads, false for platform threads
+     */
+    private static boolean useVirtualThreads() {
+        return Boolean.getBoolean("server.virtualThreads");
+    }
+
+    /**
+     * Creates the bulkheads that run request handlers. Each can be resized through the bulkhead.NAME.threads and bulkhead.NAME.queue system properties, where NAME is search, crud, auth or export.
+     *
+     * @return the bulkheads
+     */
+    private static Bulkheads createBulkheads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Bulkheads.fromSystemProperties(cores, cores * 4, Math.max(2, cores / 2), 2, useVirtualThreads());
+    }
+
+    /**
+     * Whether the database should be reset to the seed data at startup. Seeding drops every table, persisted sessions included, so it only happens when the db.seed system property is true or when the database has no schema yet; otherwise the data, and the sessions restored from it, are kept across restarts.
+     *
+     * @return true if the database should be seeded
+     */
+    private static boolean shouldSeedDatabase() {
+        if (Boolean.getBoolean("db.seed")) {
+            return true;
+        }
+        try (Connection conn = CONNECTION_UTIL.getConnection();
+             ResultSet tables = conn.getMetaData().getTables(null, null, "CHEF", null)) {
+            return !tables.next();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return true;
+        }
+    }
+
     /**
      * The main method serves as the entry point for the application.
      * It initializes the application context and starts the server.
@@ -93,25 +232,54 @@ public class Main {
 		
 		RECIPE_DAO = new RecipeDAO(CHEF_DAO, INGREDIENT_DAO, CONNECTION_UTIL);
 		
-		CHEF_SERVICE = new ChefService(CHEF_DAO);
+		CHANGE_LOG_DAO = new ChangeLogDAO(CONNECTION_UTIL);
+		
+		CHANGE_BROADCASTER = new ChangeBroadcaster(CHANGE_LOG_DAO, ChangeBroadcaster.DEFAULT_BUFFER_SIZE, ChangeBroadcaster.DEFAULT_POLL_MILLIS,
+				Integer.getInteger("changes.maxSubscribers", ChangeBroadcaster.DEFAULT_MAX_SUBSCRIBERS));
+		
+		ASYNC_EXECUTOR = createAsyncExecutor();
+		
+		CHEF_SERVICE = new ChefService(CHEF_DAO, CHANGE_BROADCASTER, ASYNC_EXECUTOR);
+		
+		SESSION_DAO = new SessionDAO(CONNECTION_UTIL);
+		
+		SESSION_STORE = new SessionStore(SESSION_DAO);
 		
-		AUTH_SERVICE = new AuthenticationService(CHEF_SERVICE);
+		AUTH_SERVICE = new AuthenticationService(CHEF_SERVICE, SESSION_STORE, createTokenSigner(), createPasswordHasher());
 		
-		RECIPE_SERVICE = new RecipeService(RECIPE_DAO);
+		RECIPE_SERVICE = new RecipeService(RECIPE_DAO, CHANGE_BROADCASTER, ASYNC_EXECUTOR);
 		
-		RECIPE_CONTROLLER = new RecipeController(RECIPE_SERVICE, AUTH_SERVICE);
+		RECIPE_IMPORT_SERVICE = new RecipeImportService(RECIPE_DAO, INGREDIENT_DAO);
 		
-		INGREDIENT_SERVICE = new IngredientService(INGREDIENT_DAO);
+		RECIPE_CONTROLLER = new RecipeController(RECIPE_SERVICE, AUTH_SERVICE, RECIPE_IMPORT_SERVICE);
+		
+		INGREDIENT_SERVICE = new IngredientService(INGREDIENT_DAO, CHANGE_BROADCASTER, ASYNC_EXECUTOR);
 		
 		INGREDIENT_CONTROLLER = new IngredientController(INGREDIENT_SERVICE);
 		
 		AUTH_CONTROLLER = new AuthenticationController(CHEF_SERVICE, AUTH_SERVICE);
 		
-		JAVALIN_APP_UTIL = new JavalinAppUtil(RECIPE_CONTROLLER, AUTH_CONTROLLER, INGREDIENT_CONTROLLER);
+		CHANGE_SERVICE = new ChangeService(CHANGE_LOG_DAO);
+		
+		CHANGE_CONTROLLER = new ChangeController(CHANGE_SERVICE, CHANGE_BROADCASTER);
+		
+		BULKHEADS = createBulkheads();
+		
+		BATCH_CONTROLLER = new BatchController(RECIPE_SERVICE, INGREDIENT_SERVICE, AUTH_SERVICE, CONNECTION_UTIL, CHANGE_BROADCASTER, ASYNC_EXECUTOR);
+		
+		JAVALIN_APP_UTIL = new JavalinAppUtil(RECIPE_CONTROLLER, AUTH_CONTROLLER, INGREDIENT_CONTROLLER, CHANGE_CONTROLLER, BATCH_CONTROLLER, BULKHEADS);
+		
+		if (shouldSeedDatabase()) {
+			DBUtil.RUN_SQL();
+		}
+		
+		CHEF_SERVICE.loadTakenNames();
+		
+		SESSION_STORE.restore();
 		
-		DBUtil.RUN_SQL();
+		Runtime.getRuntime().addShutdownHook(new Thread(SESSION_STORE::close));
 		
-		Javalin app = JAVALIN_APP_UTIL.getApp();
+		Javalin app = JAVALIN_APP_UTIL.getApp(useVirtualThreads(), Integer.getInteger("server.maxThreads", JavalinAppUtil.DEFAULT_MAX_THREADS));
 		
 		app.start(8081);
     }
@@ -1,11 +1,17 @@
 package com.revature.controller;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 
 import com.revature.model.Chef;
 import com.revature.service.AuthenticationService;
 import com.revature.service.ChefService;
+import com.revature.util.Bulkhead;
+import com.revature.util.Bulkheads;
 
 
 
@@ -40,37 +46,90 @@ public class AuthenticationController {
     /**
      * TODO: Registers a new chef in the system.
      * 
-     * If the username already exists, responds with a 409 Conflict status and a result of "Username already exists".
+     * If the username already exists, responds with a 409 Conflict status and a result of "Username already exists". If the email already exists, responds with a 409 Conflict status and a result of "Email already exists". The checks before the password is hashed only catch names this node knows are taken; a name taken elsewhere is refused by the insert's unique constraint, which gets the same 409 responses.
      * 
-     * Otherwise, registers the chef and responds with a 201 Created status and the registered chef details.
+     * Otherwise, registers the chef and responds with a 201 Created status and the registered chef details. The password is hashed off the request thread; if the hashing pool is saturated, responds with a 503 Service Unavailable status.
      *
      * @param ctx the Javalin context containing the chef information in the request body
+     * @return a future that completes once the response is set
      */
-    public void register(Context ctx) {
+    public CompletableFuture<Void> register(Context ctx) {
         Chef chef = ctx.bodyAsClass(Chef.class);
         if (chefService.usernameExist(chef.getUsername())) {
             ctx.status(409).json("Username already exists");
-            return;
+            return CompletableFuture.completedFuture(null);
+        }
+        if (chefService.emailExist(chef.getEmail())) {
+            ctx.status(409).json("Email already exists");
+            return CompletableFuture.completedFuture(null);
         }
-        Chef registeredChef = authService.registerChef(chef);
-        ctx.status(201).json(registeredChef);
+        return authService.registerChefAsync(chef).handle((registeredChef, error) -> {
+            if (error != null) {
+                respondToFailure(ctx, error);
+            } else if (registeredChef.getId() == 0) {
+                respondToRefusedInsert(ctx, registeredChef);
+            } else {
+                ctx.status(201).json(registeredChef);
+            }
+            return null;
+        });
     }
 
     /**
      * TODO: Authenticates a chef and uses a generated authorization token if the credentials are valid. The token is used to check if login is successful. If so, this method responds with a 200 OK status, the token in the response body, and an "Authorization" header that sends the token in the response.
      * 
-     * If login fails, responds with a 401 Unauthorized status and an error message of "Invalid username or password".
+     * If login fails, responds with a 401 Unauthorized status and an error message of "Invalid username or password". If the maximum number of sessions is reached, or the password hashing pool is saturated, responds with a 503 Service Unavailable status. The password is checked off the request thread.
      *
      * @param ctx the Javalin context containing the chef login credentials in the request body
+     * @return a future that completes once the response is set
      */
-    public void login(Context ctx) {
+    public CompletableFuture<Void> login(Context ctx) {
         Chef chef = ctx.bodyAsClass(Chef.class);
-        String token = authService.login(chef);
-        if (token != null) {
-            ctx.header("Authorization", token);
-            ctx.status(200).json(token);
+        return authService.loginAsync(chef).handle((token, error) -> {
+            if (error != null) {
+                respondToFailure(ctx, error);
+            } else if (token != null) {
+                ctx.header("Authorization", token);
+                ctx.status(200).json(token);
+            } else {
+                ctx.status(401).json("Invalid username or password");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Responds to a failed login or registration. Saturation of the session store or the password hashing pool is reported as a 503 Service Unavailable status, so clients retry later; anything else is rethrown to the exception handlers.
+     *
+     * @param ctx the Javalin context
+     * @param error the failure, possibly wrapped by the future
+     */
+    private void respondToFailure(Context ctx, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IllegalStateException) {
+            ctx.status(503).json(cause.getMessage());
+        } else if (cause instanceof RejectedExecutionException) {
+            ctx.status(503).json("Too many login attempts in progress");
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
         } else {
-            ctx.status(401).json("Invalid username or password");
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * Responds to a registration whose insert was refused. A username or email taken since the checks in register, or on another node, violates a unique constraint and is reported with the same 409 Conflict responses as the checks; any other failure to insert responds with a 500 Internal Server Error status.
+     *
+     * @param ctx the Javalin context
+     * @param chef the chef that could not be inserted
+     */
+    private void respondToRefusedInsert(Context ctx, Chef chef) {
+        if (chefService.findChefByUsername(chef.getUsername()).isPresent()) {
+            ctx.status(409).json("Username already exists");
+        } else if (chefService.findChefByEmail(chef.getEmail()).isPresent()) {
+            ctx.status(409).json("Email already exists");
+        } else {
+            ctx.status(500).json("Registration failed");
         }
     }
 
@@ -87,6 +146,15 @@ public class AuthenticationController {
         ctx.status(200).json("Logout successful");
     }
 
+    /**
+     * Retrieves the authentication service, so that other components such as the admin middleware share its sessions.
+     *
+     * @return the authentication service
+     */
+    public AuthenticationService getAuthService() {
+        return authService;
+    }
+
     /**
      * Configures the routes for authentication operations.
      * 
@@ -95,9 +163,20 @@ public class AuthenticationController {
      * @param app the Javalin application to which routes are added
      */
     public void configureRoutes(Javalin app) {
-        app.post("/register", this::register);
-        app.post("/login", this::login);
-        app.post("/logout", this::logout);
+        configureRoutes(app, Bulkheads.inline());
+    }
+
+    /**
+     * Configures the routes for authentication operations, dispatching them to the authentication bulkhead.
+     *
+     * @param app the Javalin application to which routes are added
+     * @param bulkheads the bulkheads that run the handlers
+     */
+    public void configureRoutes(Javalin app, Bulkheads bulkheads) {
+        Bulkhead auth = bulkheads.getAuth();
+        app.post("/register", auth.wrapAsync(this::register));
+        app.post("/login", auth.wrapAsync(this::login));
+        app.post("/logout", auth.wrap(this::logout));
     }
 
 }
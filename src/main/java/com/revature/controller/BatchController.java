@@ -0,0 +1,501 @@
+package com.revature.controller;
+
+import java.net.URI;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.revature.model.Ingredient;
+import com.revature.model.Recipe;
+import com.revature.service.AuthenticationService;
+import com.revature.service.ChangeBroadcaster;
+import com.revature.service.IngredientService;
+import com.revature.service.RecipeService;
+import com.revature.util.AsyncExecutor;
+import com.revature.util.Bulkheads;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.ETagUtil;
+
+import io.javalin.Javalin;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.json.JsonMapper;
+import io.javalin.json.JsonMapperKt;
+
+/**
+ * The BatchController class serves POST /batch, which runs several recipe and ingredient requests in one round trip, for clients on high-latency links that would otherwise spend most of their time waiting on the network.
+ *
+ * Sub-requests are dispatched in process to RecipeService and IngredientService, and answer as the routes they name would, including their authorization checks: creating a recipe needs a logged in caller, and deleting a recipe or an ingredient needs an admin. Reads before the first write run in parallel. From the first write on, sub-requests run one at a time in the order given, on one connection in one transaction, so reads see the batch's own writes and the writes commit together. When a write fails, the transaction is rolled back: writes before it are reported as rolled back, writes after it are skipped, and the remaining reads run outside the transaction.
+ *
+ * The batch as a whole is rate limited and admitted like a single write; its sub-requests are not counted again.
+ */
+public class BatchController {
+
+    /** The most sub-requests a single batch may carry. */
+    public static final int MAX_REQUESTS = 25;
+
+    /** The status reported for a write skipped, or rolled back, because a write in the batch failed. */
+    public static final int SKIPPED_STATUS = 424;
+
+    /** The methods a sub-request may use. */
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "DELETE");
+
+    /** The paths a sub-request may use: a collection for POST, and a member of one for the other methods. */
+    private static final Pattern PATH = Pattern.compile("/(recipes|ingredients)(?:/(\\d{1,9}))?");
+
+    /** The service used for recipe sub-requests. */
+    private RecipeService recipeService;
+
+    /** The service used for ingredient sub-requests. */
+    private IngredientService ingredientService;
+
+    /** The service used to check the caller's authorization. */
+    private AuthenticationService authService;
+
+    /** The utility whose transactions the writes run in. */
+    private ConnectionUtil connectionUtil;
+
+    /** The broadcaster signalled once a batch's writes are committed, or null. */
+    private ChangeBroadcaster changeBroadcaster;
+
+    /** The executor that runs the leading reads in parallel. */
+    private AsyncExecutor asyncExecutor;
+
+    /**
+     * Constructs a BatchController with the specified services.
+     *
+     * @param recipeService the service used for recipe sub-requests
+     * @param ingredientService the service used for ingredient sub-requests
+     * @param authService the service used to check the caller's authorization
+     * @param connectionUtil the utility whose transactions the writes run in
+     */
+    public BatchController(RecipeService recipeService, IngredientService ingredientService, AuthenticationService authService, ConnectionUtil connectionUtil) {
+        this(recipeService, ingredientService, authService, connectionUtil, null, AsyncExecutor.getDefault());
+    }
+
+    /**
+     * Constructs a BatchController with the specified services that signals the given ChangeBroadcaster once a batch's writes are committed.
+     *
+     * @param recipeService the service used for recipe sub-requests
+     * @param ingredientService the service used for ingredient sub-requests
+     * @param authService the service used to check the caller's authorization
+     * @param connectionUtil the utility whose transactions the writes run in
+     * @param changeBroadcaster the broadcaster to signal after commits, or null for none
+     * @param asyncExecutor the executor that runs the leading reads in parallel
+     */
+    public BatchController(RecipeService recipeService, IngredientService ingredientService, AuthenticationService authService, ConnectionUtil connectionUtil,
+            ChangeBroadcaster changeBroadcaster, AsyncExecutor asyncExecutor) {
+        this.recipeService = recipeService;
+        this.ingredientService = ingredientService;
+        this.authService = authService;
+        this.connectionUtil = connectionUtil;
+        this.changeBroadcaster = changeBroadcaster;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Runs the sub-requests in the request body, a JSON array of objects with a method, a path, an optional body and optional headers. A sub-request may set its own Authorization and If-Match headers; otherwise the caller's Authorization header is used.
+     *
+     * Responds with a 200 OK status and an array holding the status and body of each sub-request, in the order given. Responds with a 400 Bad Request status if the body is not such an array, carries more than MAX_REQUESTS sub-requests, or names an unsupported method or path. Only GET, PUT and DELETE of /recipes/{id} and /ingredients/{id}, and POST of /recipes and /ingredients, can be batched.
+     *
+     * @param ctx the Javalin context containing the sub-requests in the request body
+     */
+    public void batch(Context ctx) {
+        List<SubRequest> requests;
+        try {
+            requests = Arrays.asList(ctx.bodyAsClass(SubRequest[].class));
+        } catch (Exception e) {
+            ctx.status(400).json("Body must be an array of requests");
+            return;
+        }
+        if (requests.size() > MAX_REQUESTS) {
+            ctx.status(400).json("At most " + MAX_REQUESTS + " requests may be batched");
+            return;
+        }
+        List<Call> calls = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Call call = Call.parse(requests.get(i), ctx.header("Authorization"));
+            if (call == null) {
+                ctx.status(400).json("Invalid request at index " + i);
+                return;
+            }
+            calls.add(call);
+        }
+
+        JsonMapper jsonMapper = JsonMapperKt.jsonMapper(ctx);
+        SubResponse[] responses = new SubResponse[calls.size()];
+        int firstWrite = 0;
+        while (firstWrite < calls.size() && !calls.get(firstWrite).isWrite()) {
+            firstWrite++;
+        }
+        // Reads before the first write only see committed data, so their order does not matter
+        List<CompletableFuture<?>> reads = new ArrayList<>();
+        for (int i = 0; i < firstWrite; i++) {
+            int index = i;
+            reads.add(asyncExecutor.supply(() -> dispatch(calls.get(index), jsonMapper))
+                    .exceptionally(error -> new SubResponse(503, "Request took too long"))
+                    .thenAccept(response -> responses[index] = response));
+        }
+        CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0])).join();
+
+        if (firstWrite < calls.size()) {
+            try {
+                runWrites(calls, firstWrite, responses, jsonMapper);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                ctx.status(500).json("Batch could not be completed");
+                return;
+            }
+        }
+        ctx.status(200).json(Arrays.asList(responses));
+    }
+
+    /**
+     * Runs the sub-requests from the first write on, one at a time, in one transaction that is rolled back when a write fails.
+     *
+     * @param calls the sub-requests
+     * @param firstWrite the index of the first write
+     * @param responses the responses, filled in by index
+     * @param jsonMapper the mapper used to read the sub-requests' bodies
+     * @throws SQLException if the transaction cannot be started
+     */
+    private void runWrites(List<Call> calls, int firstWrite, SubResponse[] responses, JsonMapper jsonMapper) throws SQLException {
+        List<Integer> writes = new ArrayList<>();
+        ConnectionUtil.Transaction transaction = connectionUtil.beginTransaction();
+        try {
+            for (int i = firstWrite; i < calls.size(); i++) {
+                Call call = calls.get(i);
+                if (call.isWrite() && transaction == null) {
+                    responses[i] = new SubResponse(SKIPPED_STATUS, "Skipped after an earlier write failed");
+                    continue;
+                }
+                responses[i] = dispatch(call, jsonMapper);
+                if (!call.isWrite()) {
+                    continue;
+                }
+                if (responses[i].getStatus() < 400 && !transaction.isRollbackOnly()) {
+                    writes.add(i);
+                    continue;
+                }
+                if (responses[i].getStatus() < 400) {
+                    responses[i] = new SubResponse(500, "Request could not be completed");
+                }
+                transaction.close();
+                transaction = null;
+                for (int write : writes) {
+                    responses[write] = new SubResponse(SKIPPED_STATUS, "Rolled back after a later write failed");
+                }
+            }
+            if (transaction != null) {
+                try {
+                    transaction.commit();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    for (int write : writes) {
+                        responses[write] = new SubResponse(500, "Batch could not be committed");
+                    }
+                    return;
+                }
+                if (changeBroadcaster != null && !writes.isEmpty()) {
+                    changeBroadcaster.signal();
+                }
+            }
+        } finally {
+            if (transaction != null) {
+                transaction.close();
+            }
+        }
+    }
+
+    /**
+     * Runs one sub-request against the services. Failures are reported as a 500 status rather than failing the batch.
+     *
+     * @param call the sub-request
+     * @param jsonMapper the mapper used to read the sub-request's body
+     * @return the sub-request's response
+     */
+    private SubResponse dispatch(Call call, JsonMapper jsonMapper) {
+        try {
+            if (call.resource.equals("recipes")) {
+                return dispatchRecipe(call, jsonMapper);
+            }
+            return dispatchIngredient(call, jsonMapper);
+        } catch (BadRequestResponse e) {
+            return new SubResponse(400, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return new SubResponse(500, "Request could not be completed");
+        }
+    }
+
+    /**
+     * Runs one recipe sub-request, answering as the matching RecipeController handler does.
+     */
+    private SubResponse dispatchRecipe(Call call, JsonMapper jsonMapper) {
+        switch (call.method) {
+            case "GET": {
+                Optional<Recipe> recipe = recipeService.findRecipe(call.id);
+                return recipe.isPresent() ? new SubResponse(200, recipe.get()) : new SubResponse(404, "Recipe not found");
+            }
+            case "POST": {
+                if (call.authorization == null || !authService.isAuthenticated(call.authorization)) {
+                    return new SubResponse(401, "Unauthorized");
+                }
+                Recipe recipe = call.readBody(Recipe.class, jsonMapper);
+                recipeService.saveRecipe(recipe);
+                return new SubResponse(201, recipe);
+            }
+            case "PUT": {
+                Recipe recipe = call.readBody(Recipe.class, jsonMapper);
+                recipe.setId(call.id);
+                if (recipeService.findRecipe(call.id).isEmpty()) {
+                    return new SubResponse(404, "Recipe not found.");
+                }
+                Integer expectedVersion = ETagUtil.parseIfMatch(call.header("If-Match"));
+                if (expectedVersion == null) {
+                    recipeService.saveRecipe(recipe);
+                } else if (!recipeService.updateRecipe(recipe, expectedVersion)) {
+                    return new SubResponse(409, "Recipe was modified by another request.");
+                }
+                return new SubResponse(200, recipe);
+            }
+            default: {
+                if (!authService.isAdmin(call.authorization)) {
+                    return new SubResponse(401, "Access denied");
+                }
+                if (recipeService.findRecipe(call.id).isEmpty()) {
+                    return new SubResponse(404, "Recipe not found.");
+                }
+                recipeService.deleteRecipe(call.id);
+                return new SubResponse(200, "Recipe deleted successfully.");
+            }
+        }
+    }
+
+    /**
+     * Runs one ingredient sub-request, answering as the matching IngredientController handler does.
+     */
+    private SubResponse dispatchIngredient(Call call, JsonMapper jsonMapper) {
+        switch (call.method) {
+            case "GET": {
+                Optional<Ingredient> ingredient = ingredientService.findIngredient(call.id);
+                return ingredient.isPresent() ? new SubResponse(200, ingredient.get()) : new SubResponse(404, "Ingredient not found");
+            }
+            case "POST": {
+                Ingredient ingredient = call.readBody(Ingredient.class, jsonMapper);
+                ingredientService.saveIngredient(ingredient);
+                return new SubResponse(201, ingredient);
+            }
+            case "PUT": {
+                Ingredient ingredient = call.readBody(Ingredient.class, jsonMapper);
+                ingredient.setId(call.id);
+                if (ingredientService.findIngredient(call.id).isEmpty()) {
+                    return new SubResponse(404, "Ingredient not found");
+                }
+                Integer expectedVersion = ETagUtil.parseIfMatch(call.header("If-Match"));
+                if (expectedVersion == null) {
+                    ingredientService.saveIngredient(ingredient);
+                } else if (!ingredientService.updateIngredient(ingredient, expectedVersion)) {
+                    return new SubResponse(409, "Ingredient was modified by another request");
+                }
+                return new SubResponse(204, null);
+            }
+            default: {
+                if (!authService.isAdmin(call.authorization)) {
+                    return new SubResponse(401, "Access denied");
+                }
+                ingredientService.deleteIngredient(call.id);
+                return new SubResponse(204, null);
+            }
+        }
+    }
+
+    /**
+     * Configures the route for batches.
+     *
+     * @param app the Javalin application
+     */
+    public void configureRoutes(Javalin app) {
+        configureRoutes(app, Bulkheads.inline());
+    }
+
+    /**
+     * Configures the route for batches, dispatching them to the CRUD bulkhead, since they are made of single-record operations.
+     *
+     * @param app the Javalin application
+     * @param bulkheads the bulkheads that run the handlers
+     */
+    public void configureRoutes(Javalin app, Bulkheads bulkheads) {
+        app.post("/batch", bulkheads.getCrud().wrap(this::batch));
+    }
+
+    /**
+     * A validated sub-request.
+     */
+    private static class Call {
+        private String method;
+        private String resource;
+        private Integer id;
+        private SubRequest request;
+        private String authorization;
+
+        /**
+         * Validates a sub-request, resolving its path the way the server would, so that spellings such as /ingredients/1/ or //ingredients/./1 are accepted.
+         *
+         * @param request the sub-request
+         * @param authorization the caller's Authorization header, or null
+         * @return the call, or null if the sub-request cannot be batched
+         */
+        static Call parse(SubRequest request, String authorization) {
+            if (request == null || request.getMethod() == null || !METHODS.contains(request.getMethod().toUpperCase())
+                    || request.getPath() == null || !request.getPath().startsWith("/")) {
+                return null;
+            }
+            String path;
+            try {
+                // Collapse repeated slashes first, since a path starting with // would parse as a host
+                path = URI.create(request.getPath().replaceAll("/{2,}", "/")).normalize().getPath();
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            Matcher matcher = path == null ? null : PATH.matcher(path.replaceAll("(?<=.)/$", ""));
+            if (matcher == null || !matcher.matches()) {
+                return null;
+            }
+            Call call = new Call();
+            call.method = request.getMethod().toUpperCase();
+            call.resource = matcher.group(1);
+            call.id = matcher.group(2) == null ? null : Integer.valueOf(matcher.group(2));
+            if ((call.id == null) != call.method.equals("POST")) {
+                return null;
+            }
+            call.request = request;
+            String own = call.header("Authorization");
+            call.authorization = own != null ? own : authorization;
+            return call;
+        }
+
+        boolean isWrite() {
+            return !method.equals("GET");
+        }
+
+        String header(String name) {
+            if (request.getHeaders() == null) {
+                return null;
+            }
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Reads the sub-request's body as the specified type.
+         *
+         * @throws BadRequestResponse if there is no body or it does not describe the type
+         */
+        <T> T readBody(Class<T> type, JsonMapper jsonMapper) {
+            if (request.getBody() == null) {
+                throw new BadRequestResponse("Missing body");
+            }
+            try {
+                return jsonMapper.fromJsonString(jsonMapper.toJsonString(request.getBody(), Object.class), type);
+            } catch (RuntimeException e) {
+                // The mapper throws its parse errors unchecked, whatever their declared type
+                throw new BadRequestResponse("Invalid body");
+            }
+        }
+    }
+
+    /**
+     * One request in a batch.
+     */
+    public static class SubRequest {
+        private String method;
+        private String path;
+        private Object body;
+        private Map<String, String> headers;
+
+        public SubRequest() {
+        }
+
+        public SubRequest(String method, String path, Object body) {
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Object getBody() {
+            return body;
+        }
+
+        public void setBody(Object body) {
+            this.body = body;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public void setHeaders(Map<String, String> headers) {
+            this.headers = headers;
+        }
+    }
+
+    /**
+     * The outcome of one request in a batch.
+     */
+    public static class SubResponse {
+        private int status;
+        private Object body;
+
+        public SubResponse() {
+        }
+
+        public SubResponse(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        public Object getBody() {
+            return body;
+        }
+
+        public void setBody(Object body) {
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.revature.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+import io.javalin.http.sse.SseClient;
+
+import com.revature.model.Change;
+import com.revature.service.ChangeBroadcaster;
+import com.revature.service.ChangeService;
+import com.revature.util.Bulkheads;
+
+/**
+ * The ChangeController class exposes the change feed, which lets clients fetch only what changed since their last sync instead of re-downloading the whole catalog.
+ * 
+ * The class interacts with the ChangeService to perform these operations.
+ */
+public class ChangeController {
+
+    /** A service that reads the change log. */
+    private ChangeService changeService;
+
+    /** The broadcaster feeding the live change stream, or null if the stream is disabled. */
+    private ChangeBroadcaster changeBroadcaster;
+
+    /**
+     * Constructs a ChangeController with the specified ChangeService.
+     *
+     * @param changeService the service used to read the change log
+     */
+    public ChangeController(ChangeService changeService) {
+        this(changeService, null);
+    }
+
+    /**
+     * Constructs a ChangeController that also serves the live change stream from the specified ChangeBroadcaster.
+     *
+     * @param changeService the service used to read the change log
+     * @param changeBroadcaster the broadcaster feeding the live change stream, or null to disable the stream
+     */
+    public ChangeController(ChangeService changeService, ChangeBroadcaster changeBroadcaster) {
+        this.changeService = changeService;
+        this.changeBroadcaster = changeBroadcaster;
+    }
+
+    /**
+     * Retrieves the changes made after the sequence number given by the "since" query parameter, up to "limit" changes, oldest first.
+     * 
+     * Responds with a 200 OK status and the list of changes. The "X-Latest-Seq" header carries the newest sequence number in the log, so clients can tell whether more pages remain. Responds with a 400 Bad Request status if either parameter is not a number.
+     *
+     * @param ctx the Javalin context containing the since and limit query parameters
+     */
+    public void getChanges(Context ctx) {
+        long since;
+        int limit;
+        try {
+            since = ctx.queryParam("since") != null ? Long.parseLong(ctx.queryParam("since")) : 0;
+            limit = ctx.queryParam("limit") != null ? Integer.parseInt(ctx.queryParam("limit")) : ChangeService.DEFAULT_LIMIT;
+        } catch (NumberFormatException e) {
+            ctx.status(400).json("since and limit must be numbers");
+            return;
+        }
+        List<Change> changes = changeService.getChangesSince(since, limit);
+        ctx.header("X-Latest-Seq", String.valueOf(changeService.getLatestSeq()));
+        ctx.status(200).json(changes);
+    }
+
+    /**
+     * Streams changes to the client as server-sent events. Each change is sent as a "change" event whose id is its sequence number, so a reconnecting client resumes where it left off through the Last-Event-ID header; a "since" query parameter does the same for the first connection. Without either, only new changes are sent.
+     * 
+     * Several changes to the same entity that are waiting for a slow client are coalesced into the latest one. If the client falls further behind, it receives a "reset" event carrying the sequence number to catch up from through GET /changes. When the broadcaster already has its maximum number of subscribers, the client receives an "error" event and the stream is closed.
+     *
+     * @param client the server-sent event client
+     */
+    public void streamChanges(SseClient client) {
+        long since;
+        try {
+            String lastEventId = client.ctx().header("Last-Event-ID");
+            String resumeFrom = lastEventId != null ? lastEventId : client.ctx().queryParam("since");
+            since = resumeFrom != null ? Long.parseLong(resumeFrom.trim()) : -1;
+        } catch (NumberFormatException e) {
+            client.sendEvent("error", "since and Last-Event-ID must be numbers");
+            client.close();
+            return;
+        }
+        client.keepAlive();
+        ChangeBroadcaster.ChangeSink sink = new ChangeBroadcaster.ChangeSink() {
+            @Override
+            public void send(Change change) {
+                if (client.terminated()) {
+                    throw new IllegalStateException("client disconnected");
+                }
+                client.sendEvent("change", change, String.valueOf(change.getSeq()));
+            }
+
+            @Override
+            public void reset(long since) {
+                if (client.terminated()) {
+                    throw new IllegalStateException("client disconnected");
+                }
+                client.sendEvent("reset", Map.of("since", since));
+            }
+        };
+        ChangeBroadcaster.Subscription subscription;
+        try {
+            subscription = changeBroadcaster.subscribe(since, sink);
+        } catch (IllegalStateException e) {
+            client.sendEvent("error", e.getMessage());
+            client.close();
+            return;
+        }
+        client.onClose(subscription::cancel);
+    }
+
+    /**
+     * Configure the routes for change feed operations.
+     *
+     * @param app the Javalin application
+     */
+    public void configureRoutes(Javalin app) {
+        configureRoutes(app, Bulkheads.inline());
+    }
+
+    /**
+     * Configure the routes for change feed operations, dispatching change log reads to the export bulkhead. The change stream holds no thread while idle and is not bulkheaded.
+     *
+     * @param app the Javalin application
+     * @param bulkheads the bulkheads that run the handlers
+     */
+    public void configureRoutes(Javalin app, Bulkheads bulkheads) {
+        app.get("/changes", bulkheads.getExport().wrap(this::getChanges));
+        if (changeBroadcaster != null) {
+            app.sse("/changes/stream", this::streamChanges);
+        }
+    }
+}
@@ -4,6 +4,9 @@ import io.javalin.Javalin;
 import io.javalin.http.Context;
 
 import com.revature.service.IngredientService;
+import com.revature.util.Bulkheads;
+import com.revature.util.ETagUtil;
+import com.revature.util.IdBatch;
 
 
 /**
@@ -36,7 +39,7 @@ public class IngredientController {
     /**
      * TODO: Retrieves a single ingredient by its ID.
      * 
-     * If the ingredient exists, responds with a 200 OK status and the ingredient data. If not found, responds with a 404 Not Found status.
+     * If the ingredient exists, responds with a 200 OK status and the ingredient data, with the ingredient's version in the ETag header. If not found, responds with a 404 Not Found status.
      *
      * @param ctx the Javalin context containing the request path parameter for the ingredient ID
      */
@@ -44,6 +47,7 @@ public class IngredientController {
         int id = Integer.parseInt(ctx.pathParam("id"));
         java.util.Optional<com.revature.model.Ingredient> ingredientOpt = ingredientService.findIngredient(id);
         if (ingredientOpt.isPresent()) {
+            ctx.header("ETag", ETagUtil.toETag(ingredientOpt.get().getVersion()));
             ctx.status(200).json(ingredientOpt.get());
         } else {
             ctx.status(404).json("Ingredient not found");
@@ -67,6 +71,8 @@ public class IngredientController {
      * TODO: Updates an existing ingredient by its ID.
      * 
      * If the ingredient exists, updates it and responds with a 204 No Content status. If not found, responds with a 404 Not Found status.
+     * 
+     * If the request carries an If-Match header, the update only succeeds while the ingredient is still at that version; otherwise responds with a 409 Conflict status. Successful conditional updates return the new version in the ETag header.
      *
      * @param ctx the Javalin context containing the request path parameter and updated ingredient data in the request body
      */
@@ -74,8 +80,16 @@ public class IngredientController {
        int id = Integer.parseInt(ctx.pathParam("id"));
         com.revature.model.Ingredient updatedIngredient = ctx.bodyAsClass(com.revature.model.Ingredient.class);
         updatedIngredient.setId(id);
+        Integer expectedVersion = ETagUtil.parseIfMatch(ctx.header("If-Match"));
         java.util.Optional<com.revature.model.Ingredient> ingredientOpt = ingredientService.findIngredient(id);
-        if (ingredientOpt.isPresent()) {
+        if (ingredientOpt.isPresent() && expectedVersion != null) {
+            if (ingredientService.updateIngredient(updatedIngredient, expectedVersion)) {
+                ctx.header("ETag", ETagUtil.toETag(updatedIngredient.getVersion()));
+                ctx.status(204);
+            } else {
+                ctx.status(409).json("Ingredient was modified by another request");
+            }
+        } else if (ingredientOpt.isPresent()) {
             ingredientService.saveIngredient(updatedIngredient);
             ctx.status(204);
         } else {
@@ -96,14 +110,58 @@ public class IngredientController {
         ctx.status(201).json(ingredient);
     }
 
+    /**
+     * Creates or looks up a batch of ingredients by name in one request.
+     * 
+     * Expects a JSON array of ingredient names. Responds with a 200 OK status and the ingredients, with their ids, in request order. Responds with a 400 Bad Request status if the array is null or empty, or contains a blank name or a name longer than 20 characters.
+     *
+     * @param ctx the Javalin context containing the ingredient names in the request body
+     */
+    public void createIngredients(Context ctx) {
+        // A JSON null body is treated like an empty array; the JSON mapper refuses to return null itself
+        String[] names = "null".equals(ctx.body().trim()) ? null : ctx.bodyAsClass(String[].class);
+        if (names == null) {
+            names = new String[0];
+        }
+        java.util.List<String> trimmed = new java.util.ArrayList<>();
+        for (String name : names) {
+            if (name == null || name.isBlank() || name.trim().length() > 20) {
+                ctx.status(400).json("Ingredient names must be between 1 and 20 characters");
+                return;
+            }
+            trimmed.add(name.trim());
+        }
+        if (trimmed.isEmpty()) {
+            ctx.status(400).json("Ingredient names must be between 1 and 20 characters");
+            return;
+        }
+        java.util.List<com.revature.model.Ingredient> ingredients = ingredientService.saveIngredients(trimmed);
+        if (ingredients.isEmpty()) {
+            ctx.status(500).json("Unable to save ingredients");
+        } else {
+            ctx.status(200).json(ingredients);
+        }
+    }
+
     /**
      * TODO: Retrieves a paginated list of ingredients, or all ingredients if no pagination parameters are provided.
      * 
      * If pagination parameters are included, returns ingredients based on page, page size, sorting, and filter term.
      *
+     * When the "ids" query parameter holds a comma-separated list of ids, responds instead with the ingredients with those ids, in the order given and loaded in one batch; a malformed list responds with 400 Bad Request.
+     *
      * @param ctx the Javalin context containing query parameters for pagination, sorting, and filtering
      */
     public void getIngredients(Context ctx) {
+        String ids = ctx.queryParam("ids");
+        if (ids != null) {
+            try {
+                ctx.status(200).json(ingredientService.findIngredients(IdBatch.parse(ids)));
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).json(e.getMessage());
+            }
+            return;
+        }
         String term = ctx.queryParam("term");
         String sortBy = ctx.queryParam("sortBy");
         String sortDirection = ctx.queryParam("sortDirection");
@@ -148,11 +206,22 @@ public class IngredientController {
      * @param app the Javalin application
      */
     public void configureRoutes(Javalin app) {
-        app.get("/ingredients", this::getIngredients);
-        app.get("/ingredients/{id}", this::getIngredient);
-        app.post("/ingredients", this::createIngredient);
-        app.put("/ingredients/{id}", this::updateIngredient);
-        app.delete("/ingredients/{id}", this::deleteIngredient);
+        configureRoutes(app, Bulkheads.inline());
+    }
+
+    /**
+     * Configure the routes for ingredient operations, dispatching searches, single-ingredient operations and bulk creation to their own bulkheads.
+     *
+     * @param app the Javalin application
+     * @param bulkheads the bulkheads that run the handlers
+     */
+    public void configureRoutes(Javalin app, Bulkheads bulkheads) {
+        app.get("/ingredients", bulkheads.getSearch().wrap(this::getIngredients));
+        app.get("/ingredients/{id}", bulkheads.getCrud().wrap(this::getIngredient));
+        app.post("/ingredients", bulkheads.getCrud().wrap(this::createIngredient));
+        app.post("/ingredients/bulk", bulkheads.getExport().wrap(this::createIngredients));
+        app.put("/ingredients/{id}", bulkheads.getCrud().wrap(this::updateIngredient));
+        app.delete("/ingredients/{id}", bulkheads.getCrud().wrap(this::deleteIngredient));
     }
 }
 
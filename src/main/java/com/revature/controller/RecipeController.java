@@ -4,8 +4,23 @@ import io.javalin.http.Handler;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import com.revature.model.RecipeSummary;
 import com.revature.service.AuthenticationService;
+import com.revature.service.RecipeImportService;
 import com.revature.service.RecipeService;
+import com.revature.util.Bulkhead;
+import com.revature.util.Bulkheads;
+import com.revature.util.ETagUtil;
+import com.revature.util.IdBatch;
+import com.revature.util.ImportResult;
 
 /**
  * The RecipeController class provides RESTful endpoints for managing recipes.
@@ -23,6 +38,9 @@ public class RecipeController {
     @SuppressWarnings("unused")
     private AuthenticationService authService;
 
+    /** The service used to bulk import recipes; the import route is only registered when this is present. */
+    private RecipeImportService recipeImportService;
+
     /**
      * TODO: Constructor that initializes the RecipeController with the parameters.
      * 
@@ -30,25 +48,56 @@ public class RecipeController {
      * * @param authService the service used to manage authentication-related operations
      */
     public RecipeController(RecipeService recipeService, AuthenticationService authService) {
+    this(recipeService, authService, null);
+}
+
+    /**
+     * Constructor that initializes the RecipeController with the parameters, including bulk import support.
+     * 
+     * @param recipeService The service that handles the business logic for managing recipes.
+     * @param authService the service used to manage authentication-related operations
+     * @param recipeImportService the service used to bulk import recipes
+     */
+    public RecipeController(RecipeService recipeService, AuthenticationService authService, RecipeImportService recipeImportService) {
     this.recipeService = recipeService;
     this.authService = authService;
-
-
+    this.recipeImportService = recipeImportService;
 }
 
     /**
      * TODO: Handler for fetching all recipes. Supports pagination, sorting, and filtering by recipe name or ingredient.
      * 
-     * Responds with a 200 OK status and the list of recipes, or 404 Not Found with a result of "No recipes found".
+     * Responds with a 200 OK status and a page of recipe summaries, or 404 Not Found with a result of "No recipes found". Summaries carry the id, name and author's id and username by default; the "fields" query parameter selects others as a comma-separated list of id, name, instructions and author, and an unknown field responds with 400 Bad Request. The "sortBy" and "sortDirection" query parameters sort the page by id or name, ascending or descending; other values sort ascending by id.
+     * 
+     * When the "ids" query parameter holds a comma-separated list of ids, responds instead with a 200 OK status and the recipes with those ids, in the order given and loaded in one batch; a malformed list responds with 400 Bad Request.
      */
     public Handler fetchAllRecipes = ctx -> {
+        String ids = ctx.queryParam("ids");
+        if (ids != null) {
+            try {
+                ctx.status(200).json(recipeService.findRecipes(IdBatch.parse(ids)));
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).json(e.getMessage());
+            }
+            return;
+        }
         String term = ctx.queryParam("term");
         Integer page = getParamAsClassOrElse(ctx, "page", Integer.class, 1);
         Integer pageSize = getParamAsClassOrElse(ctx, "pageSize", Integer.class, 10);
-        // Sorting params are not implemented in DAO, but included for extensibility
         String sortBy = ctx.queryParam("sortBy");
         String sortDirection = ctx.queryParam("sortDirection");
-        com.revature.util.Page<com.revature.model.Recipe> result = recipeService.searchRecipes(term, page, pageSize, sortBy, sortDirection);
+        Set<String> fields = RecipeSummary.DEFAULT_FIELDS;
+        if (ctx.queryParam("fields") != null) {
+            fields = new HashSet<>();
+            for (String field : ctx.queryParam("fields").split(",")) {
+                if (!RecipeSummary.FIELDS.contains(field.trim())) {
+                    ctx.status(400).json("Unknown field: " + field.trim());
+                    return;
+                }
+                fields.add(field.trim());
+            }
+        }
+        com.revature.util.Page<RecipeSummary> result = recipeService.searchRecipeSummaries(term, page, pageSize, sortBy, sortDirection, fields);
         if (result == null || result.getItems().isEmpty()) {
             ctx.status(404).json("No recipes found");
         } else {
@@ -59,7 +108,7 @@ public class RecipeController {
     /**
      * TODO: Handler for fetching a recipe by its ID.
      * 
-     * If successful, responds with a 200 status code and the recipe as the response body.
+     * If successful, responds with a 200 status code and the recipe as the response body, with the recipe's version in the ETag header.
      * 
      * If unsuccessful, responds with a 404 status code and a result of "Recipe not found".
      */
@@ -67,12 +116,57 @@ public class RecipeController {
         int id = Integer.parseInt(ctx.pathParam("id"));
         java.util.Optional<com.revature.model.Recipe> recipeOpt = recipeService.findRecipe(id);
         if (recipeOpt.isPresent()) {
+            ctx.header("ETag", ETagUtil.toETag(recipeOpt.get().getVersion()));
             ctx.status(200).json(recipeOpt.get());
         } else {
             ctx.status(404).json("Recipe not found");
         }
     };
 
+    /**
+     * Handler for fetching the instructions of a recipe on their own, streamed from the database as plain text rather than loaded into memory, for recipes with long instructions.
+     * 
+     * If successful, responds with a 200 status code and the instructions as a text/plain body.
+     * 
+     * If the recipe does not exist, responds with a 404 status code and a result of "Recipe not found". A database failure is thrown to the exception handlers instead; if it happens mid-stream, the response is aborted rather than completed, so the client cannot mistake a truncated body for the whole instructions.
+     */
+    public Handler fetchRecipeInstructions = ctx -> {
+        int id = Integer.parseInt(ctx.pathParam("id"));
+        boolean found = recipeService.writeInstructions(id, () -> {
+            ctx.status(200).contentType("text/plain; charset=utf-8");
+            return new OutputStreamWriter(ctx.outputStream(), StandardCharsets.UTF_8);
+        });
+        if (!found) {
+            ctx.status(404).json("Recipe not found");
+        }
+    };
+
+    /**
+     * Handler for fetching everything a recipe page shows in one response: the recipe with its author, its ingredient lines, other recipes by its author and similar recipes. The parts are fetched concurrently under a shared deadline.
+     * 
+     * If successful, responds with a 200 status code and the recipe detail as the response body.
+     * 
+     * If the recipe does not exist, responds with a 404 status code and a result of "Recipe not found". If the parts are not all fetched before the deadline, responds with a 503 status code.
+     */
+    public Bulkhead.AsyncHandler fetchRecipeDetail = ctx -> {
+        int id = Integer.parseInt(ctx.pathParam("id"));
+        return recipeService.getRecipeDetailAsync(id).handle((detail, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                ctx.status(503).json("Recipe detail took too long");
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause != null) {
+                throw new CompletionException(cause);
+            } else if (detail.isPresent()) {
+                ctx.status(200).json(detail.get());
+            } else {
+                ctx.status(404).json("Recipe not found");
+            }
+            return null;
+        });
+    };
+
     /**
      * TODO: Handler for creating a new recipe. Requires authentication via an authorization token taken from the request header.
      * 
@@ -115,13 +209,23 @@ public class RecipeController {
      * If successful, responds with a 200 status code and the updated recipe as the response body.
      * 
      * If unsuccessfuly, responds with a 404 status code and a result of "Recipe not found."
+     * 
+     * If the request carries an If-Match header, the update only succeeds while the recipe is still at that version; otherwise responds with a 409 status code and a result of "Recipe was modified by another request." Successful conditional updates return the new version in the ETag header.
      */
     public Handler updateRecipe = ctx -> {
         int id = Integer.parseInt(ctx.pathParam("id"));
         com.revature.model.Recipe updatedRecipe = ctx.bodyAsClass(com.revature.model.Recipe.class);
         updatedRecipe.setId(id);
+        Integer expectedVersion = ETagUtil.parseIfMatch(ctx.header("If-Match"));
         java.util.Optional<com.revature.model.Recipe> recipeOpt = recipeService.findRecipe(id);
-        if (recipeOpt.isPresent()) {
+        if (recipeOpt.isPresent() && expectedVersion != null) {
+            if (recipeService.updateRecipe(updatedRecipe, expectedVersion)) {
+                ctx.header("ETag", ETagUtil.toETag(updatedRecipe.getVersion()));
+                ctx.status(200).json(updatedRecipe);
+            } else {
+                ctx.status(409).json("Recipe was modified by another request.");
+            }
+        } else if (recipeOpt.isPresent()) {
             recipeService.saveRecipe(updatedRecipe);
             ctx.status(200).json(updatedRecipe);
         } else {
@@ -129,6 +233,32 @@ public class RecipeController {
         }
     };
 
+    /**
+     * Handler for bulk importing recipes from the request body. Requires authentication via an authorization token taken from the request header.
+     * 
+     * The body is read as CSV when the "format" query parameter is "csv" or the content type mentions csv, and as a JSON array of recipes otherwise. The optional "chunkSize" query parameter sets how many rows are written per batch and transaction.
+     * 
+     * Responds with a 200 OK status and the import result, including per-row errors, or 401 Unauthorized if the caller is not logged in.
+     */
+    public Handler importRecipes = ctx -> {
+        String token = ctx.header("Authorization");
+        if (token == null || !authService.isAuthenticated(token)) {
+            ctx.status(401).json("Unauthorized");
+            return;
+        }
+        Integer chunkSize = getParamAsClassOrElse(ctx, "chunkSize", Integer.class, RecipeImportService.DEFAULT_CHUNK_SIZE);
+        String format = ctx.queryParam("format");
+        String contentType = ctx.contentType();
+        boolean csv = "csv".equalsIgnoreCase(format) || (format == null && contentType != null && contentType.contains("csv"));
+        ImportResult result;
+        if (csv) {
+            result = recipeImportService.importCsv(new InputStreamReader(ctx.bodyInputStream(), StandardCharsets.UTF_8), chunkSize);
+        } else {
+            result = recipeImportService.importJson(ctx.bodyInputStream(), chunkSize);
+        }
+        ctx.status(200).json(result);
+    };
+
     /**
      * A helper method to retrieve a query parameter from the context as a specific class type, or return a default value if the query parameter is not present.
      * 
@@ -159,11 +289,26 @@ public class RecipeController {
      * @param app the Javalin application
      */
     public void configureRoutes(Javalin app) {
-        app.get("/recipes", fetchAllRecipes);
-        app.get("/recipes/{id}", fetchRecipeById);
-        app.post("/recipes", createRecipe);
-        app.put("/recipes/{id}", updateRecipe);
-        app.delete("/recipes/{id}", deleteRecipe);
+        configureRoutes(app, Bulkheads.inline());
+    }
+
+    /**
+     * Configure the routes for recipe operations, dispatching searches, single-recipe operations and imports to their own bulkheads.
+     *
+     * @param app the Javalin application
+     * @param bulkheads the bulkheads that run the handlers
+     */
+    public void configureRoutes(Javalin app, Bulkheads bulkheads) {
+        app.get("/recipes", bulkheads.getSearch().wrap(fetchAllRecipes));
+        app.get("/recipes/{id}", bulkheads.getCrud().wrap(fetchRecipeById));
+        app.get("/recipes/{id}/detail", bulkheads.getCrud().wrapAsync(fetchRecipeDetail));
+        app.get("/recipes/{id}/instructions", bulkheads.getCrud().wrap(fetchRecipeInstructions));
+        app.post("/recipes", bulkheads.getCrud().wrap(createRecipe));
+        app.put("/recipes/{id}", bulkheads.getCrud().wrap(updateRecipe));
+        app.delete("/recipes/{id}", bulkheads.getCrud().wrap(deleteRecipe));
+        if (recipeImportService != null) {
+            app.post("/recipes/import", bulkheads.getExport().wrap(importRecipes));
+        }
     }
 
 }
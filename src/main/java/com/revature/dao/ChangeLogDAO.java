@@ -0,0 +1,89 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revature.model.Change;
+import com.revature.util.ConnectionUtil;
+
+/**
+ * The ChangeLogDAO class reads the CHANGE_LOG table, the append-only record of every create, update and delete of chefs, recipes and ingredients.
+ * 
+ * The log is written by the database itself through ChangeLogTrigger, so this class only offers reads. Reads are range scans on the primary key index of the sequence column. The trigger hands out sequence numbers in commit order, so once a change is visible every change with a lower sequence number is too, and resuming after the last sequence number seen misses nothing.
+ */
+public class ChangeLogDAO {
+
+    /** A utility class for establishing connections to the database. */
+    private ConnectionUtil connectionUtil;
+
+    /**
+     * Constructs a ChangeLogDAO with the specified ConnectionUtil for database connectivity.
+     * 
+     * @param connectionUtil the utility used to connect to the database
+     */
+    public ChangeLogDAO(ConnectionUtil connectionUtil) {
+        this.connectionUtil = connectionUtil;
+    }
+
+    /**
+     * Retrieves the changes logged after a given sequence number, oldest first.
+     *
+     * @param since the sequence number of the last change the caller has seen; 0 for the whole log
+     * @param limit the maximum number of changes to return
+     * @return the changes with a sequence number greater than since, in sequence order
+     */
+    public List<Change> getChangesSince(long since, int limit) {
+        List<Change> changes = new ArrayList<>();
+        String sql = "SELECT * FROM Change_Log WHERE seq > ? ORDER BY seq LIMIT ?";
+        try (Connection conn = connectionUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, since);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(mapSingleRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return changes;
+    }
+
+    /**
+     * Retrieves the sequence number of the most recent change.
+     *
+     * @return the highest sequence number in the log, or 0 if the log is empty
+     */
+    public long getLatestSeq() {
+        String sql = "SELECT COALESCE(MAX(seq), 0) FROM Change_Log";
+        try (Connection conn = connectionUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // below are helper methods for your convenience
+
+    /**
+     * Maps a single row from the ResultSet to a Change object.
+     *
+     * @param set the ResultSet containing change log data.
+     * @return a Change object representing the row.
+     * @throws SQLException if an error occurs while accessing the ResultSet.
+     */
+    private Change mapSingleRow(ResultSet set) throws SQLException {
+        return new Change(set.getLong("seq"), set.getString("entity_type"), set.getInt("entity_id"),
+                set.getString("operation"), set.getTimestamp("changed_at"));
+    }
+}
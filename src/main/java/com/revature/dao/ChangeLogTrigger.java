@@ -0,0 +1,122 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.h2.api.Trigger;
+
+/**
+ * The ChangeLogTrigger class is an H2 row trigger that appends an entry to the CHANGE_LOG table for every insert, update and delete on the RECIPE, INGREDIENT and CHEF tables.
+ *
+ * Because the entry is written by the database inside the same transaction as the change itself, every write path (single-row DAO methods, batches, MERGE statements and cascading deletes) is captured, and a change is never logged without being committed. Deletes are logged as tombstones. Updates that leave a row unchanged, such as a MERGE that matches an existing ingredient, are not logged.
+ *
+ * Sequence numbers come from the single row of the CHANGE_LOG_SEQ table rather than an identity column. Incrementing that row locks it until the writing transaction commits or rolls back, so a second writer waits for the first, and a change never becomes visible after a change with a higher sequence number. Readers that resume from the last sequence number they saw therefore never skip a late commit. The price is that transactions which change logged tables commit one at a time.
+ *
+ * Changes to RECIPE_INGREDIENT rows are logged as updates of the owning recipe, since clients sync recipes together with their ingredient lines. The trigger is attached to the tables in sqlScript.sql.
+ */
+public class ChangeLogTrigger implements Trigger {
+
+    /** The entity type recorded for changes to the table this trigger is attached to. */
+    private String entityType;
+
+    /** The column of the trigger row that holds the id of the changed entity. */
+    private int idColumn;
+
+    /**
+     * Initializes the trigger for the table it is attached to.
+     *
+     * @param conn a connection to the database
+     * @param schemaName the name of the schema
+     * @param triggerName the name of the trigger
+     * @param tableName the name of the table the trigger is attached to
+     * @param before whether the trigger fires before the change
+     * @param type the operations the trigger fires for
+     */
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) {
+        if (tableName.equalsIgnoreCase("RECIPE_INGREDIENT")) {
+            entityType = "RECIPE";
+            idColumn = 1;
+        } else {
+            entityType = tableName.toUpperCase();
+            idColumn = 0;
+        }
+    }
+
+    /**
+     * Records the change of a single row.
+     *
+     * @param conn the connection of the transaction making the change
+     * @param oldRow the row before the change, or null for an insert
+     * @param newRow the row after the change, or null for a delete
+     * @throws SQLException if the change log entry cannot be written
+     */
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        String operation;
+        Object[] row;
+        if (oldRow == null) {
+            operation = "CREATE";
+            row = newRow;
+        } else if (newRow == null) {
+            operation = "DELETE";
+            row = oldRow;
+        } else if (Arrays.equals(oldRow, newRow)) {
+            return;
+        } else {
+            operation = "UPDATE";
+            row = newRow;
+        }
+        if (idColumn != 0) {
+            // a line change is an update of its recipe, unless the recipe itself is being deleted
+            operation = "UPDATE";
+            if (newRow == null && !recipeExists(conn, ((Number) row[idColumn]).intValue())) {
+                return;
+            }
+        }
+        String sql = "INSERT INTO Change_Log (seq, entity_type, entity_id, operation) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, nextSeq(conn));
+            stmt.setString(2, entityType);
+            stmt.setInt(3, ((Number) row[idColumn]).intValue());
+            stmt.setString(4, operation);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Takes the next sequence number, locking the counter until the transaction ends.
+     *
+     * @param conn the connection of the transaction making the change
+     * @return the sequence number for the change
+     * @throws SQLException if the counter cannot be incremented, for example because another transaction held it too long
+     */
+    private long nextSeq(Connection conn) throws SQLException {
+        String sql = "SELECT seq FROM FINAL TABLE (UPDATE Change_Log_Seq SET seq = seq + 1 WHERE id = 1)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Checks whether a recipe row is still present.
+     *
+     * @param conn the connection of the transaction making the change
+     * @param recipeId the id of the recipe
+     * @return true if the recipe exists
+     * @throws SQLException if the query fails
+     */
+    private boolean recipeExists(Connection conn, int recipeId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM Recipe WHERE id = ?")) {
+            stmt.setInt(1, recipeId);
+            try (var rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.revature.dao;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.IdBatch;
 import com.revature.util.Page;
 import com.revature.util.PageOptions;
 import com.revature.model.Chef;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -45,7 +51,7 @@ public class ChefDAO {
         try (var conn = connectionUtil.getConnection();
              var stmt = conn.createStatement();
              var rs = stmt.executeQuery(sql)) {
-            chefs = mapRows(rs);
+            chefs = RowMapping.mapRows(rs, CHEF_MAPPER);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -63,11 +69,11 @@ public class ChefDAO {
         try (var conn = connectionUtil.getConnection();
              var stmt = conn.createStatement();
              var rs = stmt.executeQuery(sql)) {
-            return pageResults(rs, pageOptions);
+            return RowMapping.pageResults(rs, pageOptions, CHEF_MAPPER);
         } catch (Exception e) {
             e.printStackTrace();
         }
-        //return null;
+        return null;
     }
 
     /**
@@ -83,7 +89,7 @@ public class ChefDAO {
             stmt.setInt(1, id);
             try (var rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapSingleRow(rs);
+                    return RowMapping.mapSingleRow(rs, CHEF_MAPPER);
                 }
             }
         } catch (Exception e) {
@@ -92,6 +98,90 @@ public class ChefDAO {
         return null;
     }
 
+    /**
+     * Retrieves the Chefs with the given ids using one connection and one IN query per chunk of ids.
+     *
+     * @param ids the ids of the Chefs to retrieve.
+     * @return the Chefs in the order their ids were requested; ids with no Chef are skipped.
+     */
+    public List<Chef> getChefsByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (Connection conn = connectionUtil.getConnection()) {
+            return IdBatch.inRequestedOrder(ids, getChefsByIds(conn, ids));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Loads the Chefs with the given ids on an open connection, so that callers such as RecipeDAO can resolve authors without a connection of their own.
+     *
+     * @param conn the connection to read on.
+     * @param ids the ids of the Chefs to retrieve.
+     * @return the found Chefs keyed by id.
+     * @throws SQLException if a query fails.
+     */
+    Map<Integer, Chef> getChefsByIds(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Chef> chefs = new HashMap<>();
+        for (List<Integer> chunk : IdBatch.chunks(ids)) {
+            String sql = "SELECT * FROM Chef WHERE id IN (" + IdBatch.placeholders(chunk.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    for (Chef chef : RowMapping.mapRows(rs, CHEF_MAPPER)) {
+                        chefs.put(chef.getId(), chef);
+                    }
+                }
+            }
+        }
+        return chefs;
+    }
+
+    /**
+     * Retrieves the Chef with exactly the given username. The lookup uses the unique index on the username column, so its cost does not grow with the number of chefs.
+     *
+     * @param username the username to look up.
+     * @return the Chef object, or null if no chef has that username.
+     */
+    public Chef findByUsername(String username) {
+        return findByUniqueColumn("username", username);
+    }
+
+    /**
+     * Retrieves the Chef with exactly the given email address, using the unique index on the email column.
+     *
+     * @param email the email address to look up.
+     * @return the Chef object, or null if no chef has that email address.
+     */
+    public Chef findByEmail(String email) {
+        return findByUniqueColumn("email", email);
+    }
+
+    /**
+     * Retrieves the username and email address of every chef, leaving out the other columns. Used to build the filter that answers registration availability checks.
+     *
+     * @return a list of Chef objects holding only their username and email.
+     */
+    public List<Chef> getAllUsernamesAndEmails() {
+        List<Chef> chefs = new ArrayList<>();
+        String sql = "SELECT username, email FROM Chef";
+        try (var conn = connectionUtil.getConnection();
+             var stmt = conn.prepareStatement(sql);
+             var rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                chefs.add(new Chef(rs.getString("username"), rs.getString("email"), null, false));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return chefs;
+    }
+
     /**
      * TODO: Creates a new Chef record in the database.
      *
@@ -127,7 +217,7 @@ public class ChefDAO {
      * @param chef the Chef object containing updated information.
      */
     public void updateChef(Chef chef) {
-        String sql = "UPDATE Chef SET username = ?, email = ?, password = ?, is_admin = ? WHERE id = ?";
+        String sql = "UPDATE Chef SET username = ?, email = ?, password = ?, is_admin = ?, version = version + 1 WHERE id = ?";
         try (var conn = connectionUtil.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, chef.getUsername());
@@ -141,6 +231,33 @@ public class ChefDAO {
         }
     }
 
+    /**
+     * Updates an existing Chef record only if it is still at the expected version, incrementing the version on success.
+     *
+     * @param chef the Chef object containing updated information; its version is set to the new version on success
+     * @param expectedVersion the version the caller last read
+     * @return true if the record was updated; false if it was modified concurrently or no longer exists
+     */
+    public boolean updateChef(Chef chef, int expectedVersion) {
+        String sql = "UPDATE Chef SET username = ?, email = ?, password = ?, is_admin = ?, version = version + 1 WHERE id = ? AND version = ?";
+        try (var conn = connectionUtil.getConnection();
+             var stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, chef.getUsername());
+            stmt.setString(2, chef.getEmail());
+            stmt.setString(3, chef.getPassword());
+            stmt.setBoolean(4, chef.isAdmin());
+            stmt.setInt(5, chef.getId());
+            stmt.setInt(6, expectedVersion);
+            if (stmt.executeUpdate() == 1) {
+                chef.setVersion(expectedVersion + 1);
+                return true;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
     /**
      * TODO: Deletes a Chef record from the database.
      *
@@ -170,7 +287,7 @@ public class ChefDAO {
              var stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "%" + term + "%");
             try (var rs = stmt.executeQuery()) {
-                chefs = mapRows(rs);
+                chefs = RowMapping.mapRows(rs, CHEF_MAPPER);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -191,7 +308,7 @@ public class ChefDAO {
              var stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "%" + term + "%");
             try (var rs = stmt.executeQuery()) {
-                return pageResults(rs, pageOptions);
+                return RowMapping.pageResults(rs, pageOptions, CHEF_MAPPER);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -203,67 +320,39 @@ public class ChefDAO {
     // below are helper methods that are included for your convenience
 
     /**
-     * Maps a single row from the ResultSet to a Chef object.
-     *
-     * @param set the ResultSet containing Chef data.
-     * @return a Chef object representing the row.
-     * @throws SQLException if an error occurs while accessing the ResultSet.
-     */
-    private Chef mapSingleRow(ResultSet set) throws SQLException {
-        int id = set.getInt("id");
-        String username = set.getString("username");
-        String email = set.getString("email");
-        String password = set.getString("password");
-        boolean isAdmin = set.getBoolean("is_admin");
-        return new Chef(id, username, email, password, isAdmin);
-    }
-
-    /**
-     * Maps multiple rows from the ResultSet to a list of Chef objects.
+     * Retrieves the Chef whose value in a unique column equals the given value.
      *
-     * @param set the ResultSet containing Chef data.
-     * @return a list of Chef objects.
-     * @throws SQLException if an error occurs while accessing the ResultSet.
+     * @param column the unique column, which must be a trusted constant.
+     * @param value the value to match.
+     * @return the Chef object, or null if none matches.
      */
-    private List<Chef> mapRows(ResultSet set) throws SQLException {
-        List<Chef> chefs = new ArrayList<>();
-        while (set.next()) {
-            chefs.add(mapSingleRow(set));
+    private Chef findByUniqueColumn(String column, String value) {
+        if (value == null) {
+            return null;
         }
-        return chefs;
-    }
-
-    /**
-     * Paginates the results of a ResultSet into a Page of Chef objects.
-     *
-     * @param set the ResultSet containing Chef data.
-     * @param pageOptions options for pagination and sorting.
-     * @return a Page of Chef objects containing the paginated results.
-     * @throws SQLException if an error occurs while accessing the ResultSet.
-     */
-    private Page<Chef> pageResults(ResultSet set, PageOptions pageOptions) throws SQLException {
-        List<Chef> chefs = mapRows(set);
-        int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-        int limit = offset + pageOptions.getPageSize();
-        List<Chef> slicedList = sliceList(chefs, offset, limit);
-        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-                chefs.size() / pageOptions.getPageSize(), chefs.size(), slicedList);
+        String sql = "SELECT * FROM Chef WHERE " + column + " = ?";
+        try (var conn = connectionUtil.getConnection();
+             var stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, value);
+            try (var rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return RowMapping.mapSingleRow(rs, CHEF_MAPPER);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
     }
 
     /**
-     * Slices a list of Chef objects from a starting index to an ending index.
-     *
-     * @param list the list of Chef objects to slice.
-     * @param start the starting index.
-     * @param end the ending index.
-     * @return a sliced list of Chef objects.
+     * Maps a row of the Chef table to a Chef object.
      */
-    private List<Chef> sliceList(List<Chef> list, int start, int end) {
-        List<Chef> sliced = new ArrayList<>();
-        for (int i = start; i < end && i < list.size(); i++) {
-            sliced.add(list.get(i));
-        }
-        return sliced;
-    }
+    private static final RowMapper<Chef> CHEF_MAPPER = row -> {
+        Chef chef = new Chef(row.getInt("id"), row.getString("username"), row.getString("email"),
+                row.getString("password"), row.getBoolean("is_admin"));
+        chef.setVersion(row.getInt("version"));
+        return chef;
+    };
 }
 
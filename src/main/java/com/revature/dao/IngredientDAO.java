@@ -1,11 +1,17 @@
 package com.revature.dao;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import com.revature.util.ConnectionUtil;
+import com.revature.util.IdBatch;
 import com.revature.util.Page;
 import com.revature.util.PageOptions;
 import com.revature.model.Ingredient;
@@ -49,7 +55,7 @@ public class IngredientDAO {
             stmt.setInt(1, id);
             try (var rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapSingleRow(rs);
+                    return RowMapping.mapSingleRow(rs, INGREDIENT_MAPPER);
                 }
             }
         } catch (Exception e) {
@@ -58,6 +64,38 @@ public class IngredientDAO {
         return null;
     }
 
+    /**
+     * Retrieves the Ingredients with the given ids using one connection and one IN query per chunk of ids.
+     *
+     * @param ids the ids of the Ingredients to retrieve.
+     * @return the Ingredients in the order their ids were requested; ids with no Ingredient are skipped.
+     */
+    public List<Ingredient> getIngredientsByIds(List<Integer> ids) {
+        Map<Integer, Ingredient> ingredients = new HashMap<>();
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (Connection conn = connectionUtil.getConnection()) {
+            for (List<Integer> chunk : IdBatch.chunks(ids)) {
+                String sql = "SELECT * FROM Ingredient WHERE id IN (" + IdBatch.placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        for (Ingredient ingredient : RowMapping.mapRows(rs, INGREDIENT_MAPPER)) {
+                            ingredients.put(ingredient.getId(), ingredient);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+        return IdBatch.inRequestedOrder(ids, ingredients);
+    }
+
     /**
      * TODO: Creates a new Ingredient record in the database.
      *
@@ -106,7 +144,7 @@ public class IngredientDAO {
      * @param ingredient the Ingredient object containing updated information.
      */
     public void updateIngredient(Ingredient ingredient) {
-        String sql = "UPDATE Ingredient SET name = ? WHERE id = ?";
+        String sql = "UPDATE Ingredient SET name = ?, version = version + 1 WHERE id = ?";
         try (var conn = connectionUtil.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, ingredient.getName());
@@ -117,6 +155,30 @@ public class IngredientDAO {
         }
     }
 
+    /**
+     * Updates an existing Ingredient record only if it is still at the expected version, incrementing the version on success.
+     *
+     * @param ingredient the Ingredient object containing updated information; its version is set to the new version on success
+     * @param expectedVersion the version the caller last read
+     * @return true if the record was updated; false if it was modified concurrently or no longer exists
+     */
+    public boolean updateIngredient(Ingredient ingredient, int expectedVersion) {
+        String sql = "UPDATE Ingredient SET name = ?, version = version + 1 WHERE id = ? AND version = ?";
+        try (var conn = connectionUtil.getConnection();
+             var stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, ingredient.getName());
+            stmt.setInt(2, ingredient.getId());
+            stmt.setInt(3, expectedVersion);
+            if (stmt.executeUpdate() == 1) {
+                ingredient.setVersion(expectedVersion + 1);
+                return true;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
     /**
      * TODO: Retrieves all ingredient records from the database.
      *
@@ -128,7 +190,7 @@ public class IngredientDAO {
         try (var conn = connectionUtil.getConnection();
              var stmt = conn.createStatement();
              var rs = stmt.executeQuery(sql)) {
-            ingredients = mapRows(rs);
+            ingredients = RowMapping.mapRows(rs, INGREDIENT_MAPPER);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -142,16 +204,11 @@ public class IngredientDAO {
      * @return a Page of Ingredient objects containing the retrieved ingredients.
      */
     public Page<Ingredient> getAllIngredients(PageOptions pageOptions) {
-        String sortBy = pageOptions.getSortBy() != null ? pageOptions.getSortBy() : "id";
-        String sortDirection = pageOptions.getSortDirection() != null ? pageOptions.getSortDirection() : "ASC";
-        // Only allow sorting by id or name for safety
-        if (!sortBy.equalsIgnoreCase("id") && !sortBy.equalsIgnoreCase("name")) sortBy = "id";
-        if (!sortDirection.equalsIgnoreCase("asc") && !sortDirection.equalsIgnoreCase("desc")) sortDirection = "ASC";
-        String sql = "SELECT * FROM Ingredient ORDER BY " + sortBy + " " + sortDirection;
+        String sql = "SELECT * FROM Ingredient " + orderBy(pageOptions);
         try (var conn = connectionUtil.getConnection();
              var stmt = conn.createStatement();
              var rs = stmt.executeQuery(sql)) {
-            return pageResults(rs, pageOptions);
+            return RowMapping.pageResults(rs, pageOptions, INGREDIENT_MAPPER);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -171,7 +228,7 @@ public class IngredientDAO {
              var stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "%" + term + "%");
             try (var rs = stmt.executeQuery()) {
-                ingredients = mapRows(rs);
+                ingredients = RowMapping.mapRows(rs, INGREDIENT_MAPPER);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -187,16 +244,12 @@ public class IngredientDAO {
      * @return a Page of Ingredient objects containing the retrieved ingredients.
      */
     public Page<Ingredient> searchIngredients(String term, PageOptions pageOptions) {
-        String sortBy = pageOptions.getSortBy() != null ? pageOptions.getSortBy() : "id";
-        String sortDirection = pageOptions.getSortDirection() != null ? pageOptions.getSortDirection() : "ASC";
-        if (!sortBy.equalsIgnoreCase("id") && !sortBy.equalsIgnoreCase("name")) sortBy = "id";
-        if (!sortDirection.equalsIgnoreCase("asc") && !sortDirection.equalsIgnoreCase("desc")) sortDirection = "ASC";
-        String sql = "SELECT * FROM Ingredient WHERE name LIKE ? ORDER BY " + sortBy + " " + sortDirection;
+        String sql = "SELECT * FROM Ingredient WHERE name LIKE ? " + orderBy(pageOptions);
         try (var conn = connectionUtil.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "%" + term + "%");
             try (var rs = stmt.executeQuery()) {
-                return pageResults(rs, pageOptions);
+                return RowMapping.pageResults(rs, pageOptions, INGREDIENT_MAPPER);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -204,52 +257,78 @@ public class IngredientDAO {
         return null;
     }
 
-    // below are helper methods for your convenience
-
     /**
-     * Maps a single row from the ResultSet to an Ingredient object.
-     *
-     * @param resultSet the ResultSet containing Ingredient data.
-     * @return an Ingredient object representing the row.
-     * @throws SQLException if an error occurs while accessing the ResultSet.
-     */
-    private Ingredient mapSingleRow(ResultSet resultSet) throws SQLException {
-        // Use lowercase column names to match most DB setups
-        return new Ingredient(resultSet.getInt("id"), resultSet.getString("name"));
-    }
-
-    /**
-     * Maps multiple rows from the ResultSet to a list of Ingredient objects.
+     * Creates any of the named ingredients that do not exist yet and returns every named ingredient with its id.
+     * 
+     * All names are written with a single batched MERGE keyed on the unique name column, so existing rows are left in place instead of violating the constraint, and the ids are then read back with one query. Both statements run on one connection inside one transaction.
      *
-     * @param resultSet the ResultSet containing Ingredient data.
-     * @return a list of Ingredient objects.
-     * @throws SQLException if an error occurs while accessing the ResultSet.
+     * @param names the ingredient names; duplicates are collapsed
+     * @return the ingredients in the order their names first appear, or an empty list if the write failed
      */
-    private List<Ingredient> mapRows(ResultSet resultSet) throws SQLException {
-        List<Ingredient> ingredients = new ArrayList<Ingredient>();
-        while (resultSet.next()) {
-            ingredients.add(mapSingleRow(resultSet));
+    public List<Ingredient> mergeIngredients(List<String> names) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(names));
+        List<Ingredient> ingredients = new ArrayList<>();
+        if (distinct.isEmpty()) {
+            return ingredients;
+        }
+        String mergeSql = "MERGE INTO Ingredient (name) KEY (name) VALUES (?)";
+        String selectSql = "SELECT * FROM Ingredient WHERE name = ANY(?)";
+        try (Connection conn = connectionUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            Map<String, Ingredient> byName = new HashMap<>();
+            try (PreparedStatement merge = conn.prepareStatement(mergeSql);
+                 PreparedStatement select = conn.prepareStatement(selectSql)) {
+                for (String name : distinct) {
+                    merge.setString(1, name);
+                    merge.addBatch();
+                }
+                merge.executeBatch();
+                select.setObject(1, distinct.toArray(new String[0]));
+                try (ResultSet rs = select.executeQuery()) {
+                    for (Ingredient ingredient : RowMapping.mapRows(rs, INGREDIENT_MAPPER)) {
+                        byName.put(ingredient.getName(), ingredient);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            for (String name : distinct) {
+                ingredients.add(byName.get(name));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            ingredients.clear();
         }
         return ingredients;
     }
 
+    // below are helper methods for your convenience
+
     /**
-     * Paginates the results of a ResultSet into a Page of Ingredient objects.
+     * Chooses the ORDER BY clause for the requested sort. Only sorting by id or name is allowed, and every spelling of a sort maps to the same clause, so each query has one SQL text per sort and its prepared statement is reused from the connection's statement cache.
      *
-     * @param resultSet the ResultSet containing Ingredient data.
      * @param pageOptions options for pagination and sorting.
-     * @return a Page of Ingredient objects containing the paginated results.
-     * @throws SQLException if an error occurs while accessing the ResultSet.
+     * @return one of the four canonical ORDER BY clauses; ascending by id if the sort is missing or not allowed.
      */
-    private Page<Ingredient> pageResults(ResultSet resultSet, PageOptions pageOptions) throws SQLException {
-        List<Ingredient> ingredients = mapRows(resultSet);
-        int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-        int limit = Math.min(offset + pageOptions.getPageSize(), ingredients.size());
-        List<Ingredient> subList = new ArrayList<>();
-        if (offset < ingredients.size()) {
-            subList = ingredients.subList(offset, limit);
+    private static String orderBy(PageOptions pageOptions) {
+        boolean byName = "name".equalsIgnoreCase(pageOptions.getSortBy());
+        boolean descending = "desc".equalsIgnoreCase(pageOptions.getSortDirection());
+        if (byName) {
+            return descending ? "ORDER BY name DESC" : "ORDER BY name ASC";
         }
-        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-            (int) Math.ceil(ingredients.size() / ((float) pageOptions.getPageSize())), ingredients.size(), subList);
+        return descending ? "ORDER BY id DESC" : "ORDER BY id ASC";
     }
+
+    /**
+     * Maps a row of the Ingredient table to an Ingredient object.
+     */
+    private static final RowMapper<Ingredient> INGREDIENT_MAPPER = row -> {
+        Ingredient ingredient = new Ingredient(row.getInt("id"), row.getString("name"));
+        ingredient.setVersion(row.getInt("version"));
+        return ingredient;
+    };
 }
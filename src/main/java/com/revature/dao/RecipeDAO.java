@@ -1,17 +1,33 @@
 package com.revature.dao;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import com.revature.util.ConnectionUtil;
+import com.revature.util.IdBatch;
 import com.revature.util.Page;
 import com.revature.util.PageOptions;
 import com.revature.model.Chef;
+import com.revature.model.ChefSummary;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
+import com.revature.model.RecipeSummary;
 
 
 
@@ -65,7 +81,7 @@ public class RecipeDAO {
 		try (Connection conn = connectionUtil.getConnection();
 			 Statement stmt = conn.createStatement();
 			 ResultSet rs = stmt.executeQuery("SELECT * FROM Recipe")) {
-			recipes = mapRows(rs);
+			recipes = RowMapping.mapRows(rs, recipeMapper);
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -82,7 +98,7 @@ public class RecipeDAO {
 		try (Connection conn = connectionUtil.getConnection();
 			 Statement stmt = conn.createStatement();
 			 ResultSet rs = stmt.executeQuery("SELECT * FROM Recipe")) {
-			return pageResults(rs, pageOptions);
+			return RowMapping.pageResults(rs, pageOptions, recipeMapper);
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -105,7 +121,7 @@ public class RecipeDAO {
 			stmt.setString(1, likeTerm);
 			stmt.setString(2, likeTerm);
 			try (ResultSet rs = stmt.executeQuery()) {
-				recipes = mapRows(rs);
+				recipes = RowMapping.mapRows(rs, recipeMapper);
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -129,7 +145,7 @@ public class RecipeDAO {
 			stmt.setString(1, likeTerm);
 			stmt.setString(2, likeTerm);
 			try (ResultSet rs = stmt.executeQuery()) {
-				return pageResults(rs, pageOptions);
+				return RowMapping.pageResults(rs, pageOptions, recipeMapper);
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -137,6 +153,74 @@ public class RecipeDAO {
 		return null;
     }
 
+    /**
+     * Retrieves a page of recipe summaries, optionally filtered by a term. Only the selected columns are read, the authors' usernames are joined in rather than loaded one chef at a time, and only the requested page is fetched, so a list view reads a few short columns instead of every recipe with its full instructions.
+     * 
+     * @param term the search term to filter recipes by, or null for all recipes
+     * @param fields the fields to select, from RecipeSummary.FIELDS; the id is always selected
+     * @param pageOptions the page to retrieve, sorted by id or name in either direction; any other sort falls back to ascending by id
+     * @return a Page of RecipeSummary objects in the requested order
+     */
+    public Page<RecipeSummary> getRecipeSummaries(String term, Set<String> fields, PageOptions pageOptions) {
+		boolean withAuthor = fields.contains("author");
+		StringBuilder columns = new StringBuilder("r.id");
+		if (fields.contains("name")) {
+			columns.append(", r.name");
+		}
+		if (fields.contains("instructions")) {
+			columns.append(", r.instructions");
+		}
+		if (withAuthor) {
+			columns.append(", c.id AS chef_id, c.username");
+		}
+		String where = term == null || term.isEmpty() ? "" : " WHERE r.name LIKE ? OR r.instructions LIKE ?";
+		String countSql = "SELECT COUNT(*) FROM Recipe r" + where;
+		String sql = "SELECT " + columns + " FROM Recipe r" + (withAuthor ? " LEFT JOIN Chef c ON c.id = r.chef_id" : "")
+				+ where + " " + orderBy(pageOptions) + " LIMIT ? OFFSET ?";
+		int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
+		try (Connection conn = connectionUtil.getConnection();
+			 PreparedStatement countStmt = conn.prepareStatement(countSql);
+			 PreparedStatement stmt = conn.prepareStatement(sql)) {
+			int index = 1;
+			if (!where.isEmpty()) {
+				String likeTerm = "%" + term + "%";
+				countStmt.setString(1, likeTerm);
+				countStmt.setString(2, likeTerm);
+				stmt.setString(index++, likeTerm);
+				stmt.setString(index++, likeTerm);
+			}
+			stmt.setInt(index++, pageOptions.getPageSize());
+			stmt.setInt(index, Math.max(offset, 0));
+			int total;
+			try (ResultSet rs = countStmt.executeQuery()) {
+				rs.next();
+				total = rs.getInt(1);
+			}
+			List<RecipeSummary> summaries = new ArrayList<>();
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					RecipeSummary summary = new RecipeSummary();
+					summary.setId(rs.getInt("id"));
+					if (fields.contains("name")) {
+						summary.setName(rs.getString("name"));
+					}
+					if (fields.contains("instructions")) {
+						summary.setInstructions(rs.getString("instructions"));
+					}
+					if (withAuthor && rs.getString("username") != null) {
+						summary.setAuthor(new ChefSummary(rs.getInt("chef_id"), rs.getString("username")));
+					}
+					summaries.add(summary);
+				}
+			}
+			return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
+					RowMapping.totalPages(total, pageOptions.getPageSize()), total, summaries);
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return null;
+    }
+
     /**
      * TODO: Retrieves a specific recipe by its ID.
      * 
@@ -151,7 +235,7 @@ public class RecipeDAO {
 			stmt.setInt(1, id);
 			try (ResultSet rs = stmt.executeQuery()) {
 				if (rs.next()) {
-					return mapSingleRow(rs);
+					return RowMapping.mapSingleRow(rs, recipeMapper);
 				}
 			}
 		} catch (SQLException e) {
@@ -161,6 +245,79 @@ public class RecipeDAO {
     }
         
 
+    /**
+     * Retrieves the recipes with the given ids using one connection and one IN query per chunk of ids. Their authors are loaded together afterwards, on the same connection, instead of one query per recipe.
+     * 
+     * @param ids the ids of the recipes to retrieve
+     * @return the recipes in the order their ids were requested; ids with no recipe are skipped
+     */
+    public List<Recipe> getRecipesByIds(List<Integer> ids) {
+		Map<Integer, Recipe> recipes = new HashMap<>();
+		Map<Integer, Integer> authorIds = new HashMap<>();
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		try (Connection conn = connectionUtil.getConnection()) {
+			for (List<Integer> chunk : IdBatch.chunks(ids)) {
+				String sql = "SELECT * FROM Recipe WHERE id IN (" + IdBatch.placeholders(chunk.size()) + ")";
+				try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+					for (int i = 0; i < chunk.size(); i++) {
+						stmt.setInt(i + 1, chunk.get(i));
+					}
+					try (ResultSet rs = stmt.executeQuery()) {
+						while (rs.next()) {
+							Recipe recipe = new Recipe(rs.getInt("id"), rs.getString("name"), rs.getString("instructions"), null);
+							recipe.setVersion(rs.getInt("version"));
+							recipes.put(recipe.getId(), recipe);
+							authorIds.put(recipe.getId(), rs.getInt("chef_id"));
+						}
+					}
+				}
+			}
+			Map<Integer, Chef> authors = chefDAO.getChefsByIds(conn, new HashSet<>(authorIds.values()));
+			for (Recipe recipe : recipes.values()) {
+				recipe.setAuthor(authors.get(authorIds.get(recipe.getId())));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>();
+		}
+		return IdBatch.inRequestedOrder(ids, recipes);
+    }
+
+    /**
+     * Streams the instructions of a recipe to a writer without holding them in memory. The instructions column is a CLOB, and its character stream is copied in small buffers, so even very long instructions cost no more heap than a short one.
+     * 
+     * Unlike the other lookups, a database failure is not reported as a missing recipe: once the target has been obtained, part of the instructions may already have been sent, and only an exception can tell the caller the body is incomplete.
+     * 
+     * @param id the ID of the recipe
+     * @param target supplies the writer to stream to; only called if the recipe exists
+     * @return true if the recipe exists and its instructions were written; false if there is no such recipe
+     * @throws IOException if reading the instructions from the database or writing them to the target fails; a database failure is the cause
+     */
+    public boolean writeInstructions(int id, Supplier<Writer> target) throws IOException {
+		String sql = "SELECT instructions FROM Recipe WHERE id = ?";
+		try (Connection conn = connectionUtil.getConnection();
+			 PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setInt(1, id);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (!rs.next()) {
+					return false;
+				}
+				Writer writer = target.get();
+				try (Reader reader = rs.getCharacterStream("instructions")) {
+					if (reader != null) {
+						reader.transferTo(writer);
+					}
+				}
+				writer.flush();
+				return true;
+			}
+		} catch (SQLException e) {
+			throw new IOException("Could not read the instructions of recipe " + id, e);
+		}
+    }
+
     /**
      * TODO: Creates a new recipe in the database.
      * 
@@ -199,7 +356,7 @@ public class RecipeDAO {
      */
 
     public void updateRecipe(Recipe recipe) {
-		String sql = "UPDATE Recipe SET name = ?, instructions = ?, chef_id = ? WHERE id = ?";
+		String sql = "UPDATE Recipe SET name = ?, instructions = ?, chef_id = ?, version = version + 1 WHERE id = ?";
 		try (Connection conn = connectionUtil.getConnection();
 			 java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
 			stmt.setString(1, recipe.getName());
@@ -212,6 +369,32 @@ public class RecipeDAO {
 		}
     }
 
+    /**
+     * Updates an existing recipe only if it is still at the expected version, incrementing the version on success.
+     * 
+     * @param recipe the Recipe object with updated data; its version is set to the new version on success
+     * @param expectedVersion the version the caller last read
+     * @return true if the recipe was updated; false if it was modified concurrently or no longer exists
+     */
+    public boolean updateRecipe(Recipe recipe, int expectedVersion) {
+		String sql = "UPDATE Recipe SET name = ?, instructions = ?, chef_id = ?, version = version + 1 WHERE id = ? AND version = ?";
+		try (Connection conn = connectionUtil.getConnection();
+			 java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setString(1, recipe.getName());
+			stmt.setString(2, recipe.getInstructions());
+			stmt.setInt(3, recipe.getAuthor().getId());
+			stmt.setInt(4, recipe.getId());
+			stmt.setInt(5, expectedVersion);
+			if (stmt.executeUpdate() == 1) {
+				recipe.setVersion(expectedVersion + 1);
+				return true;
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return false;
+    }
+
     /**
      * TODO: Deletes a specific recipe from the database.
      * 
@@ -229,79 +412,343 @@ public class RecipeDAO {
 		}
     }
 
+    /**
+     * Retrieves the ingredient lines of a recipe, in insertion order.
+     * 
+     * @param recipeId the ID of the recipe
+     * @return the recipe's ingredient lines, each carrying the ingredient id and name
+     */
+    public List<RecipeIngredient> getRecipeIngredients(int recipeId) {
+		try (Connection conn = connectionUtil.getConnection()) {
+			return new ArrayList<>(loadRecipeIngredients(conn, recipeId).values());
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return new ArrayList<>();
+    }
+
+    /**
+     * Retrieves other recipes by the author of a recipe, most recently created first.
+     * 
+     * @param recipeId the ID of the recipe whose author is looked up; the recipe itself is left out
+     * @param limit the maximum number of recipes to return
+     * @return the author's other recipes, or an empty list if the recipe does not exist
+     */
+    public List<Recipe> getOtherRecipesByAuthor(int recipeId, int limit) {
+		String sql = "SELECT * FROM Recipe WHERE chef_id = (SELECT chef_id FROM Recipe WHERE id = ?) AND id <> ? ORDER BY id DESC LIMIT ?";
+		try (Connection conn = connectionUtil.getConnection();
+			 PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setInt(1, recipeId);
+			stmt.setInt(2, recipeId);
+			stmt.setInt(3, limit);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return RowMapping.mapRows(rs, recipeMapper);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return new ArrayList<>();
+    }
+
+    /**
+     * Retrieves the recipes most similar to a recipe, ranked by the number of ingredients they share with it.
+     * 
+     * @param recipeId the ID of the recipe to compare against; the recipe itself is left out
+     * @param limit the maximum number of recipes to return
+     * @return the recipes sharing at least one ingredient, most shared first
+     */
+    public List<Recipe> getSimilarRecipes(int recipeId, int limit) {
+		String sql = "SELECT r.* FROM Recipe r JOIN ("
+				+ "SELECT ri.recipe_id, COUNT(*) AS shared FROM Recipe_Ingredient ri "
+				+ "WHERE ri.ingredient_id IN (SELECT ingredient_id FROM Recipe_Ingredient WHERE recipe_id = ?) AND ri.recipe_id <> ? "
+				+ "GROUP BY ri.recipe_id) s ON s.recipe_id = r.id ORDER BY s.shared DESC, r.id LIMIT ?";
+		try (Connection conn = connectionUtil.getConnection();
+			 PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setInt(1, recipeId);
+			stmt.setInt(2, recipeId);
+			stmt.setInt(3, limit);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return RowMapping.mapRows(rs, recipeMapper);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return new ArrayList<>();
+    }
+
+    /**
+     * Saves a recipe together with its ingredient lines atomically, on one connection and in one transaction.
+     * 
+     * A recipe with an id of 0 is inserted along with all of its lines. Otherwise the recipe row is updated and its stored lines are diffed against the given ones by ingredient id: only new lines are inserted, only lines whose volume or unit changed are updated, and lines no longer present are deleted, each kind as one batch. If anything fails, nothing is written.
+     * 
+     * @param recipe the recipe to save; its ingredient lines must carry ingredient ids
+     * @return the id of the saved recipe, or 0 if the save failed
+     */
+    public int saveRecipeWithIngredients(Recipe recipe) {
+		return writeRecipeWithIngredients(recipe, null);
+    }
+
+    /**
+     * Saves an existing recipe together with its ingredient lines, as saveRecipeWithIngredients(Recipe) does, but only if the recipe is still at the expected version.
+     * 
+     * @param recipe the recipe to save; its version is set to the new version on success
+     * @param expectedVersion the version the caller last read
+     * @return the id of the saved recipe, or 0 if it was modified concurrently, no longer exists, or the save failed
+     */
+    public int saveRecipeWithIngredients(Recipe recipe, int expectedVersion) {
+		return writeRecipeWithIngredients(recipe, expectedVersion);
+    }
+
+    /**
+     * Inserts a chunk of recipes, together with their ingredient lines, using JDBC batching on a single connection and transaction.
+     * 
+     * The whole chunk is first attempted as one batch. If the batch fails, the transaction is rolled back and the chunk is replayed row by row behind savepoints, so that one bad row is reported without discarding the rest of the chunk. The ingredient lines are expected to carry resolved ingredient ids.
+     *
+     * @param recipes the recipes to insert; each successfully inserted recipe has its id set
+     * @return a list with one entry per recipe, null if the recipe was inserted or the error message otherwise
+     */
+    public List<String> createRecipes(List<Recipe> recipes) {
+		List<String> errors = new ArrayList<>(Collections.nCopies(recipes.size(), null));
+		try (Connection conn = connectionUtil.getConnection()) {
+			conn.setAutoCommit(false);
+			try {
+				insertRecipes(conn, recipes);
+				conn.commit();
+			} catch (SQLException batchError) {
+				conn.rollback();
+				for (int i = 0; i < recipes.size(); i++) {
+					Recipe recipe = recipes.get(i);
+					recipe.setId(0);
+					Savepoint savepoint = conn.setSavepoint();
+					try {
+						insertRecipes(conn, List.of(recipe));
+					} catch (SQLException rowError) {
+						conn.rollback(savepoint);
+						recipe.setId(0);
+						errors.set(i, rowError.getMessage());
+					}
+				}
+				conn.commit();
+			} finally {
+				conn.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			for (int i = 0; i < recipes.size(); i++) {
+				if (errors.get(i) == null) {
+					recipes.get(i).setId(0);
+					errors.set(i, e.getMessage());
+				}
+			}
+		}
+		return errors;
+    }
+
     // below are helper methods for your convenience
+
+	/**
+	 * Chooses the ORDER BY clause for the requested sort of a recipe page. Only sorting by id or name is allowed, and every spelling of a sort maps to the same clause, so the column never comes from the request and each sort has one SQL text.
+	 *
+	 * @param pageOptions options for pagination and sorting
+	 * @return one of the four canonical ORDER BY clauses; ascending by id if the sort is missing or not allowed
+	 */
+	private static String orderBy(PageOptions pageOptions) {
+		boolean byName = "name".equalsIgnoreCase(pageOptions.getSortBy());
+		boolean descending = "desc".equalsIgnoreCase(pageOptions.getSortDirection());
+		if (byName) {
+			return descending ? "ORDER BY r.name DESC" : "ORDER BY r.name ASC";
+		}
+		return descending ? "ORDER BY r.id DESC" : "ORDER BY r.id ASC";
+	}
 	
 	/**
-	 * Maps a single row from the ResultSet to a Recipe object.
-	 * This method extracts the recipe details such as ID, name, instructions,
-	 * and associated chef from the ResultSet and constructs a Recipe instance.
+	 * Maps a row of the Recipe table to a Recipe object, looking up its author through the ChefDAO.
+	 */
+	private final RowMapper<Recipe> recipeMapper = row -> {
+		Recipe recipe = new Recipe(row.getInt("id"), row.getString("name"), row.getString("instructions"),
+				chefDAO.getChefById(row.getInt("chef_id")));
+		recipe.setVersion(row.getInt("version"));
+		return recipe;
+	};
+
+	/**
+	 * Batches the RECIPE inserts for the given recipes, assigns the generated ids, and then batches the RECIPE_INGREDIENT inserts for their ingredient lines. The caller owns the connection and the transaction.
 	 *
-	 * @param set the ResultSet containing the recipe data
-	 * @return a Recipe object representing the mapped row
-	 * @throws SQLException if there is an error accessing the ResultSet
+	 * @param conn the connection to write on
+	 * @param recipes the recipes to insert
+	 * @throws SQLException if any statement in either batch fails
 	 */
-	private Recipe mapSingleRow(ResultSet set) throws SQLException {
-		int id = set.getInt("id");
-		String name = set.getString("name");
-		String instructions = set.getString("instructions");
-		Chef author = chefDAO.getChefById(set.getInt("chef_id"));
-		return new Recipe(id, name, instructions, author);
+	private void insertRecipes(Connection conn, List<Recipe> recipes) throws SQLException {
+		String recipeSql = "INSERT INTO Recipe (name, instructions, chef_id) VALUES (?, ?, ?)";
+		String lineSql = "INSERT INTO Recipe_Ingredient (recipe_id, ingredient_id, vol, unit) VALUES (?, ?, ?, ?)";
+		try (PreparedStatement stmt = conn.prepareStatement(recipeSql, Statement.RETURN_GENERATED_KEYS)) {
+			for (Recipe recipe : recipes) {
+				stmt.setString(1, recipe.getName());
+				stmt.setString(2, recipe.getInstructions());
+				stmt.setInt(3, recipe.getAuthor().getId());
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+			try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+				for (Recipe recipe : recipes) {
+					if (!generatedKeys.next()) {
+						throw new SQLException("Creating recipe failed, no id returned for " + recipe.getName());
+					}
+					recipe.setId(generatedKeys.getInt(1));
+				}
+			}
+		}
+		try (PreparedStatement stmt = conn.prepareStatement(lineSql)) {
+			boolean hasLines = false;
+			for (Recipe recipe : recipes) {
+				if (recipe.getIngredients() == null) {
+					continue;
+				}
+				for (RecipeIngredient line : recipe.getIngredients()) {
+					stmt.setInt(1, recipe.getId());
+					stmt.setInt(2, line.getId());
+					stmt.setDouble(3, line.getVolume());
+					stmt.setString(4, line.getUnit());
+					stmt.addBatch();
+					hasLines = true;
+				}
+			}
+			if (hasLines) {
+				stmt.executeBatch();
+			}
+		}
 	}
 
 	/**
-	 * Maps multiple rows from a ResultSet to a list of Recipe objects.
-	 * This method iterates through the ResultSet and calls mapSingleRow
-	 * for each row, adding the resulting Recipe objects to a list.
+	 * Updates a recipe row and brings its stored ingredient lines in line with the recipe's, touching only the lines that differ. The caller owns the connection and the transaction.
 	 *
-	 * @param set the ResultSet containing multiple recipe rows
-	 * @return a list of Recipe objects representing the mapped rows
-	 * @throws SQLException if there is an error accessing the ResultSet
+	 * @param conn the connection to write on
+	 * @param recipe the recipe with its desired ingredient lines
+	 * @param expectedVersion the version the recipe row must be at, or null to update it unconditionally
+	 * @throws SQLException if the recipe does not exist, is not at the expected version, or any statement fails
 	 */
-	private List<Recipe> mapRows(ResultSet set) throws SQLException {
-		List<Recipe> recipes = new ArrayList<>();
-		while (set.next()) {
-			recipes.add(mapSingleRow(set));
+	private void updateRecipeWithIngredients(Connection conn, Recipe recipe, Integer expectedVersion) throws SQLException {
+		String recipeSql = "UPDATE Recipe SET name = ?, instructions = ?, chef_id = ?, version = version + 1 WHERE id = ?"
+				+ (expectedVersion != null ? " AND version = ?" : "");
+		String insertSql = "INSERT INTO Recipe_Ingredient (recipe_id, ingredient_id, vol, unit) VALUES (?, ?, ?, ?)";
+		String updateSql = "UPDATE Recipe_Ingredient SET vol = ?, unit = ? WHERE recipe_id = ? AND ingredient_id = ?";
+		String deleteSql = "DELETE FROM Recipe_Ingredient WHERE recipe_id = ? AND ingredient_id = ?";
+		try (PreparedStatement stmt = conn.prepareStatement(recipeSql)) {
+			stmt.setString(1, recipe.getName());
+			stmt.setString(2, recipe.getInstructions());
+			stmt.setInt(3, recipe.getAuthor().getId());
+			stmt.setInt(4, recipe.getId());
+			if (expectedVersion != null) {
+				stmt.setInt(5, expectedVersion);
+			}
+			if (stmt.executeUpdate() == 0) {
+				throw new SQLException("Updating recipe failed, recipe " + recipe.getId() + " is missing or was modified concurrently");
+			}
+			if (expectedVersion != null) {
+				recipe.setVersion(expectedVersion + 1);
+			}
+		}
+		Map<Integer, RecipeIngredient> existing = loadRecipeIngredients(conn, recipe.getId());
+		Map<Integer, RecipeIngredient> desired = new LinkedHashMap<>();
+		for (RecipeIngredient line : recipe.getIngredients()) {
+			desired.put(line.getId(), line);
+		}
+		try (PreparedStatement insert = conn.prepareStatement(insertSql);
+			 PreparedStatement update = conn.prepareStatement(updateSql);
+			 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+			int inserts = 0;
+			int updates = 0;
+			int deletes = 0;
+			for (RecipeIngredient line : desired.values()) {
+				RecipeIngredient current = existing.get(line.getId());
+				if (current == null) {
+					insert.setInt(1, recipe.getId());
+					insert.setInt(2, line.getId());
+					insert.setDouble(3, line.getVolume());
+					insert.setString(4, line.getUnit());
+					insert.addBatch();
+					inserts++;
+				} else if (current.getVolume() != line.getVolume() || !current.getUnit().equals(line.getUnit())) {
+					update.setDouble(1, line.getVolume());
+					update.setString(2, line.getUnit());
+					update.setInt(3, recipe.getId());
+					update.setInt(4, line.getId());
+					update.addBatch();
+					updates++;
+				}
+			}
+			for (Integer ingredientId : existing.keySet()) {
+				if (!desired.containsKey(ingredientId)) {
+					delete.setInt(1, recipe.getId());
+					delete.setInt(2, ingredientId);
+					delete.addBatch();
+					deletes++;
+				}
+			}
+			if (deletes > 0) {
+				delete.executeBatch();
+			}
+			if (updates > 0) {
+				update.executeBatch();
+			}
+			if (inserts > 0) {
+				insert.executeBatch();
+			}
 		}
-		return recipes;
 	}
 
 	/**
-	 * Pages the results from a ResultSet into a Page object for the Recipe entity.
-	 * This method processes the ResultSet to retrieve recipes, then slices the list
-	 * based on the provided pagination options, and returns a Page object
-	 * containing
-	 * the paginated results.
+	 * Reads the stored ingredient lines of a recipe on the given connection.
 	 *
-	 * @param set the ResultSet containing recipe data
-	 * @param pageOptions the PageOptions object containing pagination details
-	 * @return a Page object containing the paginated list of Recipe objects
-	 * @throws SQLException if there is an error accessing the ResultSet
+	 * @param conn the connection to read on
+	 * @param recipeId the ID of the recipe
+	 * @return the recipe's ingredient lines keyed by ingredient id, in insertion order
+	 * @throws SQLException if the query fails
 	 */
-	private Page<Recipe> pageResults(ResultSet set, PageOptions pageOptions) throws SQLException {
-		List<Recipe> recipes = mapRows(set);
-		int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-		int limit = offset + pageOptions.getPageSize();
-		List<Recipe> slicedList = sliceList(recipes, offset, limit);
-		return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-				recipes.size() / pageOptions.getPageSize(), recipes.size(), slicedList);
+	private Map<Integer, RecipeIngredient> loadRecipeIngredients(Connection conn, int recipeId) throws SQLException {
+		String sql = "SELECT ri.ingredient_id, i.name, ri.vol, ri.unit FROM Recipe_Ingredient ri "
+				+ "JOIN Ingredient i ON i.id = ri.ingredient_id WHERE ri.recipe_id = ? ORDER BY ri.id";
+		Map<Integer, RecipeIngredient> lines = new LinkedHashMap<>();
+		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setInt(1, recipeId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					RecipeIngredient line = new RecipeIngredient(rs.getInt("ingredient_id"), rs.getString("name"),
+							rs.getDouble("vol"), rs.getString("unit"));
+					lines.put(line.getId(), line);
+				}
+			}
+		}
+		return lines;
 	}
 
 	/**
-	 * Slices a list of Recipe objects from a specified start index to an end index.
-	 * This method creates a sublist of the provided list, which can be used for
-	 * pagination.
+	 * Runs an insert, or an optionally version-checked update, of a recipe and its ingredient lines in one transaction.
 	 *
-	 * @param list  the original list of Recipe objects
-	 * @param start the starting index (inclusive) for the slice
-	 * @param end   the ending index (exclusive) for the slice
-	 * @return a list of Recipe objects representing the sliced portion
+	 * @param recipe the recipe to save
+	 * @param expectedVersion the version an update must match, or null for an unconditional update
+	 * @return the id of the saved recipe, or 0 if the save failed
 	 */
-	private List<Recipe> sliceList(List<Recipe> list, int start, int end) {
-		List<Recipe> sliced = new ArrayList<>();
-		for (int i = start; i < end && i < list.size(); i++) {
-			sliced.add(list.get(i));
+	private int writeRecipeWithIngredients(Recipe recipe, Integer expectedVersion) {
+		try (Connection conn = connectionUtil.getConnection()) {
+			conn.setAutoCommit(false);
+			try {
+				if (recipe.getId() == 0) {
+					insertRecipes(conn, List.of(recipe));
+				} else {
+					updateRecipeWithIngredients(conn, recipe, expectedVersion);
+				}
+				conn.commit();
+				return recipe.getId();
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			} finally {
+				conn.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
 		}
-		return sliced;
+		return 0;
 	}
 }
-
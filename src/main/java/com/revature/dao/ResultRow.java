@@ -0,0 +1,94 @@
+package com.revature.dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ResultRow class reads columns of a ResultSet by name while the driver is asked for them by position. The position of each column name is looked up in the result's metadata the first time it is read and remembered for the remaining rows, so mapping a large result does not pay for a name lookup in the driver on every column of every row.
+ *
+ * A ResultRow is created once per ResultSet and moves with it. If the result has no metadata, as with some test doubles, columns are read by name.
+ */
+public class ResultRow {
+
+    /** The result being read. */
+    private ResultSet set;
+
+    /** The result's metadata, read on first use; null if the result has none. */
+    private ResultSetMetaData metaData;
+
+    /** The positions of the column names read so far, keyed as callers name them; 0 for names not found in the metadata. */
+    private Map<String, Integer> positions = new HashMap<>();
+
+    /**
+     * Constructs a ResultRow over the specified result.
+     *
+     * @param set the result to read
+     */
+    public ResultRow(ResultSet set) {
+        this.set = set;
+    }
+
+    /**
+     * Retrieves the underlying result, for reads the row does not cover.
+     *
+     * @return the result
+     */
+    public ResultSet getResultSet() {
+        return set;
+    }
+
+    public int getInt(String column) throws SQLException {
+        int position = position(column);
+        return position > 0 ? set.getInt(position) : set.getInt(column);
+    }
+
+    public String getString(String column) throws SQLException {
+        int position = position(column);
+        return position > 0 ? set.getString(position) : set.getString(column);
+    }
+
+    public boolean getBoolean(String column) throws SQLException {
+        int position = position(column);
+        return position > 0 ? set.getBoolean(position) : set.getBoolean(column);
+    }
+
+    public long getLong(String column) throws SQLException {
+        int position = position(column);
+        return position > 0 ? set.getLong(position) : set.getLong(column);
+    }
+
+    public double getDouble(String column) throws SQLException {
+        int position = position(column);
+        return position > 0 ? set.getDouble(position) : set.getDouble(column);
+    }
+
+    /**
+     * Finds the position of a column, matching labels case-insensitively as the drivers do; the first matching column wins.
+     *
+     * @param column the column name or label
+     * @return the 1-based position, or 0 if the result has no metadata or no such column
+     * @throws SQLException if the metadata cannot be read
+     */
+    private int position(String column) throws SQLException {
+        Integer position = positions.get(column);
+        if (position == null) {
+            position = 0;
+            if (metaData == null) {
+                metaData = set.getMetaData();
+            }
+            if (metaData != null) {
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    if (column.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                        position = i;
+                        break;
+                    }
+                }
+            }
+            positions.put(column, position);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,21 @@
+package com.revature.dao;
+
+import java.sql.SQLException;
+
+/**
+ * A RowMapper turns the current row of a result into an object. The DAOs keep one mapper per entity and hand it to RowMapping, which walks the rows and pages the results.
+ *
+ * @param <T> the type the rows are mapped to
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the current row.
+     *
+     * @param row the current row
+     * @return the mapped object
+     * @throws SQLException if a column cannot be read
+     */
+    T mapRow(ResultRow row) throws SQLException;
+}
@@ -0,0 +1,76 @@
+package com.revature.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revature.util.Page;
+import com.revature.util.PageOptions;
+
+/**
+ * The RowMapping class holds the result-walking and paging helpers shared by the DAOs. Each DAO supplies a RowMapper for its entity; the column positions are resolved once per result by ResultRow.
+ */
+public class RowMapping {
+
+    private RowMapping() {
+    }
+
+    /**
+     * Maps the current row of a result, for callers that have already positioned it.
+     *
+     * @param set the result, positioned on a row
+     * @param mapper the mapper for the row
+     * @return the mapped object
+     * @throws SQLException if a column cannot be read
+     */
+    public static <T> T mapSingleRow(ResultSet set, RowMapper<T> mapper) throws SQLException {
+        return mapper.mapRow(new ResultRow(set));
+    }
+
+    /**
+     * Maps every remaining row of a result.
+     *
+     * @param set the result
+     * @param mapper the mapper for each row
+     * @return the mapped objects, in result order
+     * @throws SQLException if the result cannot be read
+     */
+    public static <T> List<T> mapRows(ResultSet set, RowMapper<T> mapper) throws SQLException {
+        ResultRow row = new ResultRow(set);
+        List<T> items = new ArrayList<>();
+        while (set.next()) {
+            items.add(mapper.mapRow(row));
+        }
+        return items;
+    }
+
+    /**
+     * Maps every remaining row of a result and returns the requested page of them, with the totals of the whole result.
+     *
+     * @param set the result
+     * @param pageOptions the page to return
+     * @param mapper the mapper for each row
+     * @return the page
+     * @throws SQLException if the result cannot be read
+     */
+    public static <T> Page<T> pageResults(ResultSet set, PageOptions pageOptions, RowMapper<T> mapper) throws SQLException {
+        List<T> items = mapRows(set, mapper);
+        int offset = Math.max((pageOptions.getPageNumber() - 1) * pageOptions.getPageSize(), 0);
+        int end = Math.min(offset + pageOptions.getPageSize(), items.size());
+        List<T> pageItems = offset < end ? new ArrayList<>(items.subList(offset, end)) : new ArrayList<>();
+        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
+                totalPages(items.size(), pageOptions.getPageSize()), items.size(), pageItems);
+    }
+
+    /**
+     * Computes the number of pages needed for a number of items, counting a partly filled last page.
+     *
+     * @param totalElements the number of items
+     * @param pageSize the number of items per page
+     * @return the number of pages
+     */
+    public static int totalPages(int totalElements, int pageSize) {
+        return pageSize <= 0 ? 0 : (totalElements + pageSize - 1) / pageSize;
+    }
+}
@@ -0,0 +1,115 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.revature.model.Chef;
+import com.revature.model.ChefSession;
+import com.revature.util.ConnectionUtil;
+
+/**
+ * The SessionDAO class persists the sessions of logged in chefs in the CHEF_SESSION table, so that the session store can be restored after a restart. Sessions are keyed by the hash of their token; the tokens themselves are never stored.
+ * 
+ * Writes come in batches from the session store's write-behind buffer, so each method writes its whole batch in one transaction.
+ */
+public class SessionDAO {
+
+    /** A utility class for establishing connections to the database. */
+    private ConnectionUtil connectionUtil;
+
+    /**
+     * Constructs a SessionDAO with the specified ConnectionUtil for database connectivity.
+     * 
+     * @param connectionUtil the utility used to connect to the database
+     */
+    public SessionDAO(ConnectionUtil connectionUtil) {
+        this.connectionUtil = connectionUtil;
+    }
+
+    /**
+     * Inserts or updates a batch of sessions.
+     *
+     * @param sessions the sessions to save
+     * @return true if the batch was saved; false if it was rolled back
+     */
+    public boolean saveSessions(Collection<ChefSession> sessions) {
+        String sql = "MERGE INTO Chef_Session (token_hash, chef_id, created_at, last_accessed) KEY (token_hash) VALUES (?, ?, ?, ?)";
+        try (Connection conn = connectionUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (ChefSession session : sessions) {
+                    stmt.setString(1, session.getTokenHash());
+                    stmt.setInt(2, session.getChef().getId());
+                    stmt.setLong(3, session.getCreatedAt());
+                    stmt.setLong(4, session.getLastAccessed());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Deletes a batch of sessions.
+     *
+     * @param tokenHashes the token hashes of the sessions to delete
+     * @return true if the batch was deleted; false if it was rolled back
+     */
+    public boolean deleteSessions(Collection<String> tokenHashes) {
+        String sql = "DELETE FROM Chef_Session WHERE token_hash = ?";
+        try (Connection conn = connectionUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (String tokenHash : tokenHashes) {
+                    stmt.setString(1, tokenHash);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves every persisted session together with its chef, in one query.
+     *
+     * @return the persisted sessions
+     */
+    public List<ChefSession> getAllSessions() {
+        List<ChefSession> sessions = new ArrayList<>();
+        String sql = "SELECT s.token_hash, s.created_at, s.last_accessed, c.* FROM Chef_Session s JOIN Chef c ON c.id = s.chef_id";
+        try (Connection conn = connectionUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Chef chef = new Chef(rs.getInt("id"), rs.getString("username"), rs.getString("email"),
+                        rs.getString("password"), rs.getBoolean("is_admin"));
+                chef.setVersion(rs.getInt("version"));
+                sessions.add(new ChefSession(rs.getString("token_hash"), chef, rs.getLong("created_at"), rs.getLong("last_accessed")));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return sessions;
+    }
+}
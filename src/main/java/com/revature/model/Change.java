@@ -0,0 +1,119 @@
+package com.revature.model;
+
+import java.sql.Timestamp;
+import java.util.Objects;
+
+/**
+The Change class represents one entry of the change log: the creation, update or deletion of a chef, recipe or ingredient. Entries are ordered by a monotonically increasing sequence number, which clients use to ask for the changes made since their last sync. This class provides getter and setter methods and overridden Object class methods.
+
+ */
+public class Change {
+
+    // fields
+
+    /** The position of the change in the log. */
+    private long seq;
+    /** The type of the changed entity: CHEF, RECIPE or INGREDIENT. */
+    private String entityType;
+    /** The unique identifier of the changed entity. */
+    private int entityId;
+    /** The kind of change: CREATE, UPDATE or DELETE. */
+    private String operation;
+    /** The time at which the change was made. */
+    private Timestamp changedAt;
+
+    // constructors
+    public Change() {
+    }
+
+    public Change(long seq, String entityType, int entityId, String operation, Timestamp changedAt) {
+        this.seq = seq;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.changedAt = changedAt;
+    }
+
+    // getters and setters
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(int entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public Timestamp getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Timestamp changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    /**
+     * Compares this Change object with another object for equality.
+     * 
+     * @param obj the object to compare with
+     * @return true if the objects are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Change))
+            return false;
+        Change change = (Change) obj;
+        return seq == change.seq &&
+                entityId == change.entityId &&
+                Objects.equals(entityType, change.entityType) &&
+                Objects.equals(operation, change.operation);
+    }
+
+    /**
+     * Generates the hash code for this Change object.
+     * 
+     * @return the hash code of the change
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(seq, entityType, entityId, operation);
+    }
+
+    /**
+     * Returns a string representation of the Change object.
+     * 
+     * @return a string representation of the Change object, including the `seq`, `entityType`, `entityId` and `operation`.
+     */
+    @Override
+    public String toString() {
+        return "Change{seq=" + seq +
+                ", entityType='" + entityType + '\'' +
+                ", entityId=" + entityId +
+                ", operation='" + operation + '\'' + '}';
+    }
+}
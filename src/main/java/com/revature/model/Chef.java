@@ -2,6 +2,9 @@ package com.revature.model;
 
 import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /**
 The Chef class represents a chef user in the system. It stores the chef's basic information such as id, username, email, password, and whether the chef has admin privileges. This class provides getter and setter methods and overridden Object class methods.
 
@@ -16,12 +19,15 @@ public class Chef {
     private int id;
     /** The username of the chef. */
     private String username;
-    /** The password of the chef. */
+    /** The password of the chef, stored as a hash; accepted in requests but never written to responses. */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     /** The unique identifier of the chef. */
     private String email;
     /** A flag indicating if the chef has admin privileges. */
     private boolean isAdmin;
+    /** The row version used for optimistic concurrency; not part of the JSON representation. */
+    private int version;
 
     // constructors
     public Chef() {
@@ -88,6 +94,16 @@ public class Chef {
         this.isAdmin = isAdmin;
     }
 
+    @JsonIgnore
+    public int getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Compares this Chef object with another object for equality.
      * 
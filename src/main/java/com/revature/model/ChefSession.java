@@ -0,0 +1,63 @@
+package com.revature.model;
+
+/**
+The ChefSession class represents the persisted form of a logged in chef's session: the SHA-256 hash of its token, the chef, and the login and last use times that its expiry is computed from. This class provides getter and setter methods.
+
+ */
+public class ChefSession {
+
+    // fields
+
+    /** The SHA-256 hash of the session token, as 64 lowercase hex digits. */
+    private String tokenHash;
+    /** The logged in chef. */
+    private Chef chef;
+    /** The time of the login, in epoch milliseconds. */
+    private long createdAt;
+    /** The time of the last recorded use, in epoch milliseconds. */
+    private long lastAccessed;
+
+    // constructors
+    public ChefSession() {
+    }
+
+    public ChefSession(String tokenHash, Chef chef, long createdAt, long lastAccessed) {
+        this.tokenHash = tokenHash;
+        this.chef = chef;
+        this.createdAt = createdAt;
+        this.lastAccessed = lastAccessed;
+    }
+
+    // getters and setters
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public Chef getChef() {
+        return chef;
+    }
+
+    public void setChef(Chef chef) {
+        this.chef = chef;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getLastAccessed() {
+        return lastAccessed;
+    }
+
+    public void setLastAccessed(long lastAccessed) {
+        this.lastAccessed = lastAccessed;
+    }
+}
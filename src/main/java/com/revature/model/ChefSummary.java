@@ -0,0 +1,41 @@
+package com.revature.model;
+
+/**
+The ChefSummary class is the projection of a chef shown in list views: its id and username only. Unlike Chef it carries no email, password or admin flag, so it is safe to embed in any response. This class provides getter and setter methods.
+
+ */
+public class ChefSummary {
+
+    // fields
+
+    /** The unique identifier of the chef. */
+    private int id;
+    /** The username of the chef. */
+    private String username;
+
+    // constructors
+    public ChefSummary() {
+    }
+
+    public ChefSummary(int id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    // getters and setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
@@ -1,5 +1,7 @@
 package com.revature.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
 The Ingredient class represents an ingredient used in recipes. It stores basic information about the ingredient, such as its unique id and name. This class provides getter and setter methods to access and modify the fields and overrides methods Object class methods.
 
@@ -14,6 +16,8 @@ public class Ingredient {
     private int id;
     /** The name of the ingredient. */
     private String name;
+    /** The row version used for optimistic concurrency; not part of the JSON representation. */
+    private int version;
 
     // constructors
     public Ingredient() {
@@ -45,6 +49,16 @@ public class Ingredient {
         this.name = name;
     }
 
+    @JsonIgnore
+    public int getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Compares this Ingredient object with another object for equality.
      * 
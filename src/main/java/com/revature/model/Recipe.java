@@ -2,6 +2,8 @@ package com.revature.model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  The Recipe class represents the domain object for a recipe. It stores the chef's basic information such as id, name, instructions, authors, and associated ingredients. This class provides getter and setter methods to access and modify the fields and overrides methods Object class methods.
 
@@ -22,6 +24,8 @@ public class Recipe {
     private Chef author;
     /** Default constructor for creating an empty Recipe object. */
 	private List<RecipeIngredient> ingredients;
+    /** The row version used for optimistic concurrency; not part of the JSON representation. */
+    private int version;
 
     // constructors
     public Recipe() {
@@ -85,6 +89,16 @@ public class Recipe {
 		this.ingredients = ingredients;
 	}
 
+    @JsonIgnore
+    public int getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Generates the hash code for this Recipe object.
      *
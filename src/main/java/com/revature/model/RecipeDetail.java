@@ -0,0 +1,65 @@
+package com.revature.model;
+
+import java.util.List;
+
+/**
+The RecipeDetail class represents everything a recipe page shows in one document: the recipe with its author, its ingredient lines, other recipes by the same author, and recipes similar to it. This class provides getter and setter methods.
+
+ */
+public class RecipeDetail {
+
+    // fields
+
+    /** The recipe, carrying its author. */
+    private Recipe recipe;
+    /** The recipe's ingredient lines. */
+    private List<RecipeIngredient> ingredients;
+    /** Other recipes by the recipe's author. */
+    private List<Recipe> authorRecipes;
+    /** Recipes sharing ingredients with the recipe, most similar first. */
+    private List<Recipe> similarRecipes;
+
+    // constructors
+    public RecipeDetail() {
+    }
+
+    public RecipeDetail(Recipe recipe, List<RecipeIngredient> ingredients, List<Recipe> authorRecipes, List<Recipe> similarRecipes) {
+        this.recipe = recipe;
+        this.ingredients = ingredients;
+        this.authorRecipes = authorRecipes;
+        this.similarRecipes = similarRecipes;
+    }
+
+    // getters and setters
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    public void setRecipe(Recipe recipe) {
+        this.recipe = recipe;
+    }
+
+    public List<RecipeIngredient> getIngredients() {
+        return ingredients;
+    }
+
+    public void setIngredients(List<RecipeIngredient> ingredients) {
+        this.ingredients = ingredients;
+    }
+
+    public List<Recipe> getAuthorRecipes() {
+        return authorRecipes;
+    }
+
+    public void setAuthorRecipes(List<Recipe> authorRecipes) {
+        this.authorRecipes = authorRecipes;
+    }
+
+    public List<Recipe> getSimilarRecipes() {
+        return similarRecipes;
+    }
+
+    public void setSimilarRecipes(List<Recipe> similarRecipes) {
+        this.similarRecipes = similarRecipes;
+    }
+}
@@ -0,0 +1,73 @@
+package com.revature.model;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+The RecipeSummary class is the projection of a recipe shown in list views. By default it holds the recipe's id, name and author summary; the instructions are only loaded when asked for. Fields that were not selected are left null and omitted from the JSON representation. This class provides getter and setter methods.
+
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipeSummary {
+
+    /** The fields a client may select; the id is always included. */
+    public static final Set<String> FIELDS = Set.of("id", "name", "instructions", "author");
+
+    /** The fields selected when the client does not choose. */
+    public static final Set<String> DEFAULT_FIELDS = Set.of("id", "name", "author");
+
+    // fields
+
+    /** The unique identifier of the recipe. */
+    private int id;
+    /** The name of the recipe, if selected. */
+    private String name;
+    /** The instructions for preparing the recipe, if selected. */
+    private String instructions;
+    /** The author of the recipe, if selected. */
+    private ChefSummary author;
+
+    // constructors
+    public RecipeSummary() {
+    }
+
+    public RecipeSummary(int id, String name, ChefSummary author) {
+        this.id = id;
+        this.name = name;
+        this.author = author;
+    }
+
+    // getters and setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getInstructions() {
+        return instructions;
+    }
+
+    public void setInstructions(String instructions) {
+        this.instructions = instructions;
+    }
+
+    public ChefSummary getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(ChefSummary author) {
+        this.author = author;
+    }
+}
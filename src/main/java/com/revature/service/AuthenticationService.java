@@ -1,7 +1,11 @@
 package com.revature.service;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import com.revature.model.Chef;
+import com.revature.util.PasswordHasher;
+import com.revature.util.SessionStore;
+import com.revature.util.TokenSigner;
 
 
 /**
@@ -9,7 +13,15 @@ import com.revature.model.Chef;
  * for Chef objects. It manages the login, logout, and registration
  * processes, as well as session management for chefs. This service 
  * utilizes a ChefService to perform operations related to chefs and 
- * maintains a session map to track active sessions.
+ * a SessionStore to track active sessions.
+ * 
+ * When given a TokenSigner, the service instead issues stateless signed 
+ * tokens that any application node can verify on its own, so sessions 
+ * are not pinned to one JVM.
+ * 
+ * Passwords are stored as salted PBKDF2 hashes made by a PasswordHasher, 
+ * which runs on its own bounded pool; the async variants of login and 
+ * registration let the request thread go while a hash is computed.
  */
 
 public class AuthenticationService {
@@ -21,7 +33,10 @@ public class AuthenticationService {
      * @return true if the token is valid, false otherwise
      */
     public boolean isAuthenticated(String token) {
-        return token != null && loggedInUsers.containsKey(token.replace("Bearer ", "").trim());
+        if (tokenSigner != null) {
+            return tokenSigner.verify(normalizeToken(token)) != null;
+        }
+        return sessionStore.get(normalizeToken(token)) != null;
     }
 
     /**
@@ -31,47 +46,116 @@ public class AuthenticationService {
     @SuppressWarnings("unused")
     private ChefService chefService;
 
-    /** A map that keeps track of currently logged in users, indexed by session token. */
-    public static Map<String, Chef> loggedInUsers = new HashMap<>();
+    /** The store that keeps track of currently logged in users, indexed by session token. */
+    private SessionStore sessionStore;
+
+    /** The signer of stateless tokens, or null when sessions are kept in the session store. */
+    private TokenSigner tokenSigner;
+
+    /** The hasher used for storing and checking passwords. */
+    private PasswordHasher passwordHasher;
+
+    /** A hash checked when the username is unknown, so that failed logins take as long whether or not the user exists. */
+    private volatile String unknownUserHash;
 
     /**
-     * Constructs an AuthenticationService with the specified ChefService and a newly created HashMap for the LoggedInUsers.
+     * Constructs an AuthenticationService with the specified ChefService and the default SessionStore.
      *
      * @param chefService the ChefService to be used by this authentication service
      */
     public AuthenticationService(ChefService chefService) {
+        this(chefService, SessionStore.getDefault());
+    }
+
+    /**
+     * Constructs an AuthenticationService with the specified ChefService and SessionStore.
+     *
+     * @param chefService the ChefService to be used by this authentication service
+     * @param sessionStore the store that keeps track of logged in users
+     */
+    public AuthenticationService(ChefService chefService, SessionStore sessionStore) {
+        this(chefService, sessionStore, null);
+    }
+
+    /**
+     * Constructs an AuthenticationService with the specified ChefService that issues stateless signed tokens when given a TokenSigner.
+     *
+     * @param chefService the ChefService to be used by this authentication service
+     * @param sessionStore the store that keeps track of logged in users when no TokenSigner is given
+     * @param tokenSigner the signer of stateless tokens, or null to keep sessions in the session store
+     */
+    public AuthenticationService(ChefService chefService, SessionStore sessionStore, TokenSigner tokenSigner) {
+        this(chefService, sessionStore, tokenSigner, PasswordHasher.getDefault());
+    }
+
+    /**
+     * Constructs an AuthenticationService with the specified ChefService, session handling and PasswordHasher.
+     *
+     * @param chefService the ChefService to be used by this authentication service
+     * @param sessionStore the store that keeps track of logged in users when no TokenSigner is given
+     * @param tokenSigner the signer of stateless tokens, or null to keep sessions in the session store
+     * @param passwordHasher the hasher used for storing and checking passwords
+     */
+    public AuthenticationService(ChefService chefService, SessionStore sessionStore, TokenSigner tokenSigner, PasswordHasher passwordHasher) {
         this.chefService = chefService;
-        loggedInUsers = new HashMap<>();
+        this.sessionStore = sessionStore;
+        this.tokenSigner = tokenSigner;
+        this.passwordHasher = passwordHasher;
     }
 
     /**
-     * TODO: Authenticates a chef by verifying the provided credentials. If successful, a session token is generated and stored in the logged in users map.
+     * TODO: Authenticates a chef by verifying the provided credentials. If successful, a session token is generated and stored in the session store, or a signed token is issued in token mode.
      * 
      * @param chef the Chef object containing login credentials
      * @return a session token if the login is successful; null otherwise
+     * @throws IllegalStateException if the session store already holds the maximum number of sessions
+     * @throws java.util.concurrent.RejectedExecutionException if the password hashing pool is saturated
      */
     public String login(Chef chef) {
-        // Find chef by username
-        java.util.List<Chef> found = chefService.searchChefs(chef.getUsername());
-        for (Chef c : found) {
-            if (c.getUsername().equals(chef.getUsername()) && c.getPassword().equals(chef.getPassword())) {
-                // Generate a simple token (for demo purposes)
-                String token = java.util.UUID.randomUUID().toString();
-                loggedInUsers.put(token, c);
-                return token;
-            }
+        return join(loginAsync(chef));
+    }
+
+    /**
+     * Authenticates a chef like login, but checks the password on the password hashing pool and returns at once.
+     * 
+     * If the stored hash was made with a different work factor, or the password predates hashing, the password is rehashed with the current work factor after the check succeeds.
+     *
+     * @param chef the Chef object containing login credentials
+     * @return a future of the session token if the login is successful, or of null otherwise
+     */
+    public CompletableFuture<String> loginAsync(Chef chef) {
+        // Find chef by exact username
+        Chef c = chefService.findChefByUsername(chef.getUsername()).orElse(null);
+        if (c == null) {
+            return passwordHasher.verifyAsync(chef.getPassword(), getUnknownUserHash()).thenApply(matches -> null);
         }
-        return null;
+        String stored = c.getPassword();
+        return passwordHasher.verifyAsync(chef.getPassword(), stored).thenApply(matches -> {
+            if (!matches) {
+                return null;
+            }
+            if (passwordHasher.needsRehash(stored)) {
+                c.setPassword(passwordHasher.hash(chef.getPassword()));
+                if (!chefService.updateChef(c, c.getVersion())) {
+                    c.setPassword(stored);
+                }
+            }
+            return tokenSigner != null ? tokenSigner.issue(c) : sessionStore.create(c);
+        });
     }
 
     /**
-     * TODO: Logs out a chef by removing their session token from the LoggedInUsers map.
+     * TODO: Logs out a chef by removing their session token from the session store, or by revoking it in token mode.
      *
      * @param token the session token of the chef to be logged out
      */
 
     public void logout(String token) {
-        loggedInUsers.remove(token);
+        if (tokenSigner != null) {
+            tokenSigner.revoke(normalizeToken(token));
+        } else {
+            sessionStore.remove(normalizeToken(token));
+        }
     }
 
     /**
@@ -81,17 +165,116 @@ public class AuthenticationService {
 	 * @return the registered chef object
 	 */
     public Chef registerChef(Chef chef) {
-        chefService.saveChef(chef);
-        return chef;
+        return join(registerChefAsync(chef));
+    }
+
+    /**
+     * Registers a new chef like registerChef, but hashes the password on the password hashing pool and returns at once.
+     *
+     * @param chef the chef object containing registration details; its password is replaced by the hash
+     * @return a future of the registered chef object
+     */
+    public CompletableFuture<Chef> registerChefAsync(Chef chef) {
+        return passwordHasher.hashAsync(chef.getPassword()).thenApply(hash -> {
+            chef.setPassword(hash);
+            chefService.saveChef(chef);
+            return chef;
+        });
     }
 
     /**
      * TODO: Retrieves a Chef object from the session token.
      *
+     * In token mode, the returned Chef carries only the id and admin flag held by the token.
+     *
      * @param token the session token used to retrieve the chef
      * @return the Chef object associated with the session token; null if not found
      */
     public Chef getChefFromSessionToken(String token) {
-        return loggedInUsers.get(token);
+        if (tokenSigner != null) {
+            TokenSigner.Claims claims = tokenSigner.verify(normalizeToken(token));
+            if (claims == null) {
+                return null;
+            }
+            Chef chef = new Chef();
+            chef.setId(claims.getChefId());
+            chef.setAdmin(claims.isAdmin());
+            return chef;
+        }
+        SessionStore.Session session = sessionStore.get(normalizeToken(token));
+        return session != null ? session.getChef() : null;
+    }
+
+    /**
+     * Checks whether the caller holding a session token is an admin. The admin flag is read from the session, or from the token itself in token mode, so the check costs a single map lookup at most and no database access.
+     *
+     * @param token the session token, as sent in the Authorization header
+     * @return true if the token belongs to a live session of an admin; false otherwise
+     */
+    public boolean isAdmin(String token) {
+        if (tokenSigner != null) {
+            TokenSigner.Claims claims = tokenSigner.verify(normalizeToken(token));
+            return claims != null && claims.isAdmin();
+        }
+        SessionStore.Session session = sessionStore.get(normalizeToken(token));
+        return session != null && session.isAdmin();
+    }
+
+    /**
+     * Retrieves the store that keeps track of logged in users, for example to report its metrics.
+     *
+     * @return the session store
+     */
+    public SessionStore getSessionStore() {
+        return sessionStore;
+    }
+
+    /**
+     * Retrieves the hash checked for unknown usernames, making it on first use.
+     *
+     * @return the hash
+     */
+    private String getUnknownUserHash() {
+        if (unknownUserHash == null) {
+            unknownUserHash = passwordHasher.hash("unknown user");
+        }
+        return unknownUserHash;
+    }
+
+    /**
+     * Waits for a future and rethrows its failure unwrapped, for the blocking variants of the async methods.
+     *
+     * @param future the future
+     * @return the future's result
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Extracts the bare session token from an Authorization header value. The "Bearer" scheme and the quotes added when the token was returned as a JSON string are both optional.
+     *
+     * @param token the Authorization header value, which may be null
+     * @return the bare token, or null if none was given
+     */
+    static String normalizeToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        String bare = token.trim();
+        if (bare.regionMatches(true, 0, "Bearer", 0, 6)) {
+            bare = bare.substring(6).trim();
+        }
+        if (bare.length() >= 2 && bare.startsWith("\"") && bare.endsWith("\"")) {
+            bare = bare.substring(1, bare.length() - 1);
+        }
+        return bare.isEmpty() ? null : bare;
     }
 }
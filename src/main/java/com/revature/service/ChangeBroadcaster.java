@@ -0,0 +1,314 @@
+package com.revature.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.revature.dao.ChangeLogDAO;
+import com.revature.model.Change;
+
+/**
+ * The ChangeBroadcaster class pushes change log entries to live subscribers, such as the server-sent event stream used by dashboards, so they no longer need to poll.
+ *
+ * The services signal the broadcaster after every write. The broadcaster then reads the new entries from the change log on its own thread and offers them to every subscriber; a slower periodic poll picks up writes made outside the services, such as bulk imports. Because events come from the change log, each carries its sequence number, and a reconnecting subscriber can resume from the last sequence number it saw.
+ *
+ * Every subscriber has a bounded buffer drained by its own sender task, so a slow consumer never delays the others. Sender tasks run on virtual threads, so a sender blocked on a slow connection holds no platform thread; what bounds them is the cap on the number of subscribers, beyond which new subscriptions are refused. When a buffer is full, a new change to an entity that is already buffered replaces the older one (coalescing). If the buffer fills with distinct entities, it is dropped and the subscriber is sent a reset telling it to catch up through GET /changes.
+ */
+public class ChangeBroadcaster {
+
+    /** The default number of changes buffered per subscriber. */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    /** The default interval of the fallback poll of the change log, in milliseconds. */
+    public static final long DEFAULT_POLL_MILLIS = 1000;
+
+    /** The default maximum number of subscribers. */
+    public static final int DEFAULT_MAX_SUBSCRIBERS = 1000;
+
+    /** The data access object used for reading the change log. */
+    private ChangeLogDAO changeLogDAO;
+
+    /** The maximum number of changes buffered per subscriber. */
+    private int bufferSize;
+
+    /** The maximum number of subscribers, each of which may hold a sender task. */
+    private int maxSubscribers;
+
+    /** The current subscribers. */
+    private Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /** Runs the reads of the change log; a single thread keeps events in sequence order. */
+    private ScheduledExecutorService dispatcher;
+
+    /** Runs the sender task of each subscriber, on a virtual thread per task. */
+    private ExecutorService senders;
+
+    /** Whether a read of the change log is already scheduled, so that bursts of writes share one read. */
+    private AtomicBoolean signalled = new AtomicBoolean();
+
+    /** Serializes reads of the change log with subscriptions. A lock rather than a monitor, because the holder waits on the database and may be a virtual thread, which a monitor would pin to its carrier. */
+    private ReentrantLock lock = new ReentrantLock();
+
+    /** The sequence number of the last change offered to subscribers, or -1 before the first read. Guarded by lock. */
+    private long lastSeq = -1;
+
+    /**
+     * Constructs a ChangeBroadcaster with the default buffer size and poll interval.
+     *
+     * @param changeLogDAO the ChangeLogDAO used to read the change log
+     */
+    public ChangeBroadcaster(ChangeLogDAO changeLogDAO) {
+        this(changeLogDAO, DEFAULT_BUFFER_SIZE, DEFAULT_POLL_MILLIS);
+    }
+
+    /**
+     * Constructs a ChangeBroadcaster with the specified buffer size and poll interval.
+     *
+     * @param changeLogDAO the ChangeLogDAO used to read the change log
+     * @param bufferSize the maximum number of changes buffered per subscriber
+     * @param pollMillis the interval of the fallback poll of the change log, in milliseconds
+     */
+    public ChangeBroadcaster(ChangeLogDAO changeLogDAO, int bufferSize, long pollMillis) {
+        this(changeLogDAO, bufferSize, pollMillis, DEFAULT_MAX_SUBSCRIBERS);
+    }
+
+    /**
+     * Constructs a ChangeBroadcaster with the specified buffer size, poll interval and subscriber cap.
+     *
+     * @param changeLogDAO the ChangeLogDAO used to read the change log
+     * @param bufferSize the maximum number of changes buffered per subscriber
+     * @param pollMillis the interval of the fallback poll of the change log, in milliseconds
+     * @param maxSubscribers the maximum number of subscribers
+     */
+    public ChangeBroadcaster(ChangeLogDAO changeLogDAO, int bufferSize, long pollMillis, int maxSubscribers) {
+        this.changeLogDAO = changeLogDAO;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = Math.max(1, maxSubscribers);
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(daemon("change-dispatcher"));
+        this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-sender-", 0).factory());
+        dispatcher.scheduleWithFixedDelay(() -> {
+            if (!subscribers.isEmpty()) {
+                publish();
+            }
+        }, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Notes that the change log has new entries. The entries are read and delivered asynchronously, so callers on request threads are not delayed.
+     */
+    public void signal() {
+        if (signalled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                signalled.set(false);
+                publish();
+            });
+        }
+    }
+
+    /**
+     * Reads the entries added to the change log since the last read and offers them to every subscriber, in sequence order.
+     */
+    public void publish() {
+        lock.lock();
+        try {
+            if (subscribers.isEmpty()) {
+                lastSeq = changeLogDAO.getLatestSeq();
+                return;
+            }
+            List<Change> changes;
+            do {
+                changes = changeLogDAO.getChangesSince(lastSeq, ChangeService.MAX_LIMIT);
+                for (Change change : changes) {
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.offer(change);
+                    }
+                    lastSeq = change.getSeq();
+                }
+            } while (changes.size() == ChangeService.MAX_LIMIT);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a subscriber. If the subscriber is resuming, the changes it missed after the given sequence number are replayed before any live change; if it missed more than fit in its buffer, it is sent a reset instead.
+     *
+     * @param since the sequence number of the last change the subscriber saw, or a negative number for live changes only
+     * @param sink receives the subscriber's changes on its sender task
+     * @return the subscription, used to cancel it
+     * @throws IllegalStateException if the broadcaster already has the maximum number of subscribers
+     */
+    public Subscription subscribe(long since, ChangeSink sink) {
+        lock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new IllegalStateException("Too many change stream subscribers");
+            }
+            if (lastSeq < 0 || subscribers.isEmpty()) {
+                lastSeq = changeLogDAO.getLatestSeq();
+            }
+            Subscriber subscriber = new Subscriber(sink, Math.max(since, 0));
+            if (since >= 0 && since < lastSeq) {
+                List<Change> missed = changeLogDAO.getChangesSince(since, bufferSize + 1);
+                missed.removeIf(change -> change.getSeq() > lastSeq);
+                if (missed.size() > bufferSize) {
+                    subscriber.overflow();
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+            return subscriber;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the number of current subscribers.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Creates a thread factory for daemon threads, so the broadcaster never keeps the JVM alive.
+     *
+     * @param name the name of the threads
+     * @return the thread factory
+     */
+    private static java.util.concurrent.ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Receives the changes of one subscriber. Calls are made from a single sender task at a time; throwing an exception cancels the subscription.
+     */
+    public interface ChangeSink {
+
+        /**
+         * Delivers a change.
+         *
+         * @param change the change
+         */
+        void send(Change change);
+
+        /**
+         * Tells the subscriber that changes were dropped and that it should catch up through the change feed.
+         *
+         * @param since the sequence number of the last change delivered to the subscriber
+         */
+        void reset(long since);
+    }
+
+    /**
+     * A handle on a registered subscriber.
+     */
+    public interface Subscription {
+
+        /**
+         * Stops delivery to the subscriber and discards its buffer.
+         */
+        void cancel();
+    }
+
+    /**
+     * A subscriber with its bounded, coalescing buffer and its sender task.
+     */
+    private class Subscriber implements Subscription {
+        private final ChangeSink sink;
+        /** Buffered changes keyed by entity, in sequence order. Guarded by this. */
+        private final LinkedHashMap<String, Change> pending = new LinkedHashMap<>();
+        /** Whether changes were dropped since the last delivery. Guarded by this. */
+        private boolean overflowed;
+        /** Whether a sender task is scheduled or running. Guarded by this. */
+        private boolean scheduled;
+        /** Whether the subscription was cancelled. Guarded by this. */
+        private boolean cancelled;
+        /** The sequence number of the last delivered change; only touched by the sender task. */
+        private long delivered;
+
+        Subscriber(ChangeSink sink, long delivered) {
+            this.sink = sink;
+            this.delivered = delivered;
+        }
+
+        synchronized void offer(Change change) {
+            if (cancelled) {
+                return;
+            }
+            String key = change.getEntityType() + ":" + change.getEntityId();
+            if (pending.remove(key) == null && pending.size() >= bufferSize) {
+                pending.clear();
+                overflowed = true;
+            } else {
+                pending.put(key, change);
+            }
+            schedule();
+        }
+
+        synchronized void overflow() {
+            pending.clear();
+            overflowed = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<Change> batch;
+                boolean reset;
+                synchronized (this) {
+                    if (cancelled || (pending.isEmpty() && !overflowed)) {
+                        scheduled = false;
+                        return;
+                    }
+                    reset = overflowed;
+                    overflowed = false;
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+                try {
+                    if (reset) {
+                        sink.reset(delivered);
+                    }
+                    for (Change change : batch) {
+                        sink.send(change);
+                        delivered = change.getSeq();
+                    }
+                } catch (RuntimeException e) {
+                    cancel();
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                pending.clear();
+            }
+            subscribers.remove(this);
+        }
+    }
+}
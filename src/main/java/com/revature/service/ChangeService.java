@@ -0,0 +1,51 @@
+package com.revature.service;
+
+import java.util.List;
+
+import com.revature.dao.ChangeLogDAO;
+import com.revature.model.Change;
+
+/**
+ * The ChangeService class serves the change feed that clients use to stay in sync with the catalog. Instead of re-downloading every chef, recipe and ingredient, a client remembers the sequence number of the last change it applied and asks only for the changes made after it.
+ */
+public class ChangeService {
+
+    /** The default number of changes returned per request. */
+    public static final int DEFAULT_LIMIT = 100;
+
+    /** The largest number of changes returned per request. */
+    public static final int MAX_LIMIT = 1000;
+
+    /** The data access object used for reading the change log. */
+    private ChangeLogDAO changeLogDAO;
+
+    /**
+     * Constructs a ChangeService with the specified ChangeLogDAO.
+     *
+     * @param changeLogDAO the ChangeLogDAO to be used by this service for data access
+     */
+    public ChangeService(ChangeLogDAO changeLogDAO) {
+        this.changeLogDAO = changeLogDAO;
+    }
+
+    /**
+     * Retrieves the changes made after a given sequence number, oldest first. The limit is clamped to between 1 and MAX_LIMIT.
+     *
+     * @param since the sequence number of the last change the caller has applied
+     * @param limit the maximum number of changes to return
+     * @return the changes made after since, in sequence order
+     */
+    public List<Change> getChangesSince(long since, int limit) {
+        int clamped = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return changeLogDAO.getChangesSince(Math.max(0, since), clamped);
+    }
+
+    /**
+     * Retrieves the sequence number of the most recent change.
+     *
+     * @return the latest sequence number, or 0 if nothing has changed yet
+     */
+    public long getLatestSeq() {
+        return changeLogDAO.getLatestSeq();
+    }
+}
@@ -2,9 +2,13 @@ package com.revature.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.revature.model.Chef;
 import com.revature.dao.ChefDAO;
+import com.revature.util.AsyncExecutor;
+import com.revature.util.BloomFilter;
 import com.revature.util.Page;
 
 /**
@@ -20,6 +24,21 @@ public class ChefService {
     @SuppressWarnings("unused")
     private ChefDAO chefDAO;
 
+    /** The expected number of chefs the availability filter is sized for. */
+    private static final int FILTER_CAPACITY = 100_000;
+
+    /** A filter of taken usernames and emails, built on first use; a miss means a name is probably available, without a query. */
+    private volatile BloomFilter takenNames;
+
+    /** Held while the filter is built on first use. */
+    private final ReentrantLock takenNamesLock = new ReentrantLock();
+
+    /** The broadcaster signalled after writes, or null if changes are not pushed to live subscribers. */
+    private ChangeBroadcaster changeBroadcaster;
+
+    /** The executor that runs the async variants of the methods. */
+    private AsyncExecutor asyncExecutor;
+
     /**
      * Constructs a ChefService with the specified ChefDAO.
      *
@@ -28,7 +47,40 @@ public class ChefService {
      * @param chefDao the ChefDao to be used by this service for data access
      */
     public ChefService(ChefDAO chefDAO) {
+        this(chefDAO, AsyncExecutor.getDefault());
+    }
+
+    /**
+     * Constructs a ChefService that runs its async methods on the given executor.
+     *
+     * @param chefDAO the ChefDAO to be used by this service for data access
+     * @param asyncExecutor the executor that runs the async methods, with their timeout
+     */
+    public ChefService(ChefDAO chefDAO, AsyncExecutor asyncExecutor) {
+        this(chefDAO, null, asyncExecutor);
+    }
+
+    /**
+     * Constructs a ChefService that signals the given ChangeBroadcaster after every write, so live subscribers see the change without waiting for the next poll.
+     *
+     * @param chefDAO the ChefDAO to be used by this service for data access
+     * @param changeBroadcaster the broadcaster to signal after writes, or null for none
+     */
+    public ChefService(ChefDAO chefDAO, ChangeBroadcaster changeBroadcaster) {
+        this(chefDAO, changeBroadcaster, AsyncExecutor.getDefault());
+    }
+
+    /**
+     * Constructs a ChefService that signals the given ChangeBroadcaster after every write and runs its async methods on the given executor.
+     *
+     * @param chefDAO the ChefDAO to be used by this service for data access
+     * @param changeBroadcaster the broadcaster to signal after writes, or null for none
+     * @param asyncExecutor the executor that runs the async methods, with their timeout
+     */
+    public ChefService(ChefDAO chefDAO, ChangeBroadcaster changeBroadcaster, AsyncExecutor asyncExecutor) {
         this.chefDAO = chefDAO;
+        this.changeBroadcaster = changeBroadcaster;
+        this.asyncExecutor = asyncExecutor;
     }
 
     /**
@@ -47,6 +99,8 @@ public class ChefService {
 	* 
      * Otherwise, updates the existing Chef.
      *
+     * A new Chef whose username or email is already taken is refused by the database's unique constraints, and its ID stays zero.
+     *
      * @param chef the Chef entity to be saved or updated
      */
     public void saveChef(Chef chef) {
@@ -56,9 +110,28 @@ public class ChefService {
         } else {
             chefDAO.updateChef(chef);
         }
+        BloomFilter filter = takenNames;
+        if (filter != null) {
+            addTakenNames(filter, chef);
+        }
+        notifyChanges();
+    }
+
+    /**
+     * Updates an existing Chef only if it is still at the version the caller last read.
+     *
+     * @param chef the Chef entity to be updated; its version is advanced on success
+     * @param expectedVersion the version the caller last read
+     * @return true if the chef was updated; false if it was modified concurrently or no longer exists
+     */
+    public boolean updateChef(Chef chef, int expectedVersion) {
+        boolean updated = chefDAO.updateChef(chef, expectedVersion);
+        if (updated) {
+            notifyChanges();
+        }
+        return updated;
     }
 
-    
 	/**
      * TODO: Searches for Chefs based on a search term.
      * If the term is null, retrieves all Chefs.
@@ -83,6 +156,7 @@ public class ChefService {
         Chef chef = chefDAO.getChefById(id);
         if (chef != null) {
             chefDAO.deleteChef(chef);
+            notifyChanges();
         }
     }
 
@@ -105,5 +179,153 @@ public class ChefService {
             return chefDAO.searchChefsByTerm(term, pageOptions);
         }
     }
-}
 
+    /**
+     * Finds a Chef by their exact username.
+     *
+     * @param username the username of the chef to be found
+     * @return an Optional containing the found Chef if present; 
+     *         an empty Optional if not found
+     */
+    public Optional<Chef> findChefByUsername(String username) {
+        return Optional.ofNullable(chefDAO.findByUsername(username));
+    }
+
+    /**
+     * Finds a Chef by their exact email address.
+     *
+     * @param email the email address of the chef to be found
+     * @return an Optional containing the found Chef if present; 
+     *         an empty Optional if not found
+     */
+    public Optional<Chef> findChefByEmail(String email) {
+        return Optional.ofNullable(chefDAO.findByEmail(email));
+    }
+
+    /**
+     * Finds a Chef like findChef, without blocking the caller.
+     *
+     * @param id the unique identifier of the chef to be found
+     * @return a future of the found Chef, if any; failed with a TimeoutException if the lookup takes too long
+     */
+    public CompletableFuture<Optional<Chef>> findChefAsync(int id) {
+        return asyncExecutor.supply(() -> findChef(id));
+    }
+
+    /**
+     * Finds a Chef by username like findChefByUsername, without blocking the caller.
+     *
+     * @param username the username of the chef to be found
+     * @return a future of the found Chef, if any; failed with a TimeoutException if the lookup takes too long
+     */
+    public CompletableFuture<Optional<Chef>> findChefByUsernameAsync(String username) {
+        return asyncExecutor.supply(() -> findChefByUsername(username));
+    }
+
+    /**
+     * Searches for chefs with pagination like searchChefs, without blocking the caller.
+     *
+     * @param term the search term used to find chefs
+     * @param page the page number to retrieve
+     * @param pageSize the number of chefs per page
+     * @param sortBy the field by which to sort the results
+     * @param sortDirection the direction of sorting (ascending or descending)
+     * @return a future of the Page of results; failed with a TimeoutException if the search takes too long
+     */
+    public CompletableFuture<Page<Chef>> searchChefsAsync(String term, int page, int pageSize, String sortBy, String sortDirection) {
+        return asyncExecutor.supply(() -> searchChefs(term, page, pageSize, sortBy, sortDirection));
+    }
+
+    /**
+     * Searches for Chefs like searchChefs, without blocking the caller.
+     *
+     * @param term the search term for filtering Chefs by attributes
+     * @return a future of the matching Chefs; failed with a TimeoutException if the search takes too long
+     */
+    public CompletableFuture<List<Chef>> searchChefsAsync(String term) {
+        return asyncExecutor.supply(() -> searchChefs(term));
+    }
+
+    /**
+     * Checks whether a username is taken. Names that were never registered are answered from an in-memory Bloom filter without a query; the rare filter hit falls through to an exact lookup on the unique index.
+     *
+     * A false answer only means the name is probably available. The filter only knows the chefs loaded when it was built and those saved through this service since, so a name registered on another node, or by a registration racing this one, is missed. Such a name is refused by the database's unique constraint when the new chef is saved, which is the authoritative check.
+     *
+     * @param username the username to check
+     * @return true if a chef has that username; false if the username is probably available
+     */
+    public boolean usernameExist(String username) {
+        if (username == null || !getTakenNames().mightContain("username:" + username)) {
+            return false;
+        }
+        return chefDAO.findByUsername(username) != null;
+    }
+
+    /**
+     * Checks whether an email address is taken, using the same filter as usernameExist.
+     *
+     * @param email the email address to check
+     * @return true if a chef has that email address; false if the email address is probably available
+     */
+    public boolean emailExist(String email) {
+        if (email == null || !getTakenNames().mightContain("email:" + email)) {
+            return false;
+        }
+        return chefDAO.findByEmail(email) != null;
+    }
+
+    /**
+     * Builds the filter of taken usernames and emails from the database, replacing any previous one. Called at startup so the first registration does not pay for it.
+     */
+    public void loadTakenNames() {
+        BloomFilter filter = new BloomFilter(FILTER_CAPACITY, 0.01);
+        for (Chef chef : chefDAO.getAllUsernamesAndEmails()) {
+            addTakenNames(filter, chef);
+        }
+        takenNames = filter;
+    }
+
+    /**
+     * Retrieves the filter of taken usernames and emails, building it on first use.
+     *
+     * @return the filter
+     */
+    private BloomFilter getTakenNames() {
+        if (takenNames == null) {
+            // A lock rather than a monitor, so that a virtual thread loading the names is not pinned to its carrier
+            takenNamesLock.lock();
+            try {
+                if (takenNames == null) {
+                    loadTakenNames();
+                }
+            } finally {
+                takenNamesLock.unlock();
+            }
+        }
+        return takenNames;
+    }
+
+    /**
+     * Signals the change broadcaster, if any, that the change log has new entries.
+     */
+    private void notifyChanges() {
+        if (changeBroadcaster != null) {
+            changeBroadcaster.signal();
+        }
+    }
+
+    /**
+     * Records a chef's username and email in a filter.
+     *
+     * @param filter the filter
+     * @param chef the chef
+     */
+    private static void addTakenNames(BloomFilter filter, Chef chef) {
+        if (chef.getUsername() != null) {
+            filter.add("username:" + chef.getUsername());
+        }
+        if (chef.getEmail() != null) {
+            filter.add("email:" + chef.getEmail());
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.revature.service;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import com.revature.dao.IngredientDAO;
 import com.revature.model.Ingredient;
+import com.revature.util.AsyncExecutor;
 import com.revature.util.Page;
 
 
@@ -21,6 +23,12 @@ public class IngredientService {
     @SuppressWarnings("unused")
     private IngredientDAO ingredientDAO;
 
+    /** The broadcaster signalled after writes, or null if changes are not pushed to live subscribers. */
+    private ChangeBroadcaster changeBroadcaster;
+
+    /** The executor that runs the async variants of the methods. */
+    private AsyncExecutor asyncExecutor;
+
     /**
      * Constructs an IngredientService with the specified IngredientDao.
      *
@@ -30,7 +38,30 @@ public class IngredientService {
      */
 
     public IngredientService(IngredientDAO ingredientDAO) {
+        this(ingredientDAO, null);
+    }
+
+    /**
+     * Constructs a IngredientService that signals the given ChangeBroadcaster after every write, so live subscribers see the change without waiting for the next poll.
+     *
+     * @param ingredientDAO the IngredientDAO to be used by this service for data access
+     * @param changeBroadcaster the broadcaster to signal after writes, or null for none
+     */
+    public IngredientService(IngredientDAO ingredientDAO, ChangeBroadcaster changeBroadcaster) {
+        this(ingredientDAO, changeBroadcaster, AsyncExecutor.getDefault());
+    }
+
+    /**
+     * Constructs a IngredientService that signals the given ChangeBroadcaster after every write and runs its async methods on the given executor.
+     *
+     * @param ingredientDAO the IngredientDAO to be used by this service for data access
+     * @param changeBroadcaster the broadcaster to signal after writes, or null for none
+     * @param asyncExecutor the executor that runs the async methods, with their timeout
+     */
+    public IngredientService(IngredientDAO ingredientDAO, ChangeBroadcaster changeBroadcaster, AsyncExecutor asyncExecutor) {
         this.ingredientDAO = ingredientDAO;
+        this.changeBroadcaster = changeBroadcaster;
+        this.asyncExecutor = asyncExecutor;
     }
 
     /**
@@ -43,6 +74,16 @@ public class IngredientService {
         return Optional.ofNullable(ingredientDAO.getIngredientById(id));
     }
 
+    /**
+     * Finds the Ingredients with the given ids in one batch, instead of one lookup per id.
+     *
+     * @param ids the unique identifiers of the Ingredients
+     * @return the found Ingredients in the order their ids were given; ids with no Ingredient are skipped
+     */
+    public List<Ingredient> findIngredients(List<Integer> ids) {
+        return ingredientDAO.getIngredientsByIds(ids);
+    }
+
     /**
      * TODO: Searches for Ingredients based on a search term with pagination and sorting options.
      *
@@ -87,6 +128,7 @@ public class IngredientService {
         Ingredient ingredient = ingredientDAO.getIngredientById(id);
         if (ingredient != null) {
             ingredientDAO.deleteIngredient(ingredient);
+            notifyChanges();
         }
     }
 
@@ -104,5 +146,96 @@ public class IngredientService {
         } else {
             ingredientDAO.updateIngredient(ingredient);
         }
+        notifyChanges();
+    }
+
+    /**
+     * Saves a batch of ingredients by name, creating only the ones that do not exist yet.
+     *
+     * @param names the ingredient names to look up or create
+     * @return every named ingredient with its id, in the order the names first appear
+     */
+    public List<Ingredient> saveIngredients(List<String> names) {
+        List<Ingredient> ingredients = ingredientDAO.mergeIngredients(names);
+        notifyChanges();
+        return ingredients;
+    }
+
+    /**
+     * Updates an existing Ingredient only if it is still at the version the caller last read.
+     *
+     * @param ingredient the Ingredient entity to be updated; its version is advanced on success
+     * @param expectedVersion the version the caller last read
+     * @return true if the ingredient was updated; false if it was modified concurrently or no longer exists
+     */
+    public boolean updateIngredient(Ingredient ingredient, int expectedVersion) {
+        boolean updated = ingredientDAO.updateIngredient(ingredient, expectedVersion);
+        if (updated) {
+            notifyChanges();
+        }
+        return updated;
+    }
+
+    /**
+     * Finds an Ingredient like findIngredient, without blocking the caller.
+     *
+     * @param id the unique identifier of the Ingredient
+     * @return a future of the Ingredient, if found; failed with a TimeoutException if the lookup takes too long
+     */
+    public CompletableFuture<Optional<Ingredient>> findIngredientAsync(int id) {
+        return asyncExecutor.supply(() -> findIngredient(id));
+    }
+
+    /**
+     * Searches for Ingredients with pagination like searchIngredients, without blocking the caller.
+     *
+     * @param term the search term for filtering Ingredients by attributes
+     * @param page the page number to retrieve
+     * @param pageSize the number of results per page
+     * @param sortBy the field to sort the results by
+     * @param sortDirection the direction of sorting (e.g., "asc" or "desc")
+     * @return a future of the Page of results; failed with a TimeoutException if the search takes too long
+     */
+    public CompletableFuture<Page<Ingredient>> searchIngredientsAsync(String term, int page, int pageSize, String sortBy, String sortDirection) {
+        return asyncExecutor.supply(() -> searchIngredients(term, page, pageSize, sortBy, sortDirection));
+    }
+
+    /**
+     * Searches for Ingredients like searchIngredients, without blocking the caller.
+     *
+     * @param term the search term used to find ingredients
+     * @return a future of the matching ingredients; failed with a TimeoutException if the search takes too long
+     */
+    public CompletableFuture<List<Ingredient>> searchIngredientsAsync(String term) {
+        return asyncExecutor.supply(() -> searchIngredients(term));
+    }
+
+    /**
+     * Saves an Ingredient like saveIngredient, without blocking the caller.
+     *
+     * @param ingredient the Ingredient entity to be saved or updated
+     * @return a future completed once the ingredient is saved; failed with a TimeoutException if saving takes too long, in which case the save may still complete
+     */
+    public CompletableFuture<Void> saveIngredientAsync(Ingredient ingredient) {
+        return asyncExecutor.run(() -> saveIngredient(ingredient));
+    }
+
+    /**
+     * Deletes an Ingredient like deleteIngredient, without blocking the caller.
+     *
+     * @param id the unique identifier of the ingredient to be deleted
+     * @return a future completed once the ingredient is deleted; failed with a TimeoutException if deleting takes too long, in which case the delete may still complete
+     */
+    public CompletableFuture<Void> deleteIngredientAsync(int id) {
+        return asyncExecutor.run(() -> deleteIngredient(id));
+    }
+
+    /**
+     * Signals the change broadcaster, if any, that the change log has new entries.
+     */
+    private void notifyChanges() {
+        if (changeBroadcaster != null) {
+            changeBroadcaster.signal();
+        }
     }
 }
@@ -0,0 +1,528 @@
+package com.revature.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Chef;
+import com.revature.model.Ingredient;
+import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
+import com.revature.util.ImportResult;
+
+/**
+ * The RecipeImportService class loads recipes in bulk from a CSV or JSON stream.
+ *
+ * The input is read sequentially and cut into chunks. Each chunk is parsed on a worker thread, with ingredient names resolved to ids through an in-memory map built once per import, while previously parsed chunks are written through RecipeDAO.createRecipes in one batched transaction per chunk. Rows that fail to parse or to insert are reported in the ImportResult and never abort the rest of the load.
+ *
+ * CSV input must start with a header naming the columns name, instructions, chef_id and ingredients. The ingredients column lists ingredient lines as name:volume:unit separated by semicolons. JSON input is an array of Recipe objects, as accepted by POST /recipes.
+ */
+public class RecipeImportService {
+
+    /** The default number of rows written per batch and transaction. */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /** The mapper used to turn JSON array elements into Recipe objects. */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /** The data access object used to write recipes and their ingredient lines. */
+    private RecipeDAO recipeDAO;
+
+    /** The data access object used to build the ingredient name lookup. */
+    private IngredientDAO ingredientDAO;
+
+    /** The number of worker threads used for parsing. */
+    private int parserThreads;
+
+    /**
+     * Constructs a RecipeImportService that parses on one worker thread per available processor.
+     *
+     * @param recipeDAO the RecipeDAO used to write recipes
+     * @param ingredientDAO the IngredientDAO used to resolve ingredient names
+     */
+    public RecipeImportService(RecipeDAO recipeDAO, IngredientDAO ingredientDAO) {
+        this(recipeDAO, ingredientDAO, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a RecipeImportService with the specified number of parser threads.
+     *
+     * @param recipeDAO the RecipeDAO used to write recipes
+     * @param ingredientDAO the IngredientDAO used to resolve ingredient names
+     * @param parserThreads the number of worker threads used for parsing
+     */
+    public RecipeImportService(RecipeDAO recipeDAO, IngredientDAO ingredientDAO, int parserThreads) {
+        this.recipeDAO = recipeDAO;
+        this.ingredientDAO = ingredientDAO;
+        this.parserThreads = Math.max(1, parserThreads);
+    }
+
+    /**
+     * Imports recipes from CSV input.
+     *
+     * @param reader the CSV input, starting with a header row
+     * @param chunkSize the number of rows written per batch and transaction
+     * @return the outcome of the import
+     */
+    public ImportResult importCsv(Reader reader, int chunkSize) {
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        CsvRecords records = new CsvRecords(in);
+        if (!records.hasNext()) {
+            return new ImportResult();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = splitCsv(records.next());
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        return runImport(records, line -> parseCsvRow(line, columns), chunkSize);
+    }
+
+    /**
+     * Imports recipes from a JSON array of Recipe objects.
+     *
+     * @param in the JSON input
+     * @param chunkSize the number of rows written per batch and transaction
+     * @return the outcome of the import
+     */
+    public ImportResult importJson(InputStream in, int chunkSize) {
+        JsonRecords records;
+        try {
+            records = new JsonRecords(MAPPER.getFactory().createParser(in));
+        } catch (IOException e) {
+            ImportResult result = new ImportResult();
+            result.addError(0, "Unreadable JSON input: " + e.getMessage());
+            return result;
+        }
+        return runImport(records, node -> {
+            if (!node.isObject()) {
+                throw new IllegalArgumentException("Expected a recipe object");
+            }
+            try {
+                return MAPPER.treeToValue(node, Recipe.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage());
+            }
+        }, chunkSize);
+    }
+
+    /**
+     * Drives the import pipeline: reads raw records into chunks, parses the chunks on the worker pool, and writes each parsed chunk in input order. At most one chunk per worker is parsed ahead of the writer, which bounds memory use on large inputs.
+     *
+     * @param <T> the type of raw record produced by the input
+     * @param records the raw records of the input
+     * @param parser converts a raw record into a Recipe, throwing an unchecked exception for malformed rows
+     * @param chunkSize the number of rows written per batch and transaction
+     * @return the outcome of the import
+     */
+    private <T> ImportResult runImport(Iterator<T> records, RowParser<T> parser, int chunkSize) {
+        long start = System.nanoTime();
+        int size = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+        ImportResult result = new ImportResult();
+        Map<String, Integer> ingredientIds = loadIngredientIds();
+        ExecutorService workers = Executors.newFixedThreadPool(parserThreads);
+        Deque<Future<List<ParsedRow>>> inFlight = new ArrayDeque<>();
+        int rowNumber = 0;
+        try {
+            boolean readable = true;
+            while (readable && hasNext(records, rowNumber, result)) {
+                List<T> chunk = new ArrayList<>(size);
+                int firstRow = rowNumber + 1;
+                while (chunk.size() < size && (readable = hasNext(records, rowNumber, result))) {
+                    chunk.add(records.next());
+                    rowNumber++;
+                }
+                inFlight.add(workers.submit(() -> parseChunk(chunk, firstRow, parser, ingredientIds)));
+                if (inFlight.size() > parserThreads) {
+                    writeChunk(inFlight.poll().get(), result);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeChunk(inFlight.poll().get(), result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.addError(rowNumber, "Import interrupted");
+        } catch (ExecutionException e) {
+            result.addError(rowNumber, "Import failed: " + e.getCause().getMessage());
+        } finally {
+            workers.shutdownNow();
+        }
+        result.setTotalRows(rowNumber);
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Advances the input, turning a read failure into an error on the row that could not be read. Rows read before the failure are still written.
+     *
+     * @param records the raw records of the input
+     * @param rowNumber the number of rows read so far
+     * @param result the import result to record a read failure in
+     * @return true if another record is available; false at the end of the input or after a read failure
+     */
+    private boolean hasNext(Iterator<?> records, int rowNumber, ImportResult result) {
+        try {
+            return records.hasNext();
+        } catch (UncheckedIOException e) {
+            result.addError(rowNumber + 1, "Unreadable input: " + e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Parses one chunk of raw records and resolves the ingredient names of every parsed recipe.
+     *
+     * @param <T> the type of raw record
+     * @param chunk the raw records
+     * @param firstRow the 1-based input position of the first record in the chunk
+     * @param parser converts a raw record into a Recipe
+     * @param ingredientIds the lowercase ingredient name to id lookup
+     * @return one ParsedRow per raw record, in input order
+     */
+    private <T> List<ParsedRow> parseChunk(List<T> chunk, int firstRow, RowParser<T> parser, Map<String, Integer> ingredientIds) {
+        List<ParsedRow> rows = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow row = new ParsedRow(firstRow + i);
+            try {
+                Recipe recipe = parser.parse(chunk.get(i));
+                validate(recipe, ingredientIds);
+                row.recipe = recipe;
+            } catch (RuntimeException e) {
+                row.error = e.getMessage();
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the valid rows of a parsed chunk and records the outcome of every row.
+     *
+     * @param rows the parsed rows of the chunk
+     * @param result the import result to update
+     */
+    private void writeChunk(List<ParsedRow> rows, ImportResult result) {
+        List<ParsedRow> valid = new ArrayList<>();
+        List<Recipe> recipes = new ArrayList<>();
+        for (ParsedRow row : rows) {
+            if (row.error != null) {
+                result.addError(row.number, row.error);
+            } else {
+                valid.add(row);
+                recipes.add(row.recipe);
+            }
+        }
+        if (recipes.isEmpty()) {
+            return;
+        }
+        List<String> errors = recipeDAO.createRecipes(recipes);
+        for (int i = 0; i < valid.size(); i++) {
+            if (errors.get(i) == null) {
+                result.setImportedRows(result.getImportedRows() + 1);
+            } else {
+                result.addError(valid.get(i).number, errors.get(i));
+            }
+        }
+    }
+
+    /**
+     * Checks that a parsed recipe has the fields the RECIPE table requires and resolves each ingredient line without an id by its name.
+     *
+     * @param recipe the parsed recipe
+     * @param ingredientIds the lowercase ingredient name to id lookup
+     * @throws IllegalArgumentException if the recipe is incomplete or names an unknown ingredient
+     */
+    private void validate(Recipe recipe, Map<String, Integer> ingredientIds) {
+        if (recipe.getName() == null || recipe.getName().isBlank()) {
+            throw new IllegalArgumentException("Recipe name is required");
+        }
+        if (recipe.getInstructions() == null) {
+            throw new IllegalArgumentException("Recipe instructions are required");
+        }
+        if (recipe.getAuthor() == null || recipe.getAuthor().getId() <= 0) {
+            throw new IllegalArgumentException("Recipe author id is required");
+        }
+        if (recipe.getIngredients() == null) {
+            return;
+        }
+        for (RecipeIngredient line : recipe.getIngredients()) {
+            if (line.getId() != 0) {
+                continue;
+            }
+            Integer id = line.getName() == null ? null : ingredientIds.get(line.getName().trim().toLowerCase());
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown ingredient: " + line.getName());
+            }
+            line.setId(id);
+        }
+    }
+
+    /**
+     * Builds the ingredient name to id lookup used while parsing.
+     *
+     * @return a map from lowercase ingredient name to ingredient id
+     */
+    private Map<String, Integer> loadIngredientIds() {
+        Map<String, Integer> ids = new HashMap<>();
+        for (Ingredient ingredient : ingredientDAO.getAllIngredients()) {
+            ids.put(ingredient.getName().toLowerCase(), ingredient.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Converts one CSV record into a Recipe.
+     *
+     * @param line the CSV record
+     * @param columns the header column name to index lookup
+     * @return the parsed recipe
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    private static Recipe parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        Recipe recipe = new Recipe(field(fields, columns, "name"), field(fields, columns, "instructions"));
+        String chefId = field(fields, columns, "chef_id");
+        if (chefId != null && !chefId.isBlank()) {
+            Chef author = new Chef();
+            try {
+                author.setId(Integer.parseInt(chefId.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid chef_id: " + chefId);
+            }
+            recipe.setAuthor(author);
+        }
+        List<RecipeIngredient> lines = new ArrayList<>();
+        String ingredients = field(fields, columns, "ingredients");
+        if (ingredients != null && !ingredients.isBlank()) {
+            for (String entry : ingredients.split(";")) {
+                String[] parts = entry.split(":");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Invalid ingredient entry: " + entry);
+                }
+                try {
+                    lines.add(new RecipeIngredient(0, parts[0].trim(), Double.parseDouble(parts[1].trim()), parts[2].trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid ingredient volume: " + entry);
+                }
+            }
+        }
+        recipe.setIngredients(lines);
+        return recipe;
+    }
+
+    /**
+     * Looks up a named column in a split CSV record.
+     *
+     * @param fields the fields of the record
+     * @param columns the header column name to index lookup
+     * @param column the column name
+     * @return the field value, or null if the column or field is absent
+     */
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    /**
+     * Splits a CSV record into fields, honouring double-quoted fields and doubled quotes within them.
+     *
+     * @param line the CSV record
+     * @return the fields of the record
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * Converts one raw input record into a Recipe.
+     *
+     * @param <T> the type of raw record
+     */
+    @FunctionalInterface
+    private interface RowParser<T> {
+        Recipe parse(T record);
+    }
+
+    /**
+     * The outcome of parsing one input row: either a recipe ready to write or an error.
+     */
+    private static class ParsedRow {
+        private final int number;
+        private Recipe recipe;
+        private String error;
+
+        ParsedRow(int number) {
+            this.number = number;
+        }
+    }
+
+    /**
+     * Iterates over the records of a CSV stream, skipping blank lines and joining physical lines while a quoted field is still open.
+     */
+    private static class CsvRecords implements Iterator<String> {
+        private final BufferedReader in;
+        private String next;
+
+        CsvRecords(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = readRecord();
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String record = next;
+            next = null;
+            return record;
+        }
+
+        private String readRecord() {
+            try {
+                String line;
+                do {
+                    line = in.readLine();
+                } while (line != null && line.isBlank());
+                if (line == null) {
+                    return null;
+                }
+                StringBuilder record = new StringBuilder(line);
+                while (quoteCount(record) % 2 != 0) {
+                    String continuation = in.readLine();
+                    if (continuation == null) {
+                        break;
+                    }
+                    record.append('\n').append(continuation);
+                }
+                return record.toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static int quoteCount(CharSequence text) {
+            int count = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Iterates over the elements of a top-level JSON array, reading one element tree at a time so the whole document is never held in memory.
+     */
+    private static class JsonRecords implements Iterator<JsonNode> {
+        private final JsonParser parser;
+        private boolean started;
+        private boolean finished;
+        private JsonNode next;
+
+        JsonRecords(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                next = readElement();
+                finished = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public JsonNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JsonNode node = next;
+            next = null;
+            return node;
+        }
+
+        private JsonNode readElement() {
+            try {
+                if (!started) {
+                    started = true;
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        throw new IOException("Expected a JSON array of recipes");
+                    }
+                }
+                // Every element is returned, objects or not, so that a stray value is reported as a bad row instead of ending the input
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    return null;
+                }
+                if (token == null) {
+                    throw new IOException("Unexpected end of input inside the JSON array");
+                }
+                return MAPPER.readTree(parser);
+            } catch (IOException e) {
+                finished = true;
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package com.revature.service;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import com.revature.dao.RecipeDAO;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeDetail;
+import com.revature.model.RecipeIngredient;
+import com.revature.model.RecipeSummary;
+import com.revature.util.AsyncExecutor;
 import com.revature.util.Page;
 
 /**
@@ -16,9 +25,18 @@ import com.revature.util.Page;
  */
 public class RecipeService {
 
+    /** The number of related recipes of each kind included in a recipe's detail. */
+    public static final int RELATED_LIMIT = 5;
+
     /** The data access object used for performing operations on Recipe entities. */
     private RecipeDAO recipeDAO;
 
+    /** The broadcaster signalled after writes, or null if changes are not pushed to live subscribers. */
+    private ChangeBroadcaster changeBroadcaster;
+
+    /** The executor that runs the async variants of the methods. */
+    private AsyncExecutor asyncExecutor;
+
     /**
      * Constructs a RecipeService with the specified RecipeDao.
      *
@@ -27,7 +45,30 @@ public class RecipeService {
      * @param recipeDao the RecipeDao to be used by this service for data access
      */
     public RecipeService(RecipeDAO recipeDAO) {
-    this.recipeDAO = recipeDAO;
+        this(recipeDAO, null);
+    }
+
+    /**
+     * Constructs a RecipeService that signals the given ChangeBroadcaster after every write, so live subscribers see the change without waiting for the next poll.
+     *
+     * @param recipeDAO the RecipeDAO to be used by this service for data access
+     * @param changeBroadcaster the broadcaster to signal after writes, or null for none
+     */
+    public RecipeService(RecipeDAO recipeDAO, ChangeBroadcaster changeBroadcaster) {
+        this(recipeDAO, changeBroadcaster, AsyncExecutor.getDefault());
+    }
+
+    /**
+     * Constructs a RecipeService that signals the given ChangeBroadcaster after every write and runs its async methods on the given executor.
+     *
+     * @param recipeDAO the RecipeDAO to be used by this service for data access
+     * @param changeBroadcaster the broadcaster to signal after writes, or null for none
+     * @param asyncExecutor the executor that runs the async methods, with their timeout
+     */
+    public RecipeService(RecipeDAO recipeDAO, ChangeBroadcaster changeBroadcaster, AsyncExecutor asyncExecutor) {
+        this.recipeDAO = recipeDAO;
+        this.changeBroadcaster = changeBroadcaster;
+        this.asyncExecutor = asyncExecutor;
     }
 
     /**
@@ -42,20 +83,99 @@ public class RecipeService {
     return Optional.ofNullable(recipe);
     }
 
+    /**
+     * Streams the instructions of a Recipe to a writer, for recipes whose instructions are too long to load with every read.
+     *
+     * @param id the unique identifier of the recipe
+     * @param target supplies the writer to stream to; only called if the recipe exists
+     * @return true if the recipe exists and its instructions were written; false if there is no such recipe
+     * @throws IOException if reading the instructions from the database or writing them to the target fails
+     */
+    public boolean writeInstructions(int id, Supplier<Writer> target) throws IOException {
+        return recipeDAO.writeInstructions(id, target);
+    }
+
+    /**
+     * Finds the Recipes with the given ids in one batch, instead of one lookup per id.
+     *
+     * @param ids the unique identifiers of the recipes to be found
+     * @return the found Recipes in the order their ids were given; ids with no recipe are skipped
+     */
+    public List<Recipe> findRecipes(List<Integer> ids) {
+        return recipeDAO.getRecipesByIds(ids);
+    }
+
     /**
      * TODO: Saves a Recipe object to the data store. If the id is 0, create a new Recipe and set the `recipe` id field to the updated id.
      * 
      * Otherwise, updates the recipe's instructions and chef id.
+     * 
+     * If the recipe carries a list of ingredient lines, the recipe and its lines are saved together in one transaction, and on update only the lines that changed are written. A recipe without a list of ingredient lines keeps its stored lines untouched.
      *
      * @param recipe the Recipe object to be saved
      */
     public void saveRecipe(Recipe recipe) {
-        if (recipe.getId() == 0) {
+        if (recipe.getIngredients() != null) {
+            boolean creating = recipe.getId() == 0;
+            int id = recipeDAO.saveRecipeWithIngredients(recipe);
+            if (creating) {
+                recipe.setId(id);
+            }
+        } else if (recipe.getId() == 0) {
             int id = recipeDAO.createRecipe(recipe);
             recipe.setId(id);
         } else {
             recipeDAO.updateRecipe(recipe);
         }
+        notifyChanges();
+    }
+
+    /**
+     * Updates an existing Recipe only if it is still at the version the caller last read. As with saveRecipe, the recipe's ingredient lines are saved in the same transaction when present.
+     *
+     * @param recipe the Recipe object with updated data; its version is advanced on success
+     * @param expectedVersion the version the caller last read
+     * @return true if the recipe was updated; false if it was modified concurrently or no longer exists
+     */
+    public boolean updateRecipe(Recipe recipe, int expectedVersion) {
+        boolean updated;
+        if (recipe.getIngredients() != null) {
+            updated = recipeDAO.saveRecipeWithIngredients(recipe, expectedVersion) != 0;
+        } else {
+            updated = recipeDAO.updateRecipe(recipe, expectedVersion);
+        }
+        if (updated) {
+            notifyChanges();
+        }
+        return updated;
+    }
+
+    /**
+     * Searches for recipes like searchRecipes, returning lightweight summaries with only the selected fields, for list views.
+     *
+     * @param term     the search term used to find recipes, or null for all recipes
+     * @param page     the page number to retrieve
+     * @param pageSize the number of recipes per page
+     * @param fields   the fields to include, from RecipeSummary.FIELDS
+     * @return a Page of RecipeSummary objects
+     */
+    public Page<RecipeSummary> searchRecipeSummaries(String term, int page, int pageSize, Set<String> fields) {
+        return searchRecipeSummaries(term, page, pageSize, null, null, fields);
+    }
+
+    /**
+     * Searches for recipes like searchRecipeSummaries, sorted by id or name.
+     *
+     * @param term          the search term used to find recipes, or null for all recipes
+     * @param page          the page number to retrieve
+     * @param pageSize      the number of recipes per page
+     * @param sortBy        the field to sort by, id or name; anything else sorts by id
+     * @param sortDirection the direction of sorting, asc or desc; anything else sorts ascending
+     * @param fields        the fields to include, from RecipeSummary.FIELDS
+     * @return a Page of RecipeSummary objects
+     */
+    public Page<RecipeSummary> searchRecipeSummaries(String term, int page, int pageSize, String sortBy, String sortDirection, Set<String> fields) {
+        return recipeDAO.getRecipeSummaries(term, fields, new com.revature.util.PageOptions(page, pageSize, sortBy, sortDirection));
     }
 
     /**
@@ -101,6 +221,85 @@ public class RecipeService {
         Recipe recipe = recipeDAO.getRecipeById(id);
         if (recipe != null) {
             recipeDAO.deleteRecipe(recipe);
+            notifyChanges();
+        }
+    }
+
+    /**
+     * Finds a Recipe like findRecipe, without blocking the caller.
+     *
+     * @param id the unique identifier of the recipe to be found
+     * @return a future of the found Recipe, if any; failed with a TimeoutException if the lookup takes too long
+     */
+    public CompletableFuture<Optional<Recipe>> findRecipeAsync(int id) {
+        return asyncExecutor.supply(() -> findRecipe(id));
+    }
+
+    /**
+     * Searches for recipes with pagination like searchRecipes, without blocking the caller.
+     *
+     * @param term          the search term used to find recipes
+     * @param page          the page number to retrieve
+     * @param pageSize      the number of recipes per page
+     * @param sortBy        the field by which to sort the results
+     * @param sortDirection the direction of sorting (ascending or descending)
+     * @return a future of the Page of results; failed with a TimeoutException if the search takes too long
+     */
+    public CompletableFuture<Page<Recipe>> searchRecipesAsync(String term, int page, int pageSize, String sortBy, String sortDirection) {
+        return asyncExecutor.supply(() -> searchRecipes(term, page, pageSize, sortBy, sortDirection));
+    }
+
+    /**
+     * Searches for recipes like searchRecipes, without blocking the caller.
+     *
+     * @param term the search term used to find recipes
+     * @return a future of the matching recipes; failed with a TimeoutException if the search takes too long
+     */
+    public CompletableFuture<List<Recipe>> searchRecipesAsync(String term) {
+        return asyncExecutor.supply(() -> searchRecipes(term));
+    }
+
+    /**
+     * Saves a Recipe like saveRecipe, without blocking the caller.
+     *
+     * @param recipe the Recipe object to be saved
+     * @return a future completed once the recipe is saved; failed with a TimeoutException if saving takes too long, in which case the save may still complete
+     */
+    public CompletableFuture<Void> saveRecipeAsync(Recipe recipe) {
+        return asyncExecutor.run(() -> saveRecipe(recipe));
+    }
+
+    /**
+     * Deletes a Recipe like deleteRecipe, without blocking the caller.
+     *
+     * @param id the unique identifier of the recipe to be deleted
+     * @return a future completed once the recipe is deleted; failed with a TimeoutException if deleting takes too long, in which case the delete may still complete
+     */
+    public CompletableFuture<Void> deleteRecipeAsync(int id) {
+        return asyncExecutor.run(() -> deleteRecipe(id));
+    }
+
+    /**
+     * Gathers everything a recipe page shows: the recipe with its author, its ingredient lines, other recipes by its author and similar recipes. The four lookups run concurrently under the async executor's deadline; if one fails or the deadline passes, the others are cancelled and the returned future fails.
+     *
+     * @param id the unique identifier of the recipe
+     * @return a future of the recipe's detail, or of an empty Optional if the recipe does not exist
+     */
+    public CompletableFuture<Optional<RecipeDetail>> getRecipeDetailAsync(int id) {
+        CompletableFuture<Optional<Recipe>> recipe = findRecipeAsync(id);
+        CompletableFuture<List<RecipeIngredient>> ingredients = asyncExecutor.supply(() -> recipeDAO.getRecipeIngredients(id));
+        CompletableFuture<List<Recipe>> authorRecipes = asyncExecutor.supply(() -> recipeDAO.getOtherRecipesByAuthor(id, RELATED_LIMIT));
+        CompletableFuture<List<Recipe>> similarRecipes = asyncExecutor.supply(() -> recipeDAO.getSimilarRecipes(id, RELATED_LIMIT));
+        return asyncExecutor.allOrNothing(recipe, ingredients, authorRecipes, similarRecipes)
+                .thenApply(done -> recipe.join().map(found -> new RecipeDetail(found, ingredients.join(), authorRecipes.join(), similarRecipes.join())));
+    }
+
+    /**
+     * Signals the change broadcaster, if any, that the change log has new entries.
+     */
+    private void notifyChanges() {
+        if (changeBroadcaster != null) {
+            changeBroadcaster.signal();
         }
     }
 }
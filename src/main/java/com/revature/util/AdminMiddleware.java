@@ -1,10 +1,6 @@
 package com.revature.util;
-import java.util.stream.Collectors;
 
-import com.revature.dao.ChefDAO;
-import com.revature.model.Chef;
 import com.revature.service.AuthenticationService;
-import com.revature.service.ChefService;
 
 import io.javalin.http.Context;
 import io.javalin.http.Handler;
@@ -14,9 +10,13 @@ import io.javalin.http.UnauthorizedResponse;
  * within the application by protecting specific routes from non-admin users. 
  * 
  * This class utilizes a list of protected methods to determine which HTTP 
- * methods require admin access and leverages the ChefService to validate 
- * user permissions. The middleware intercepts requests and ensures that 
- * only users with admin privileges can access protected resources.
+ * methods require admin access and leverages the AuthenticationService to 
+ * validate user permissions. The middleware intercepts requests and ensures 
+ * that only users with admin privileges can access protected resources.
+ * 
+ * The caller is resolved from the request's Authorization header, and the 
+ * admin flag cached on the caller's session is checked, so each check is a 
+ * single lookup regardless of how many users are logged in.
  */
 
 public class AdminMiddleware implements Handler {
@@ -30,20 +30,29 @@ public class AdminMiddleware implements Handler {
     /**
      * The AuthenticationService instance used for handling authentication-related operations and validation.
      */
-    @SuppressWarnings("unused")
     private AuthenticationService authService;
     
 
     /**
-     * Constructs an AdminMiddleware instance with the specified AuthenticationService and an array of protected methods.
+     * Constructs an AdminMiddleware instance with an array of protected methods that checks sessions in the default SessionStore.
      *
-     * @param AuthenticationService - the AuthenticationService instance for handling authentication operations
      * @param protectedMethods - the array of protected HTTP methods
      */
 
     public AdminMiddleware(String... protectedMethods) {
-        this.protectedMethods = protectedMethods;
-        this.authService = new AuthenticationService(new ChefService(new ChefDAO(new ConnectionUtil())));
+        this(new AuthenticationService(null, SessionStore.getDefault()), protectedMethods);
+    }
+
+    /**
+     * Constructs an AdminMiddleware instance with the specified AuthenticationService and an array of protected methods.
+     *
+     * @param authService - the application's AuthenticationService, whose sessions are checked
+     * @param protectedMethods - the array of protected HTTP methods
+     */
+
+    public AdminMiddleware(AuthenticationService authService, String... protectedMethods) {
+        this.protectedMethods = protectedMethods != null ? protectedMethods : new String[0];
+        this.authService = authService;
     }
 
     /**
@@ -54,11 +63,11 @@ public class AdminMiddleware implements Handler {
     @Override
     public void handle(Context ctx) {
         if (isProtectedMethod(ctx.method().name())) {
-            // Get the token of the current logged in user
-            String token = AuthenticationService.loggedInUsers.keySet().stream().collect(Collectors.joining());
+            // Get the token of the caller
+            String token = ctx.header("Authorization");
 
-            // Check the corresponding chef and check if they are admin
-            boolean isAdmin = isAdmin(authService.getChefFromSessionToken(token));
+            // Check the admin flag cached on the caller's session
+            boolean isAdmin = authService.isAdmin(token);
             
             // If they are not admin, throw an exception
             if (!isAdmin) {
@@ -81,18 +90,5 @@ public class AdminMiddleware implements Handler {
         }
         return false;
     }
-
-    /**
-     * Determines if the chef with the specified ID has admin privileges.
-     *
-     * @param chefId the unique identifier of the chef.
-     * @return true if the chef is an admin; false otherwise.
-     */
-    private boolean isAdmin(Chef chef) {
-        if (chef != null) {
-            return chef.isAdmin();
-        }
-        return false;
-    }
 }
 
@@ -0,0 +1,231 @@
+package com.revature.util;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.ServiceUnavailableResponse;
+
+/**
+ * The AdmissionController class is a before handler that sheds load when the database slows down. It caps the number of requests doing database work at once and rejects the excess early with a 503 Service Unavailable response and a Retry-After header, instead of letting them queue for a connection until every request times out.
+ *
+ * Reads (GET and HEAD) and writes have separate limits, so a burst of slow writes cannot starve searches and the other way around. Each limit adapts to database pressure, measured as the longest time a request waited for a pooled connection, which QueryStats collects from ConnectionUtil. Request latency is not used, so handlers that are slow on purpose, such as password hashing, do not read as congestion. While requests get their connections without waiting, the limit grows by about one per round trip; when a request waits longer than the congestion threshold, which means connections are running out, the limit is cut by a constant factor (AIMD).
+ *
+ * Routes whose long-running work is bounded by a bulkhead of its own, such as logins and bulk imports, are left out, since counting them would hold write slots for seconds at a time. Paths listed as exempt pass through the handler without being admitted.
+ *
+ * The release method must be registered as an after handler on the same paths, so that each admitted request is counted out and its connection wait recorded.
+ */
+public class AdmissionController implements Handler {
+
+    /** The context attribute that marks an admitted request. */
+    private static final String ADMITTED = "admission.admitted";
+
+    /** The limit for reads. */
+    private Limit reads;
+
+    /** The limit for writes. */
+    private Limit writes;
+
+    /** The paths that are not admitted, without trailing slashes. */
+    private Set<String> exemptPaths;
+
+    /** The number of requests rejected. */
+    private AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Constructs an AdmissionController with default limits: reads start at 32 concurrent requests within 4 to 256, writes start at 8 within 1 to 64.
+     *
+     * @param exemptPaths the paths that are not admitted
+     */
+    public AdmissionController(String... exemptPaths) {
+        this(new Limit(32, 4, 256), new Limit(8, 1, 64), exemptPaths);
+    }
+
+    /**
+     * Constructs an AdmissionController with the specified limits.
+     *
+     * @param reads the limit for reads
+     * @param writes the limit for writes
+     * @param exemptPaths the paths that are not admitted
+     */
+    public AdmissionController(Limit reads, Limit writes, String... exemptPaths) {
+        this.reads = reads;
+        this.writes = writes;
+        this.exemptPaths = Set.of(exemptPaths);
+    }
+
+    /**
+     * Admits the request if its limit allows, or rejects it. Requests to exempt paths are let through without being admitted.
+     *
+     * @param ctx the Javalin context representing the HTTP request and response
+     */
+    @Override
+    public void handle(Context ctx) {
+        if (!exemptPaths.isEmpty() && exemptPaths.contains(ctx.path().replaceAll("(?<=.)/+$", ""))) {
+            return;
+        }
+        if (!tryAdmit(isWrite(ctx))) {
+            ctx.header("Retry-After", "1");
+            throw new ServiceUnavailableResponse("Server is busy, try again later");
+        }
+        ctx.attribute(ADMITTED, true);
+    }
+
+    /**
+     * Counts an admitted request out and records the longest time it waited for a connection. Requests that were rejected, exempt, or never reached this controller, are ignored.
+     *
+     * @param ctx the Javalin context representing the HTTP request and response
+     */
+    public void release(Context ctx) {
+        Boolean admitted = ctx.attribute(ADMITTED);
+        if (admitted != null) {
+            ctx.attribute(ADMITTED, null);
+            QueryStats stats = ctx.attribute(QueryStats.ATTRIBUTE);
+            complete(isWrite(ctx), stats == null ? 0 : stats.getLongestConnectionWaitNanos());
+        }
+    }
+
+    /**
+     * Admits a request if its limit allows.
+     *
+     * @param write whether the request is a write
+     * @return true if the request is admitted and must later be completed
+     */
+    public boolean tryAdmit(boolean write) {
+        if ((write ? writes : reads).tryAcquire()) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Completes an admitted request.
+     *
+     * @param write whether the request is a write
+     * @param connectionWaitNanos the longest time the request waited for a connection, in nanoseconds
+     */
+    public void complete(boolean write, long connectionWaitNanos) {
+        (write ? writes : reads).release(connectionWaitNanos);
+    }
+
+    /**
+     * Retrieves the limit for reads.
+     *
+     * @return the read limit
+     */
+    public Limit getReads() {
+        return reads;
+    }
+
+    /**
+     * Retrieves the limit for writes.
+     *
+     * @return the write limit
+     */
+    public Limit getWrites() {
+        return writes;
+    }
+
+    /**
+     * Retrieves the number of requests rejected.
+     *
+     * @return the rejected request count
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private static boolean isWrite(Context ctx) {
+        HandlerType method = ctx.method();
+        return method != HandlerType.GET && method != HandlerType.HEAD;
+    }
+
+    /**
+     * An adaptive concurrency limit.
+     */
+    public static class Limit {
+
+        /** How long a request may wait for a connection before the wait counts as congestion; an idle pool hands connections out in microseconds. */
+        private static final long CONGESTION_WAIT_NANOS = 1_000_000L;
+
+        /** The factor the limit is multiplied by on congestion. */
+        private static final double BACKOFF = 0.9;
+
+        /** The shortest time between two decreases, so that one slow batch cuts the limit once. */
+        private static final long DECREASE_INTERVAL_NANOS = 100_000_000L;
+
+        private final int minLimit;
+        private final int maxLimit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /** The current limit; fractional so that additive increases accumulate. */
+        private volatile double limit;
+
+        private long lastDecrease;
+
+        /**
+         * Constructs a Limit.
+         *
+         * @param initialLimit the starting number of concurrent requests
+         * @param minLimit the lowest the limit may fall
+         * @param maxLimit the highest the limit may grow
+         */
+        public Limit(int initialLimit, int minLimit, int maxLimit) {
+            this.limit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= (int) limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(long connectionWaitNanos) {
+            int current = inFlight.getAndDecrement();
+            update(connectionWaitNanos, current);
+        }
+
+        private synchronized void update(long connectionWaitNanos, int inFlightAtCompletion) {
+            long now = System.nanoTime();
+            if (connectionWaitNanos > CONGESTION_WAIT_NANOS) {
+                if (now - lastDecrease >= DECREASE_INTERVAL_NANOS) {
+                    lastDecrease = now;
+                    limit = Math.max(minLimit, limit * BACKOFF);
+                }
+            } else if (inFlightAtCompletion * 2 >= limit) {
+                // Only grow while the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+
+        /**
+         * Retrieves the current limit.
+         *
+         * @return the number of requests admitted at once
+         */
+        public int getLimit() {
+            return (int) limit;
+        }
+
+        /**
+         * Retrieves the number of admitted requests that have not completed.
+         *
+         * @return the in-flight request count
+         */
+        public int getInFlight() {
+            return inFlight.get();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.revature.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The AsyncExecutor class runs the async variants of the service methods. It pairs an executor with a timeout: every future it returns fails with a TimeoutException once the timeout passes, so a caller composing several queries never waits on a stuck one for longer than that.
+ *
+ * A timed out query is not interrupted, since interrupting a thread inside the database driver can close the connection's files under it; the query runs to completion and its result is dropped. The default executor runs each task on its own virtual thread, so waiting on the database costs no pooled thread. Tasks record their statements into the QueryStats of the thread that started them.
+ */
+public class AsyncExecutor {
+
+    /** The default timeout of async service calls, in milliseconds. */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    /** The executor shared by services that are not given one explicitly. */
+    private static final AsyncExecutor DEFAULT = new AsyncExecutor(Executors.newVirtualThreadPerTaskExecutor(), DEFAULT_TIMEOUT_MILLIS);
+
+    /** The executor that runs the tasks. */
+    private Executor executor;
+
+    /** The time after which a task's future fails, in milliseconds. */
+    private long timeoutMillis;
+
+    /**
+     * Constructs an AsyncExecutor.
+     *
+     * @param executor the executor that runs the tasks
+     * @param timeoutMillis the time after which a task's future fails, in milliseconds
+     */
+    public AsyncExecutor(Executor executor, long timeoutMillis) {
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Retrieves the executor shared by services that are not given one explicitly.
+     *
+     * @return the default async executor
+     */
+    public static AsyncExecutor getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Runs a task that returns a value.
+     *
+     * @param task the task
+     * @return a future of the task's result, failed with a TimeoutException if the task does not finish in time, or with a RejectedExecutionException if the executor refuses it
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(QueryStats.propagate(task), executor).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs a task that returns nothing.
+     *
+     * @param task the task
+     * @return a future completed when the task finishes, failed as for supply
+     */
+    public CompletableFuture<Void> run(Runnable task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Combines futures that are all needed for one result, such as the parts of a composite response, under a shared deadline. As soon as one of them fails, or the deadline passes, the combined future fails and the others are cancelled, so the caller does not wait for parts it can no longer use.
+     *
+     * @param futures the futures, typically started with supply
+     * @return a future completed when every future has completed normally, or failed with the first failure or a TimeoutException
+     */
+    public CompletableFuture<Void> allOrNothing(CompletableFuture<?>... futures) {
+        CompletableFuture<Void> all = new CompletableFuture<>();
+        CompletableFuture.allOf(futures).thenRun(() -> all.complete(null));
+        for (CompletableFuture<?> future : futures) {
+            future.whenComplete((value, error) -> {
+                if (error != null) {
+                    all.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                }
+            });
+        }
+        all.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+            if (error != null) {
+                for (CompletableFuture<?> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        });
+        return all;
+    }
+
+    /**
+     * Retrieves the time after which a task's future fails.
+     *
+     * @return the timeout, in milliseconds
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
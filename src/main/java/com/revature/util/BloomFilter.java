@@ -0,0 +1,92 @@
+package com.revature.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The BloomFilter class is a compact probabilistic set of strings. A negative answer from mightContain is always right, while a positive answer may be wrong with a small, configurable probability; callers use it to skip a database lookup for values that are certainly absent.
+ *
+ * Bits are set with atomic operations, so values can be added while other threads query the filter. Values cannot be removed.
+ */
+public class BloomFilter {
+
+    /** The bits of the filter, 64 to a word. */
+    private AtomicLongArray words;
+
+    /** The number of bits in the filter. */
+    private long bitCount;
+
+    /** The number of bits set per value. */
+    private int hashCount;
+
+    /**
+     * Constructs a BloomFilter sized for the expected number of values and false positive rate.
+     *
+     * @param expectedValues the number of values the filter is expected to hold
+     * @param falsePositiveRate the acceptable probability of a false positive, between 0 and 1
+     */
+    public BloomFilter(int expectedValues, double falsePositiveRate) {
+        long n = Math.max(1, expectedValues);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, bits);
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / n * Math.log(2)));
+        this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value the value to add
+     */
+    public void add(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                // retry until the bit is set
+            }
+        }
+    }
+
+    /**
+     * Checks whether a value may have been added to the filter.
+     *
+     * @param value the value to check
+     * @return false if the value was certainly never added; true if it probably was
+     */
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of a value, finished with a mixing step so that both halves are usable as independent hashes.
+     *
+     * @param value the value to hash
+     * @return the hash
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
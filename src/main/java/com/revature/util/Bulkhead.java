@@ -0,0 +1,248 @@
+package com.revature.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.ServiceUnavailableResponse;
+
+/**
+ * The Bulkhead class runs one class of request handlers on its own bounded pool of threads, so that a spike in one class, such as expensive searches, cannot take the threads that logins and cheap lookups need.
+ *
+ * Wrapped handlers are dispatched with Javalin's ctx.future, which releases the server thread while the handler runs. When the pool and its queue are full, the request is rejected at once with a 503 Service Unavailable response. The request's QueryStats follow it onto the bulkhead's thread. Each bulkhead counts its queue depth, rejections, time spent waiting in the queue and time spent handling requests.
+ *
+ * An inline bulkhead has no pool: it returns handlers unchanged and runs async handlers on the calling thread, which is how the application behaves when no bulkheads are configured.
+ */
+public class Bulkhead {
+
+    /** The name of the bulkhead, used for its threads and in the rejection message. */
+    private String name;
+
+    /** The pool that runs the handlers, or null for an inline bulkhead. */
+    private ThreadPoolExecutor executor;
+
+    private LongAdder completed = new LongAdder();
+
+    private LongAdder rejected = new LongAdder();
+
+    private LongAdder queueWaitNanos = new LongAdder();
+
+    private LongAdder latencyNanos = new LongAdder();
+
+    private AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Constructs a Bulkhead with its own pool.
+     *
+     * @param name the name of the bulkhead
+     * @param threads the number of handlers that run at once
+     * @param queueCapacity the number of requests that may wait for a thread before new ones are rejected
+     */
+    public Bulkhead(String name, int threads, int queueCapacity) {
+        this(name, threads, queueCapacity, false);
+    }
+
+    /**
+     * Constructs a Bulkhead with its own pool, optionally of virtual threads. A pool of virtual threads still bounds how many handlers run at once, but its threads cost almost nothing while blocked on the database.
+     *
+     * @param name the name of the bulkhead
+     * @param threads the number of handlers that run at once
+     * @param queueCapacity the number of requests that may wait for a thread before new ones are rejected
+     * @param virtualThreads whether the pool's threads are virtual
+     */
+    public Bulkhead(String name, int threads, int queueCapacity, boolean virtualThreads) {
+        this.name = name;
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("bulkhead-" + name + "-", 0).factory()
+                : Thread.ofPlatform().name("bulkhead-" + name).daemon(true).factory();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    private Bulkhead(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates an inline bulkhead, which runs handlers on the calling thread.
+     *
+     * @param name the name of the bulkhead
+     * @return the inline bulkhead
+     */
+    public static Bulkhead inline(String name) {
+        return new Bulkhead(name);
+    }
+
+    /**
+     * Wraps a handler so that it runs in this bulkhead.
+     *
+     * @param handler the handler
+     * @return the wrapped handler
+     */
+    public Handler wrap(Handler handler) {
+        if (executor == null) {
+            return handler;
+        }
+        return ctx -> ctx.future(() -> supply(() -> {
+            handler.handle(ctx);
+            return null;
+        }));
+    }
+
+    /**
+     * Wraps an async handler, which returns the future of its response instead of setting one with ctx.future, so that the synchronous part of it runs in this bulkhead. The request's latency is recorded when the returned future completes.
+     *
+     * @param handler the async handler
+     * @return the wrapped handler
+     */
+    public Handler wrapAsync(AsyncHandler handler) {
+        return ctx -> ctx.future(() -> compose(() -> handler.handle(ctx)));
+    }
+
+    /**
+     * Runs a task in this bulkhead.
+     *
+     * @param task the task
+     * @return a future of the task's result, failed with a ServiceUnavailableResponse if the bulkhead is full
+     */
+    public <T> CompletableFuture<T> supply(Callable<T> task) {
+        return compose(() -> CompletableFuture.completedFuture(task.call()));
+    }
+
+    /**
+     * Runs a task that returns a future in this bulkhead, and records its latency when that future completes.
+     *
+     * @param task the task
+     * @return a future of the result of the task's future, failed with a ServiceUnavailableResponse if the bulkhead is full
+     */
+    private <T> CompletableFuture<T> compose(Callable<CompletableFuture<T>> task) {
+        if (executor == null) {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        long submittedAt = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(QueryStats.propagate(() -> {
+                queueWaitNanos.add(System.nanoTime() - submittedAt);
+                try {
+                    task.call().whenComplete((value, error) -> {
+                        if (error != null) {
+                            result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                        } else {
+                            result.complete(value);
+                        }
+                    });
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new ServiceUnavailableResponse("Too many " + name + " requests in progress"));
+        }
+        return result.whenComplete((value, error) -> record(System.nanoTime() - submittedAt));
+    }
+
+    private void record(long nanos) {
+        completed.increment();
+        latencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Retrieves the name of the bulkhead.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the number of requests waiting for a thread.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * Retrieves the number of requests being handled.
+     *
+     * @return the number of busy threads
+     */
+    public int getActiveCount() {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    /**
+     * Retrieves the number of requests handled, successfully or not.
+     *
+     * @return the completed request count
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Retrieves the number of requests rejected because the bulkhead was full.
+     *
+     * @return the rejected request count
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Retrieves the average time requests waited for a thread.
+     *
+     * @return the average queue wait, in milliseconds
+     */
+    public double getAverageQueueWaitMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : queueWaitNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * Retrieves the average time from submission to completion of a request.
+     *
+     * @return the average latency, in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : latencyNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * Retrieves the longest time from submission to completion of a request.
+     *
+     * @return the maximum latency, in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1e6;
+    }
+
+    /**
+     * A handler that returns the future of its response.
+     */
+    @FunctionalInterface
+    public interface AsyncHandler {
+        CompletableFuture<Void> handle(Context ctx) throws Exception;
+    }
+}
@@ -0,0 +1,91 @@
+package com.revature.util;
+
+import java.util.List;
+
+/**
+ * The Bulkheads class groups the bulkheads that the controllers dispatch their routes to: searches, single-record reads and writes (CRUD), authentication, and bulk transfers such as imports and the change feed (export).
+ */
+public class Bulkheads {
+
+    /** The bulkhead for searches by term. */
+    private Bulkhead search;
+
+    /** The bulkhead for reads and writes of single records. */
+    private Bulkhead crud;
+
+    /** The bulkhead for login, registration and logout. */
+    private Bulkhead auth;
+
+    /** The bulkhead for bulk imports and exports. */
+    private Bulkhead export;
+
+    /**
+     * Constructs Bulkheads from the specified bulkheads.
+     *
+     * @param search the bulkhead for searches by term
+     * @param crud the bulkhead for reads and writes of single records
+     * @param auth the bulkhead for login, registration and logout
+     * @param export the bulkhead for bulk imports and exports
+     */
+    public Bulkheads(Bulkhead search, Bulkhead crud, Bulkhead auth, Bulkhead export) {
+        this.search = search;
+        this.crud = crud;
+        this.auth = auth;
+        this.export = export;
+    }
+
+    /**
+     * Creates Bulkheads that run every handler on the calling thread.
+     *
+     * @return inline bulkheads
+     */
+    public static Bulkheads inline() {
+        return new Bulkheads(Bulkhead.inline("search"), Bulkhead.inline("crud"), Bulkhead.inline("auth"), Bulkhead.inline("export"));
+    }
+
+    /**
+     * Creates Bulkheads sized from system properties of the form bulkhead.NAME.threads and bulkhead.NAME.queue, falling back to the specified defaults.
+     *
+     * @param searchThreads the default number of search threads
+     * @param crudThreads the default number of CRUD threads
+     * @param authThreads the default number of authentication threads
+     * @param exportThreads the default number of export threads
+     * @param virtualThreads whether the bulkheads run handlers on virtual threads
+     * @return the configured bulkheads
+     */
+    public static Bulkheads fromSystemProperties(int searchThreads, int crudThreads, int authThreads, int exportThreads, boolean virtualThreads) {
+        return new Bulkheads(configured("search", searchThreads, virtualThreads), configured("crud", crudThreads, virtualThreads),
+                configured("auth", authThreads, virtualThreads), configured("export", exportThreads, virtualThreads));
+    }
+
+    private static Bulkhead configured(String name, int defaultThreads, boolean virtualThreads) {
+        int threads = Integer.getInteger("bulkhead." + name + ".threads", defaultThreads);
+        int queue = Integer.getInteger("bulkhead." + name + ".queue", threads * 8);
+        return new Bulkhead(name, threads, queue, virtualThreads);
+    }
+
+    public Bulkhead getSearch() {
+        return search;
+    }
+
+    public Bulkhead getCrud() {
+        return crud;
+    }
+
+    public Bulkhead getAuth() {
+        return auth;
+    }
+
+    public Bulkhead getExport() {
+        return export;
+    }
+
+    /**
+     * Retrieves every bulkhead, for reporting their metrics.
+     *
+     * @return the bulkheads
+     */
+    public List<Bulkhead> getAll() {
+        return List.of(search, crud, auth, export);
+    }
+}
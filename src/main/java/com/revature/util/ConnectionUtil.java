@@ -1,42 +1,185 @@
 package com.revature.util;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 
+import org.h2.jdbcx.JdbcConnectionPool;
 import org.h2.jdbcx.JdbcDataSource;
 
 /**
 This class provides autility methods and configuration for managing database connections for an H2 database. It uses a JdbcDataSource connection pool to manage connections efficiently.
 
-You do not need to edit this class.
+Connections are pooled, so the H2 session behind a connection outlives each DAO call. Each session keeps a bounded, least-recently-used cache of the statements prepared on it, keyed by SQL text, and the cache is dropped when the session closes; a DAO that prepares the same SQL again on a pooled connection reuses the parsed and planned statement instead of preparing it anew. The pool size and cache size can be set with the db.maxConnections and db.statementCacheSize system properties.
+
+Work that spans several DAO calls can run in one transaction with beginTransaction, which binds a connection to the current thread until the transaction is closed; DAO methods called on that thread in between use it without being handed it.
 
  */
 public class ConnectionUtil {
 
+    /** The default number of pooled connections. A DAO call holds at most two at once, since recipes look up their authors while their own result is open. */
+    public static final int DEFAULT_MAX_CONNECTIONS = 256;
+
+    /** The default number of prepared statements cached per connection. */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
     // fields
-	private static String url = "jdbc:h2:./h2/db;";
+	private static String url = "jdbc:h2:./h2/db;QUERY_CACHE_SIZE=" + Integer.getInteger("db.statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE);
 	private static String username = "sa";
 	private static String password = "";
-	private static JdbcDataSource pool = new JdbcDataSource();
+	private static JdbcDataSource dataSource = new JdbcDataSource();
+	private static JdbcConnectionPool pool;
+
+	/** The transaction bound to each thread, if any. */
+	private static final ThreadLocal<Transaction> BOUND = new ThreadLocal<>();
 
 	/**
 	 * static initialization block to establish credentials for DataSoure Pool
 	 */
 	static {
-		pool.setURL(url);
-		pool.setUser(username);
-		pool.setPassword(password);
+		dataSource.setURL(url);
+		dataSource.setUser(username);
+		dataSource.setPassword(password);
+		pool = JdbcConnectionPool.create(dataSource);
+		pool.setMaxConnections(Integer.getInteger("db.maxConnections", DEFAULT_MAX_CONNECTIONS));
 	}
 
 	/**
-	 * @return an active connection to the database
+	 * @return an active connection to the database, whose statements are counted by QueryCounter; closing it returns it to the pool. While a transaction is bound to the current thread, it is instead a view of the transaction's connection. The time spent waiting for it is recorded into the current QueryStats, which is what admission control watches for database pressure
 	 */
 	public Connection getConnection() {
+		Transaction transaction = BOUND.get();
+		if (transaction != null) {
+			return QueryCounter.wrap(transaction.view);
+		}
 		try {
-			return pool.getConnection();
+			return QueryCounter.wrap(take());
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
 
 		return null;
 	}
+
+	/**
+	 * Starts a transaction on a pooled connection and binds it to the current thread. Until the transaction is closed, getConnection on this thread returns views of its connection instead of pooled ones. Closing a view does nothing, and a DAO method's own transaction becomes part of this one: its setAutoCommit and commit calls are ignored, and a rollback marks this transaction rollback-only, since the DAO's statements can only be undone with everything else. Savepoints pass through.
+	 *
+	 * @return the transaction, which must be closed; closing it without committing rolls it back
+	 * @throws SQLException if no connection can be taken from the pool
+	 * @throws IllegalStateException if a transaction is already bound to the current thread
+	 */
+	public Transaction beginTransaction() throws SQLException {
+		if (BOUND.get() != null) {
+			throw new IllegalStateException("A transaction is already bound to this thread");
+		}
+		Transaction transaction = new Transaction(take());
+		BOUND.set(transaction);
+		return transaction;
+	}
+
+	/**
+	 * Takes a connection from the pool, recording the time spent waiting for it into the current QueryStats.
+	 */
+	private static Connection take() throws SQLException {
+		long start = System.nanoTime();
+		Connection connection = pool.getConnection();
+		QueryStats stats = QueryStats.current();
+		if (stats != null) {
+			stats.recordConnectionWait(System.nanoTime() - start);
+		}
+		return connection;
+	}
+
+	/**
+	 * A transaction bound to the thread that began it.
+	 */
+	public static class Transaction implements AutoCloseable {
+
+		private final Connection connection;
+
+		/** The view of the connection handed to DAO methods while the transaction is bound. */
+		private final Connection view;
+
+		private boolean rollbackOnly;
+
+		private boolean committed;
+
+		private boolean closed;
+
+		private Transaction(Connection connection) throws SQLException {
+			this.connection = connection;
+			try {
+				connection.setAutoCommit(false);
+			} catch (SQLException e) {
+				connection.close();
+				throw e;
+			}
+			this.view = (Connection) Proxy.newProxyInstance(ConnectionUtil.class.getClassLoader(), new Class<?>[] {Connection.class}, this::invokeOnView);
+		}
+
+		private Object invokeOnView(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "close", "setAutoCommit", "commit":
+					return null;
+				case "rollback":
+					if (args == null) {
+						rollbackOnly = true;
+						return null;
+					}
+					break;
+				default:
+					break;
+			}
+			try {
+				return method.invoke(connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		/**
+		 * @return true if a DAO method rolled back its part of the transaction, so it can no longer be committed
+		 */
+		public boolean isRollbackOnly() {
+			return rollbackOnly;
+		}
+
+		/**
+		 * Commits the transaction.
+		 *
+		 * @throws SQLException if the commit fails, or the transaction is rollback-only
+		 */
+		public void commit() throws SQLException {
+			if (rollbackOnly) {
+				throw new SQLException("Transaction is rollback-only");
+			}
+			connection.commit();
+			committed = true;
+		}
+
+		/**
+		 * Rolls the transaction back unless it was committed, unbinds it from the current thread and returns its connection to the pool.
+		 *
+		 * @throws SQLException if the rollback fails; the connection is returned to the pool anyway
+		 */
+		@Override
+		public void close() throws SQLException {
+			if (BOUND.get() == this) {
+				BOUND.remove();
+			}
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				if (!committed) {
+					connection.rollback();
+				}
+				connection.setAutoCommit(true);
+			} finally {
+				connection.close();
+			}
+		}
+	}
 }
@@ -0,0 +1,46 @@
+package com.revature.util;
+
+/**
+ * The ETagUtil class converts between row versions and the entity tags used in the ETag and If-Match headers.
+ *
+ * A version is rendered as a strong quoted tag, for example "3". Weak tags (W/"3") are accepted when parsing so that caches which downgrade tags do not break conditional updates.
+ */
+public class ETagUtil {
+
+    private ETagUtil() {
+    }
+
+    /**
+     * Formats a row version as an entity tag.
+     *
+     * @param version the row version
+     * @return the quoted entity tag
+     */
+    public static String toETag(int version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Parses the expected row version from an If-Match header.
+     *
+     * @param ifMatch the If-Match header value, which may be null
+     * @return the expected version; null if the header is absent or "*", meaning the update is unconditional; or -1 if the header cannot be parsed, which never matches a stored version
+     */
+    public static Integer parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Integer.parseInt(tag);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.revature.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The IdBatch class holds the helpers shared by the DAOs' lookups of many records by id: the id list is de-duplicated and split into chunks, each chunk is fetched with one WHERE id IN (...) statement, and the rows are put back in the order the ids were requested.
+ */
+public class IdBatch {
+
+    /** The most ids bound to a single IN list, which keeps statements small enough for the driver and the plan cache. */
+    public static final int CHUNK_SIZE = 500;
+
+    /** The most ids a client may request at once. */
+    public static final int MAX_IDS = 1000;
+
+    private IdBatch() {
+    }
+
+    /**
+     * Splits ids into chunks of at most CHUNK_SIZE distinct ids, keeping the order of their first occurrence.
+     *
+     * @param ids the requested ids, possibly with duplicates
+     * @return the chunks
+     */
+    public static List<List<Integer>> chunks(Collection<Integer> ids) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int start = 0; start < distinct.size(); start += CHUNK_SIZE) {
+            chunks.add(distinct.subList(start, Math.min(start + CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Builds the parameter list of an IN clause, for example "?, ?, ?".
+     *
+     * @param count the number of parameters
+     * @return the placeholders
+     */
+    public static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Orders loaded records as their ids were requested. Ids that were not found are skipped, and a repeated id yields its record once.
+     *
+     * @param ids the requested ids
+     * @param found the loaded records keyed by id
+     * @return the records in requested order
+     */
+    public static <T> List<T> inRequestedOrder(Collection<Integer> ids, Map<Integer, T> found) {
+        List<T> ordered = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            T item = found.get(id);
+            if (item != null) {
+                ordered.add(item);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Parses a comma-separated id list such as "1,2,3", as sent in an ids query parameter.
+     *
+     * @param value the parameter value
+     * @return the ids, in the order given
+     * @throws IllegalArgumentException if an entry is not an integer, or there are more than MAX_IDS ids
+     */
+    public static List<Integer> parse(String value) {
+        List<Integer> ids = new ArrayList<>();
+        for (String part : value.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                try {
+                    ids.add(Integer.parseInt(trimmed));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid id: " + trimmed);
+                }
+            }
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " ids may be requested at once");
+        }
+        return ids;
+    }
+}
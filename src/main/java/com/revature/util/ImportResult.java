@@ -0,0 +1,111 @@
+package com.revature.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ImportResult class summarizes a bulk import run. It records how many rows were read, how many were written and how many were rejected, the time the run took, and the error reported for every rejected row, so that a single bad row never hides the outcome of the rest of the load.
+ */
+public class ImportResult {
+
+    // fields
+
+    /** The number of rows read from the input. */
+    private int totalRows;
+    /** The number of rows that were written to the database. */
+    private int importedRows;
+    /** The wall-clock duration of the import in milliseconds. */
+    private long elapsedMillis;
+    /** The errors for the rows that were rejected, in input order. */
+    private List<RowError> errors = new ArrayList<>();
+
+    // constructors
+    public ImportResult() {
+    }
+
+    // getters and setters
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(int importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public int getFailedRows() {
+        return errors.size();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Computes the throughput of the import.
+     *
+     * @return the number of rows read per second, or the row count itself if the import finished in under a millisecond
+     */
+    public double getRowsPerSecond() {
+        if (elapsedMillis == 0) {
+            return totalRows;
+        }
+        return totalRows * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param row the 1-based position of the row in the input
+     * @param message a description of why the row was rejected
+     */
+    public void addError(int row, String message) {
+        errors.add(new RowError(row, message));
+    }
+
+    /**
+     * The RowError class pairs a rejected input row with the reason it was rejected.
+     */
+    public static class RowError {
+
+        /** The 1-based position of the row in the input. */
+        private int row;
+        /** A description of why the row was rejected. */
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.revature.util;
 import com.revature.controller.RecipeController;
 
+import java.util.EnumSet;
+import java.util.concurrent.Executors;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
 import io.javalin.Javalin;
+import jakarta.servlet.DispatcherType;
 
 import com.revature.controller.AuthenticationController;
+import com.revature.controller.BatchController;
+import com.revature.controller.ChangeController;
 import com.revature.controller.IngredientController;
+import com.revature.service.AuthenticationService;
 
 
 /**
@@ -14,11 +25,17 @@ import com.revature.controller.IngredientController;
  * such as recipes, authentication, and ingredients. It provides a method 
  * to create and configure the Javalin app instance, including defining 
  * the routes for each controller and applying any necessary middleware, 
- * such as admin middleware.
+ * such as rate limiting, admission control and admin middleware.
  */
 
 public class JavalinAppUtil {
 
+    /**
+     * The default size of Jetty's platform thread pool.
+     */
+
+    public static final int DEFAULT_MAX_THREADS = 250;
+
     /**
      * The RecipeController for handling recipe-related routes.
      */
@@ -37,6 +54,24 @@ public class JavalinAppUtil {
 
     private IngredientController ingredientController;
 
+    /**
+     * The ChangeController for handling the change feed route; optional.
+     */
+
+    private ChangeController changeController;
+
+    /**
+     * The BatchController for handling the batch route; optional.
+     */
+
+    private BatchController batchController;
+
+    /**
+     * The bulkheads that run the controllers' handlers.
+     */
+
+    private Bulkheads bulkheads;
+
     /**
      * Constructs a JavalinAppUtil with the specified controllers.
      *
@@ -46,20 +81,91 @@ public class JavalinAppUtil {
      */
 
     public JavalinAppUtil(RecipeController recipeController, AuthenticationController authController, IngredientController ingredientController) {
+        this(recipeController, authController, ingredientController, null);
+    }
+
+    /**
+     * Constructs a JavalinAppUtil with the specified controllers, including the change feed.
+     *
+     * @param recipeController the controller for handling recipe operations
+     * @param authController the controller for handling authentication operations
+     * @param ingredientController the controller for handling ingredient operations
+     * @param changeController the controller for handling the change feed, or null to leave it out
+     */
+
+    public JavalinAppUtil(RecipeController recipeController, AuthenticationController authController, IngredientController ingredientController, ChangeController changeController) {
+        this(recipeController, authController, ingredientController, changeController, Bulkheads.inline());
+    }
+
+    /**
+     * Constructs a JavalinAppUtil with the specified controllers and the bulkheads that run their handlers.
+     *
+     * @param recipeController the controller for handling recipe operations
+     * @param authController the controller for handling authentication operations
+     * @param ingredientController the controller for handling ingredient operations
+     * @param changeController the controller for handling the change feed, or null to leave it out
+     * @param bulkheads the bulkheads that run the handlers
+     */
+
+    public JavalinAppUtil(RecipeController recipeController, AuthenticationController authController, IngredientController ingredientController, ChangeController changeController, Bulkheads bulkheads) {
+        this(recipeController, authController, ingredientController, changeController, null, bulkheads);
+    }
+
+    /**
+     * Constructs a JavalinAppUtil with the specified controllers, including batches, and the bulkheads that run their handlers.
+     *
+     * @param recipeController the controller for handling recipe operations
+     * @param authController the controller for handling authentication operations
+     * @param ingredientController the controller for handling ingredient operations
+     * @param changeController the controller for handling the change feed, or null to leave it out
+     * @param batchController the controller for handling batches, or null to leave them out
+     * @param bulkheads the bulkheads that run the handlers
+     */
+
+    public JavalinAppUtil(RecipeController recipeController, AuthenticationController authController, IngredientController ingredientController, ChangeController changeController, BatchController batchController, Bulkheads bulkheads) {
         this.recipeController = recipeController;
         this.authenticationController = authController;
         this.ingredientController = ingredientController;
+        this.changeController = changeController;
+        this.batchController = batchController;
+        this.bulkheads = bulkheads;
     }
 
     /**
      * Creates a Javalin instance, configures the routes for all controllers, 
      * and applies any necessary middleware, including admin middleware.
+     * Requests are handled on a pool of platform threads.
      *
      * @return the configured Javalin instance
      */
 	
     public Javalin getApp() {
+        return getApp(false, DEFAULT_MAX_THREADS);
+    }
+
+    /**
+     * Creates a Javalin instance like getApp, choosing how requests are handled.
+     *
+     * In virtual thread mode, Jetty keeps a small pool of platform threads for accepting connections and reading requests, and runs every handler on its own virtual thread, so a handler blocked on JDBC costs a few kilobytes instead of a pooled thread; the number of concurrent requests is then bounded by the rate limiter, admission control and bulkheads rather than by the pool. In platform thread mode, handlers run on the pool itself.
+     *
+     * @param virtualThreads whether to run handlers on virtual threads
+     * @param maxThreads the size of Jetty's platform thread pool
+     * @return the configured Javalin instance
+     */
+
+    public Javalin getApp(boolean virtualThreads, int maxThreads) {
         Javalin app = Javalin.create(config -> {
+            config.jetty.server(() -> {
+                QueuedThreadPool threadPool = new QueuedThreadPool(maxThreads, Math.min(8, maxThreads), 60_000);
+                threadPool.setName(virtualThreads ? "jetty-carrier" : "jetty");
+                if (virtualThreads) {
+                    threadPool.setVirtualThreadsExecutor(Executors.newVirtualThreadPerTaskExecutor());
+                }
+                return new Server(threadPool);
+            });
+            // Count the statements each request runs; the filter binds the statistics to the request thread only while it dispatches the request
+            config.jetty.contextHandlerConfig(handler -> handler.addFilter(new FilterHolder(QueryStats::collect), "/*",
+                    EnumSet.of(DispatcherType.REQUEST)));
             config.plugins.enableCors(cors -> {
                 cors.add(it -> {
                     it.anyHost();
@@ -69,14 +175,42 @@ public class JavalinAppUtil {
 
             
         });
+        // Warn about statements a request repeats often enough to suggest an N+1 query
+        app.after(QueryStats::endRequest);
+
+        // Limit request rates per client before any other work is done; logins are limited per address so that a stolen or invented token cannot reset the budget, and other routes per chef once the caller's token is validated
+        AuthenticationService authService = authenticationController.getAuthService();
+        RateLimiter authLimiter = new RateLimiter("authentication", 5, 20);
+        app.before("/login", authLimiter);
+        app.before("/register", authLimiter);
+        RateLimiter recipeLimiter = new RateLimiter("recipe", 100, 200, authService);
+        app.before("/recipes", recipeLimiter);
+        app.before("/recipes/*", recipeLimiter);
+        RateLimiter ingredientLimiter = new RateLimiter("ingredient", 100, 200, authService);
+        app.before("/ingredients", ingredientLimiter);
+        app.before("/ingredients/*", ingredientLimiter);
+        app.before("/batch", new RateLimiter("batch", 10, 20, authService));
+
+        // Shed database work early when connections run short; logins and bulk transfers are bounded by their own bulkheads, and the change stream holds no connection, so they are left out
+        AdmissionController admission = new AdmissionController("/recipes/import", "/ingredients/bulk");
+        for (String path : new String[] {"/recipes", "/recipes/*", "/ingredients", "/ingredients/*", "/changes", "/batch"}) {
+            app.before(path, admission);
+            app.after(path, admission::release);
+        }
 
         // Configure routes for each controller
-        recipeController.configureRoutes(app);
-        authenticationController.configureRoutes(app);
-        ingredientController.configureRoutes(app);
-
-        app.before("/recipes/*", new AdminMiddleware("DELETE"));
-        app.before("/ingredients/*", new AdminMiddleware("UPDATE", "CREATE", "DELETE"));
+        recipeController.configureRoutes(app, bulkheads);
+        authenticationController.configureRoutes(app, bulkheads);
+        ingredientController.configureRoutes(app, bulkheads);
+        if (changeController != null) {
+            changeController.configureRoutes(app, bulkheads);
+        }
+        if (batchController != null) {
+            batchController.configureRoutes(app, bulkheads);
+        }
+
+        app.before("/recipes/*", new AdminMiddleware(authService, "DELETE"));
+        app.before("/ingredients/*", new AdminMiddleware(authService, "UPDATE", "CREATE", "DELETE"));
 
         return app;
     }
@@ -0,0 +1,174 @@
+package com.revature.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * The PasswordHasher class hashes and verifies passwords with salted PBKDF2 (HMAC-SHA256) from the JDK. The work factor, an iteration count, is configurable and stored with every hash, so it can be raised at any time: hashes made with an older count still verify, and needsRehash tells the caller to replace them after the next successful login.
+ *
+ * Hashing is deliberately slow, so the async methods run it on a dedicated pool with a bounded queue rather than on the request threads. When the queue is full, the returned future fails with a RejectedExecutionException instead of letting logins queue up without limit; other endpoints keep their threads either way.
+ *
+ * Passwords stored before hashing was introduced are recognized as legacy values: they are compared in constant time and always need a rehash.
+ */
+public class PasswordHasher {
+
+    /** The default number of PBKDF2 iterations. */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    /** The prefix that marks a stored value as a PBKDF2 hash. */
+    private static final String PREFIX = "pbkdf2-sha256$";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final int SALT_BYTES = 16;
+
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** The hasher shared by services that are not given one explicitly. */
+    private static final PasswordHasher DEFAULT = new PasswordHasher(DEFAULT_ITERATIONS, Runtime.getRuntime().availableProcessors(), 256);
+
+    /** The number of PBKDF2 iterations used for new hashes. */
+    private int iterations;
+
+    /** The pool that runs the async hashing. */
+    private ExecutorService executor;
+
+    /**
+     * Constructs a PasswordHasher.
+     *
+     * @param iterations the number of PBKDF2 iterations used for new hashes
+     * @param threads the number of threads that hash concurrently
+     * @param queueCapacity the number of hashing jobs that may wait for a thread before new ones are rejected
+     */
+    public PasswordHasher(int iterations, int threads, int queueCapacity) {
+        this.iterations = iterations;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Retrieves the hasher shared by services that are not given one explicitly.
+     *
+     * @return the default password hasher
+     */
+    public static PasswordHasher getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Hashes a password with a new random salt.
+     *
+     * @param password the password
+     * @return the encoded hash, holding the iteration count, salt and hash
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against a stored value.
+     *
+     * @param password the password given at login
+     * @param stored the stored hash, or a legacy plaintext password
+     * @return true if the password matches
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, salt, Integer.parseInt(parts[0])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether a stored value should be replaced by a new hash, because it is a legacy plaintext password or was made with a different iteration count.
+     *
+     * @param stored the stored value
+     * @return true if the value should be rehashed
+     */
+    public boolean needsRehash(String stored) {
+        return stored == null || !stored.startsWith(PREFIX + iterations + "$");
+    }
+
+    /**
+     * Hashes a password on the hashing pool.
+     *
+     * @param password the password
+     * @return a future of the encoded hash, failed with a RejectedExecutionException if the pool is saturated
+     */
+    public CompletableFuture<String> hashAsync(String password) {
+        return submit(() -> hash(password));
+    }
+
+    /**
+     * Checks a password against a stored value on the hashing pool.
+     *
+     * @param password the password given at login
+     * @param stored the stored hash, or a legacy plaintext password
+     * @return a future of the result, failed with a RejectedExecutionException if the pool is saturated
+     */
+    public CompletableFuture<Boolean> verifyAsync(String password, String stored) {
+        return submit(() -> verify(password, stored));
+    }
+
+    /**
+     * Runs a task on the hashing pool; a rejection fails the returned future rather than being thrown to the caller.
+     *
+     * @param task the task
+     * @return a future of the task's result
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
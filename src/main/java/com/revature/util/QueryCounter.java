@@ -0,0 +1,95 @@
+package com.revature.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * The QueryCounter class wraps JDBC connections so that every statement they execute, and every row read from its results, is recorded into the QueryStats being collected on the executing thread.
+ *
+ * The wrappers are dynamic proxies that pass every call through to the driver's objects; they only time the execute methods and count the rows returned by next. When no statistics are being collected, statements still pass through the proxies but nothing is recorded.
+ */
+public final class QueryCounter {
+
+    /** The SQL text recorded for a batch of statements added with Statement.addBatch. */
+    private static final String BATCH = "BATCH";
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Wraps a connection so that the statements it creates record into the current QueryStats.
+     *
+     * @param connection the connection from the driver or pool
+     * @return the wrapped connection, or null if the connection is null
+     */
+    public static Connection wrap(Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                // prepareStatement and prepareCall carry their SQL text; createStatement passes it to each execute call
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return wrapStatement(statement, method.getReturnType(), sql);
+            }
+            return result;
+        });
+    }
+
+    private static Object wrapStatement(Statement statement, Class<?> type, String preparedSql) {
+        return proxy(type, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                Object result = invoke(statement, method, args);
+                return method.getName().equals("getResultSet") ? wrapResultSet((ResultSet) result) : result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : BATCH;
+            long start = System.nanoTime();
+            try {
+                Object result = invoke(statement, method, args);
+                return result instanceof ResultSet resultSet ? wrapResultSet(resultSet) : result;
+            } finally {
+                QueryStats stats = QueryStats.current();
+                if (stats != null) {
+                    stats.recordStatement(sql, System.nanoTime() - start);
+                }
+            }
+        });
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet) {
+        QueryStats stats = QueryStats.current();
+        if (resultSet == null || stats == null) {
+            return resultSet;
+        }
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                stats.recordRow();
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(QueryCounter.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    /**
+     * Calls a method on the driver's object, rethrowing its exceptions as they were thrown.
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
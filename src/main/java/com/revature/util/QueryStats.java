@@ -0,0 +1,279 @@
+package com.revature.util;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.javalin.http.Context;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+/**
+ * The QueryStats class counts the SQL statements one unit of work runs, usually one request: how many statements ran, how many rows they returned and how long they took, how often each statement shape ran, and the longest it waited for a pooled connection. A statement's shape is its SQL text with literals and parameter lists collapsed, so the same query for different ids has one shape.
+ *
+ * The statistics being collected are bound to the current thread, only for as long as that thread works on the request, and connections from ConnectionUtil record every statement they execute into them. Bulkheads and the AsyncExecutor carry the binding over to the threads they run tasks on, so a request's statements are counted wherever its handler runs. When a request finishes, a warning is logged for every shape it ran more than the threshold number of times, which is how an N+1 query usually shows itself. The threshold can be set with the db.repeatedStatementWarning system property.
+ */
+public class QueryStats {
+
+    /** The default number of times one statement shape may run in a request before a warning is logged. */
+    public static final int DEFAULT_REPEAT_THRESHOLD = 10;
+
+    /** The name of the request attribute holding a request's statistics. */
+    public static final String ATTRIBUTE = "queryStats";
+
+    private static final int REPEAT_THRESHOLD = Integer.getInteger("db.repeatedStatementWarning", DEFAULT_REPEAT_THRESHOLD);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryStats.class);
+
+    /** The statistics being collected on each thread, if any. */
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern LISTS = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private LongAdder statements = new LongAdder();
+
+    private LongAdder rows = new LongAdder();
+
+    private LongAdder nanos = new LongAdder();
+
+    /** The longest wait for a pooled connection, in nanoseconds. */
+    private LongAccumulator connectionWait = new LongAccumulator(Long::max, 0);
+
+    /** The number of times each statement shape ran; parts of a composite request record from several threads at once. */
+    private Map<String, LongAdder> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * Starts collecting statistics on the current thread, replacing any being collected there.
+     *
+     * @return the new statistics
+     */
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stops collecting the specified statistics on the current thread. Statistics that are not the current thread's are left alone.
+     *
+     * @param stats the statistics started with begin
+     */
+    public static void end(QueryStats stats) {
+        if (CURRENT.get() == stats) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Retrieves the statistics being collected on the current thread.
+     *
+     * @return the statistics, or null if none are being collected
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Collects statistics for a request while the server dispatches it. New statistics are bound to the request thread and stored in the request's ATTRIBUTE attribute, and are unbound from the request thread when the dispatch returns. For handlers that run on a bulkhead or complete asynchronously, the dispatch returns before the request finishes, and the statistics follow the handler through propagate. Registered as a servlet filter on every path.
+     *
+     * @param request the servlet request
+     * @param response the servlet response
+     * @param chain the rest of the filter chain, ending in the Javalin servlet
+     * @throws IOException if the chain fails to handle the request
+     * @throws ServletException if the chain fails to handle the request
+     */
+    public static void collect(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        QueryStats stats = begin();
+        request.setAttribute(ATTRIBUTE, stats);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            end(stats);
+        }
+    }
+
+    /**
+     * Warns about statement shapes a request repeated more than the threshold number of times. Used as an after handler for every path; it may run on whichever thread completed the request, so it does not touch any thread's binding.
+     *
+     * @param ctx the Javalin context of the request
+     */
+    public static void endRequest(Context ctx) {
+        QueryStats stats = ctx.attribute(ATTRIBUTE);
+        if (stats == null) {
+            return;
+        }
+        stats.getRepeatedShapes(REPEAT_THRESHOLD).forEach((shape, count) -> LOGGER.warn(
+                "{} {} ran the same statement {} times, which may be an N+1 query: {}", ctx.method(), ctx.path(), count, shape));
+    }
+
+    /**
+     * Wraps a task so that it records into the statistics being collected on the current thread, whichever thread it later runs on.
+     *
+     * @param task the task
+     * @return the wrapped task, or the task itself if no statistics are being collected
+     */
+    public static Runnable propagate(Runnable task) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            QueryStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps a task that returns a value so that it records into the statistics being collected on the current thread, whichever thread it later runs on.
+     *
+     * @param task the task
+     * @return the wrapped task, or the task itself if no statistics are being collected
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            QueryStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(QueryStats previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Reduces a statement to its shape: literals and lists of parameters become a single ?, and runs of whitespace a single space.
+     *
+     * @param sql the SQL text of the statement
+     * @return the shape of the statement
+     */
+    public static String shape(String sql) {
+        String shape = LITERALS.matcher(sql).replaceAll("?");
+        shape = LISTS.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * Records a statement that ran.
+     *
+     * @param sql the SQL text of the statement
+     * @param elapsedNanos the time it took to execute, in nanoseconds
+     */
+    public void recordStatement(String sql, long elapsedNanos) {
+        statements.increment();
+        nanos.add(elapsedNanos);
+        shapes.computeIfAbsent(shape(sql), key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a wait for a connection from the pool.
+     *
+     * @param waitNanos the time getConnection took, in nanoseconds
+     */
+    public void recordConnectionWait(long waitNanos) {
+        connectionWait.accumulate(waitNanos);
+    }
+
+    /**
+     * Records a row read from a statement's result.
+     */
+    public void recordRow() {
+        rows.increment();
+    }
+
+    /**
+     * Retrieves the number of statements that ran.
+     *
+     * @return the statement count
+     */
+    public long getStatementCount() {
+        return statements.sum();
+    }
+
+    /**
+     * Retrieves the number of rows read from the statements' results.
+     *
+     * @return the row count
+     */
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    /**
+     * Retrieves the time spent executing statements. Time spent reading their results is not included.
+     *
+     * @return the total execution time, in milliseconds
+     */
+    public double getElapsedMillis() {
+        return nanos.sum() / 1e6;
+    }
+
+    /**
+     * Retrieves the longest time spent waiting for a connection from the pool.
+     *
+     * @return the longest connection wait, in nanoseconds, or 0 if no connection was taken
+     */
+    public long getLongestConnectionWaitNanos() {
+        return connectionWait.get();
+    }
+
+    /**
+     * Retrieves the number of times each statement shape ran.
+     *
+     * @return the counts by shape, sorted by shape
+     */
+    public Map<String, Long> getShapeCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        shapes.forEach((shape, count) -> counts.put(shape, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Retrieves the statement shapes that ran more than the specified number of times.
+     *
+     * @param threshold the number of times a shape may run
+     * @return the counts of the shapes over the threshold, sorted by shape
+     */
+    public Map<String, Long> getRepeatedShapes(int threshold) {
+        Map<String, Long> counts = getShapeCounts();
+        counts.values().removeIf(count -> count <= threshold);
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStats [statements=" + getStatementCount() + ", rows=" + getRowCount() + ", elapsedMillis="
+                + getElapsedMillis() + ", longestConnectionWaitNanos=" + getLongestConnectionWaitNanos() + ", shapes=" + getShapeCounts() + "]";
+    }
+}
@@ -0,0 +1,171 @@
+package com.revature.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.revature.model.Chef;
+import com.revature.service.AuthenticationService;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.TooManyRequestsResponse;
+
+/**
+ * The RateLimiter class is a before handler that limits how fast each client may call a group of routes, so that one client cannot saturate the database with searches or brute-force logins.
+ *
+ * Every client has a token bucket holding up to a burst of requests and refilled at a steady rate. A bucket is kept as a single number, the time at which it will be full again, and is updated with one compare-and-set, so checks never lock. Clients are identified by the chef their Authorization header belongs to when the limiter is given an AuthenticationService and the token is valid, and by IP address otherwise; an unvalidated header is never used as a key, since a client could send a new value with every request to get a new bucket each time.
+ *
+ * The table of buckets is bounded. When it grows past its bound, buckets that have refilled completely are dropped first, since a new bucket behaves the same; if that is not enough, arbitrary buckets are dropped. A rejected request gets a 429 Too Many Requests response with a Retry-After header.
+ */
+public class RateLimiter implements Handler {
+
+    /** The default bound on the number of clients tracked. */
+    public static final int DEFAULT_MAX_CLIENTS = 100_000;
+
+    /** The name of the route group, used in the rejection message. */
+    private String group;
+
+    /** The time it takes to refill one request, in nanoseconds. */
+    private long intervalNanos;
+
+    /** The time it takes to refill a whole burst, in nanoseconds. */
+    private long burstNanos;
+
+    /** The service that validates Authorization headers, or null to identify clients by address only. */
+    private AuthenticationService authService;
+
+    /** The bound on the number of clients tracked. */
+    private int maxClients;
+
+    /** The buckets, indexed by client key; each holds the time at which the bucket is full again. */
+    private Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /** Whether a thread is currently evicting buckets. */
+    private AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * Constructs a RateLimiter for a group of routes that identifies clients by address, as login routes should so that attempts are limited per address.
+     *
+     * @param group the name of the route group
+     * @param permitsPerSecond the steady number of requests per second allowed per client
+     * @param burst the number of requests a client may make at once after being idle
+     */
+    public RateLimiter(String group, double permitsPerSecond, int burst) {
+        this(group, permitsPerSecond, burst, null);
+    }
+
+    /**
+     * Constructs a RateLimiter for a group of routes.
+     *
+     * @param group the name of the route group
+     * @param permitsPerSecond the steady number of requests per second allowed per client
+     * @param burst the number of requests a client may make at once after being idle
+     * @param authService the service used to identify clients by their validated Authorization header, or null to identify them by address only
+     */
+    public RateLimiter(String group, double permitsPerSecond, int burst, AuthenticationService authService) {
+        this(group, permitsPerSecond, burst, authService, DEFAULT_MAX_CLIENTS);
+    }
+
+    /**
+     * Constructs a RateLimiter for a group of routes with a bound on the number of clients tracked.
+     *
+     * @param group the name of the route group
+     * @param permitsPerSecond the steady number of requests per second allowed per client
+     * @param burst the number of requests a client may make at once after being idle
+     * @param authService the service used to identify clients by their validated Authorization header, or null to identify them by address only
+     * @param maxClients the bound on the number of clients tracked
+     */
+    public RateLimiter(String group, double permitsPerSecond, int burst, AuthenticationService authService, int maxClients) {
+        this.group = group;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        this.authService = authService;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Takes a request from the caller's bucket, or rejects the request if the bucket is empty.
+     *
+     * @param ctx the Javalin context representing the HTTP request and response
+     */
+    @Override
+    public void handle(Context ctx) {
+        long waitNanos = tryAcquire(clientKey(ctx), System.nanoTime());
+        if (waitNanos > 0) {
+            ctx.header("Retry-After", String.valueOf((waitNanos + 999_999_999L) / 1_000_000_000L));
+            throw new TooManyRequestsResponse("Too many " + group + " requests");
+        }
+    }
+
+    /**
+     * Identifies the client making a request: by the chef its Authorization header belongs to if the header holds a valid token, and by IP address otherwise.
+     *
+     * @param ctx the Javalin context representing the HTTP request
+     * @return the client key
+     */
+    private String clientKey(Context ctx) {
+        String token = authService != null ? ctx.header("Authorization") : null;
+        Chef chef = token != null ? authService.getChefFromSessionToken(token) : null;
+        return chef != null ? "chef:" + chef.getId() : "ip:" + ctx.ip();
+    }
+
+    /**
+     * Takes a request from a client's bucket.
+     *
+     * @param key the client key
+     * @param now the current time from System.nanoTime
+     * @return 0 if the request is allowed; otherwise the time until it would be, in nanoseconds
+     */
+    long tryAcquire(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now - burstNanos));
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now - burstNanos) + intervalNanos;
+            if (next > now) {
+                return next - now;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of clients tracked.
+     *
+     * @return the number of buckets
+     */
+    public int getTrackedClients() {
+        return buckets.size();
+    }
+
+    /**
+     * Shrinks the bucket table below its bound, dropping full buckets first. Only one thread evicts at a time; others go on without waiting.
+     *
+     * @param now the current time from System.nanoTime
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maxClients - Math.max(1, maxClients / 10);
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+            for (Iterator<String> keys = buckets.keySet().iterator(); buckets.size() > target && keys.hasNext();) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
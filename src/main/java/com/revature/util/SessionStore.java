@@ -0,0 +1,510 @@
+package com.revature.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.revature.dao.SessionDAO;
+import com.revature.model.Chef;
+import com.revature.model.ChefSession;
+
+/**
+ * The SessionStore class keeps the sessions of logged in chefs, indexed by the SHA-256 hash of their session token. It is safe for concurrent logins, lookups and logouts.
+ *
+ * A session expires when it has been idle for longer than the idle timeout or has existed for longer than the absolute timeout, whichever comes first. Expired sessions are never returned by a lookup, and they are removed from memory by a hashed timing wheel: every session is filed in the wheel slot of its deadline, and a background tick only visits the slot that is due, so the cost of expiry does not grow with the number of sessions. A lookup only refreshes the session's last access time; when the wheel reaches a session that was used since it was filed, the session is simply filed again at its new deadline.
+ *
+ * The number of live sessions is bounded. Once the bound is reached, new sessions are refused until existing ones expire or are removed. Counters for created, expired, removed and refused sessions are kept for monitoring.
+ *
+ * Given a SessionDAO, the store also persists its sessions so that they survive a restart. Writes are buffered and flushed in batches on every tick, off the request threads; a session's last access time is only rewritten once a quarter of the idle timeout has passed, so busy sessions do not cause a write per request. After a restart, restore loads the persisted sessions back in one query. A crash loses at most the last tick of writes, which only means some users log in again.
+ *
+ * The store runs its ticks on a background thread of its own, which close shuts down after a final flush.
+ *
+ * The tokens themselves are only ever held by the clients. Sessions are kept and persisted under the hash of their token, and every lookup hashes the token it is given, so that a leaked copy of the CHEF_SESSION table cannot be replayed as bearer tokens.
+ */
+public class SessionStore implements AutoCloseable {
+
+    /** The default idle timeout, in milliseconds. */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    /** The default absolute timeout, in milliseconds. */
+    public static final long DEFAULT_ABSOLUTE_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(12);
+
+    /** The default maximum number of live sessions. */
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+
+    /** The default duration of one tick of the timing wheel, in milliseconds. */
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    /** The number of slots in the timing wheel. Deadlines further away than one revolution wait in their slot for later revolutions. */
+    private static final int WHEEL_SLOTS = 512;
+
+    /** The store shared by services that are not given one explicitly. */
+    private static final SessionStore DEFAULT = new SessionStore();
+
+    /** The source of session tokens. */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** The live sessions, indexed by the hash of their token. */
+    private ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /** The slots of the timing wheel. */
+    private Set<Session>[] wheel;
+
+    /** Runs the ticks of the wheel and the flushes; shut down by close. */
+    private ScheduledExecutorService ticker;
+
+    /** The number of the tick the wheel will process next. */
+    private volatile long currentTick;
+
+    private long idleTimeoutMillis;
+    private long absoluteTimeoutMillis;
+    private int maxSessions;
+    private long tickMillis;
+
+    /** The number of live sessions, including ones being created; used to enforce the bound without locking. */
+    private AtomicInteger liveSessions = new AtomicInteger();
+    private AtomicInteger peakSessions = new AtomicInteger();
+    private AtomicLong createdSessions = new AtomicLong();
+    private AtomicLong expiredSessions = new AtomicLong();
+    private AtomicLong removedSessions = new AtomicLong();
+    private AtomicLong rejectedSessions = new AtomicLong();
+
+    /** The data access object sessions are persisted with, or null if they are kept in memory only. */
+    private SessionDAO sessionDAO;
+
+    /** Sessions to be written by the next flush; a session may be queued more than once. */
+    private ConcurrentLinkedQueue<Session> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    /** Token hashes of sessions to be deleted by the next flush. */
+    private ConcurrentLinkedQueue<String> pendingDeletes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs a SessionStore with the default timeouts and bound.
+     */
+    public SessionStore() {
+        this(DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_ABSOLUTE_TIMEOUT_MILLIS, DEFAULT_MAX_SESSIONS, DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Constructs a SessionStore with the default timeouts and bound that persists its sessions.
+     *
+     * @param sessionDAO the data access object sessions are persisted with
+     */
+    public SessionStore(SessionDAO sessionDAO) {
+        this(DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_ABSOLUTE_TIMEOUT_MILLIS, DEFAULT_MAX_SESSIONS, DEFAULT_TICK_MILLIS, sessionDAO);
+    }
+
+    /**
+     * Constructs a SessionStore with the specified timeouts and bound.
+     *
+     * @param idleTimeoutMillis how long a session may go unused before it expires, in milliseconds
+     * @param absoluteTimeoutMillis how long a session may exist before it expires regardless of use, in milliseconds
+     * @param maxSessions the maximum number of live sessions
+     * @param tickMillis the duration of one tick of the timing wheel, which bounds how late expired sessions are freed, in milliseconds
+     */
+    public SessionStore(long idleTimeoutMillis, long absoluteTimeoutMillis, int maxSessions, long tickMillis) {
+        this(idleTimeoutMillis, absoluteTimeoutMillis, maxSessions, tickMillis, null);
+    }
+
+    /**
+     * Constructs a SessionStore with the specified timeouts and bound that persists its sessions if given a SessionDAO.
+     *
+     * @param idleTimeoutMillis how long a session may go unused before it expires, in milliseconds
+     * @param absoluteTimeoutMillis how long a session may exist before it expires regardless of use, in milliseconds
+     * @param maxSessions the maximum number of live sessions
+     * @param tickMillis the duration of one tick of the timing wheel, which also paces the flushes of persisted sessions, in milliseconds
+     * @param sessionDAO the data access object sessions are persisted with, or null to keep them in memory only
+     */
+    @SuppressWarnings("unchecked")
+    public SessionStore(long idleTimeoutMillis, long absoluteTimeoutMillis, int maxSessions, long tickMillis, SessionDAO sessionDAO) {
+        this.sessionDAO = sessionDAO;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.absoluteTimeoutMillis = absoluteTimeoutMillis;
+        this.maxSessions = maxSessions;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.wheel = new Set[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.currentTick = System.currentTimeMillis() / this.tickMillis;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> {
+            advance();
+            flush();
+        }, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retrieves the store shared by services that are not given one explicitly.
+     *
+     * @return the default session store
+     */
+    public static SessionStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a session for a chef under a new random token.
+     *
+     * @param chef the logged in chef
+     * @return the new session's token
+     * @throws IllegalStateException if the store already holds the maximum number of sessions
+     */
+    public String create(Chef chef) {
+        int live = liveSessions.incrementAndGet();
+        if (live > maxSessions) {
+            liveSessions.decrementAndGet();
+            rejectedSessions.incrementAndGet();
+            throw new IllegalStateException("Too many active sessions");
+        }
+        peakSessions.accumulateAndGet(live, Math::max);
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(hash(token), chef, System.currentTimeMillis());
+        sessions.put(session.tokenHash, session);
+        createdSessions.incrementAndGet();
+        schedule(session);
+        persist(session);
+        return token;
+    }
+
+    /**
+     * Looks up a live session and refreshes its last access time.
+     *
+     * @param token the session token
+     * @return the session, or null if the token is unknown or its session has expired
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(hash(token));
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (session.deadline() <= now) {
+            expire(session);
+            return null;
+        }
+        session.lastAccessed = now;
+        if (sessionDAO != null && now - session.persistedAccess > idleTimeoutMillis / 4) {
+            session.persistedAccess = now;
+            pendingWrites.add(session);
+        }
+        return session;
+    }
+
+    /**
+     * Removes a session, as on logout.
+     *
+     * @param token the session token
+     * @return true if a live session was removed
+     */
+    public boolean remove(String token) {
+        Session session = token != null ? sessions.remove(hash(token)) : null;
+        if (session == null) {
+            return false;
+        }
+        liveSessions.decrementAndGet();
+        removedSessions.incrementAndGet();
+        unpersist(session.tokenHash);
+        return true;
+    }
+
+    /**
+     * Loads the persisted sessions, as after a restart. Sessions that expired while the application was down are deleted instead of loaded, and loading stops at the bound on live sessions.
+     *
+     * @return the number of sessions restored
+     */
+    public int restore() {
+        if (sessionDAO == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        for (ChefSession persisted : sessionDAO.getAllSessions()) {
+            Session session = new Session(persisted.getTokenHash(), persisted.getChef(), persisted.getCreatedAt());
+            session.lastAccessed = persisted.getLastAccessed();
+            session.persistedAccess = persisted.getLastAccessed();
+            if (session.deadline() <= now || sessions.containsKey(session.tokenHash)) {
+                pendingDeletes.add(session.tokenHash);
+                continue;
+            }
+            int live = liveSessions.incrementAndGet();
+            if (live > maxSessions) {
+                liveSessions.decrementAndGet();
+                break;
+            }
+            peakSessions.accumulateAndGet(live, Math::max);
+            sessions.put(session.tokenHash, session);
+            schedule(session);
+            restored++;
+        }
+        return restored;
+    }
+
+    /**
+     * Writes the buffered session changes to the database. Called on every tick, and by close at shutdown so that no buffered change is lost.
+     */
+    public synchronized void flush() {
+        if (sessionDAO == null) {
+            return;
+        }
+        Map<String, ChefSession> writes = new LinkedHashMap<>();
+        for (Session session; (session = pendingWrites.poll()) != null;) {
+            if (sessions.get(session.tokenHash) == session) {
+                writes.put(session.tokenHash, new ChefSession(session.tokenHash, session.chef, session.createdAt, session.persistedAccess));
+            }
+        }
+        List<String> deletes = new ArrayList<>();
+        for (String tokenHash; (tokenHash = pendingDeletes.poll()) != null;) {
+            deletes.add(tokenHash);
+        }
+        try {
+            if (!writes.isEmpty()) {
+                sessionDAO.saveSessions(writes.values());
+            }
+            if (!deletes.isEmpty()) {
+                sessionDAO.deleteSessions(deletes);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops the background ticks and writes the buffered session changes, as at shutdown. Sessions can still be looked up afterwards, but they are no longer expired by the wheel or flushed. Closing a closed store does nothing.
+     */
+    @Override
+    public void close() {
+        if (ticker.isShutdown()) {
+            return;
+        }
+        ticker.shutdown();
+        try {
+            // let a tick that is running finish, so that the final flush does not race it
+            ticker.awaitTermination(tickMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Retrieves the number of live sessions.
+     *
+     * @return the number of sessions, including expired ones the wheel has not reached yet
+     */
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Retrieves the largest number of sessions held at once.
+     *
+     * @return the peak number of sessions
+     */
+    public int getPeakSessions() {
+        return peakSessions.get();
+    }
+
+    /**
+     * Retrieves the number of sessions created.
+     *
+     * @return the number of sessions created
+     */
+    public long getCreatedSessions() {
+        return createdSessions.get();
+    }
+
+    /**
+     * Retrieves the number of sessions that expired.
+     *
+     * @return the number of sessions removed on expiry
+     */
+    public long getExpiredSessions() {
+        return expiredSessions.get();
+    }
+
+    /**
+     * Retrieves the number of sessions removed explicitly, as on logout.
+     *
+     * @return the number of sessions removed
+     */
+    public long getRemovedSessions() {
+        return removedSessions.get();
+    }
+
+    /**
+     * Retrieves the number of sessions refused because the store was full.
+     *
+     * @return the number of refused sessions
+     */
+    public long getRejectedSessions() {
+        return rejectedSessions.get();
+    }
+
+    /**
+     * Files a session in the wheel slot of its current deadline. A deadline that is already due is filed in the next tick.
+     *
+     * @param session the session to file
+     */
+    private void schedule(Session session) {
+        long tick = Math.max(session.deadline() / tickMillis, currentTick + 1);
+        session.expiryTick = tick;
+        wheel[(int) (tick % WHEEL_SLOTS)].add(session);
+    }
+
+    /**
+     * Processes every tick that is due: sessions filed for the tick are removed if they have expired, or filed again at their new deadline if they were used in the meantime. Sessions filed for a later revolution stay in the slot.
+     */
+    private void advance() {
+        long dueTick = System.currentTimeMillis() / tickMillis;
+        while (currentTick <= dueTick) {
+            long tick = currentTick;
+            long now = System.currentTimeMillis();
+            Iterator<Session> slot = wheel[(int) (tick % WHEEL_SLOTS)].iterator();
+            while (slot.hasNext()) {
+                Session session = slot.next();
+                if (session.expiryTick > tick) {
+                    continue;
+                }
+                slot.remove();
+                if (session.deadline() <= now) {
+                    expire(session);
+                } else if (sessions.get(session.tokenHash) == session) {
+                    schedule(session);
+                }
+            }
+            currentTick = tick + 1;
+        }
+    }
+
+    /**
+     * Removes an expired session, counting it once even if a lookup and the wheel race to expire it.
+     *
+     * @param session the expired session
+     */
+    private void expire(Session session) {
+        if (sessions.remove(session.tokenHash, session)) {
+            liveSessions.decrementAndGet();
+            expiredSessions.incrementAndGet();
+            unpersist(session.tokenHash);
+        }
+    }
+
+    /**
+     * Queues a session to be written by the next flush, if sessions are persisted.
+     *
+     * @param session the session to write
+     */
+    private void persist(Session session) {
+        if (sessionDAO != null) {
+            pendingWrites.add(session);
+        }
+    }
+
+    /**
+     * Queues a session to be deleted by the next flush, if sessions are persisted.
+     *
+     * @param tokenHash the token hash of the session to delete
+     */
+    private void unpersist(String tokenHash) {
+        if (sessionDAO != null) {
+            pendingDeletes.add(tokenHash);
+        }
+    }
+
+    /**
+     * Hashes a session token into the key its session is kept and persisted under.
+     *
+     * @param token the session token
+     * @return the SHA-256 hash of the token, as 64 lowercase hex digits
+     */
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A session of a logged in chef.
+     */
+    public class Session {
+        /** The hash of the session's token; the token itself is not kept. */
+        private final String tokenHash;
+        private final Chef chef;
+        /** The chef's admin flag as of login, so that authorization checks need no lookup. */
+        private final boolean admin;
+        private final long createdAt;
+        /** The time of the last lookup; written without locking, as a slightly stale value only delays expiry. */
+        private volatile long lastAccessed;
+        /** The tick of the wheel slot the session is filed in. */
+        private volatile long expiryTick;
+        /** The last access time most recently queued for persistence. */
+        private volatile long persistedAccess;
+
+        Session(String tokenHash, Chef chef, long createdAt) {
+            this.tokenHash = tokenHash;
+            this.chef = chef;
+            this.admin = chef.isAdmin();
+            this.createdAt = createdAt;
+            this.lastAccessed = createdAt;
+            this.persistedAccess = createdAt;
+        }
+
+        public String getTokenHash() {
+            return tokenHash;
+        }
+
+        public Chef getChef() {
+            return chef;
+        }
+
+        public boolean isAdmin() {
+            return admin;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getLastAccessed() {
+            return lastAccessed;
+        }
+
+        /**
+         * Computes the time at which the session expires if it is not used again.
+         *
+         * @return the earlier of the idle and absolute deadlines, in epoch milliseconds
+         */
+        long deadline() {
+            return Math.min(lastAccessed + idleTimeoutMillis, createdAt + absoluteTimeoutMillis);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.revature.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.revature.model.Chef;
+
+/**
+ * The TokenSigner class issues and verifies stateless session tokens. A token carries the chef's id, admin flag and expiry time, and is signed with HMAC-SHA256 under a secret shared by every application node, so any node can verify it without a session lookup and clients need no sticky sessions.
+ *
+ * A token has the form payload.signature, both parts base64url encoded; the payload is chefId:admin:expiresAt:nonce. Signatures are compared in constant time. Logged out tokens are kept on a revocation list until they would have expired anyway, which keeps the list small; the list is local to the node, so a logout takes effect on other nodes only when the token expires.
+ */
+public class TokenSigner {
+
+    /** The default lifetime of a token, in milliseconds. */
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.HOURS.toMillis(12);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /** The signing key. */
+    private SecretKeySpec key;
+
+    /** The lifetime of issued tokens, in milliseconds. */
+    private long ttlMillis;
+
+    /** One Mac per thread, since Mac instances are not thread-safe. */
+    private ThreadLocal<Mac> macs;
+
+    /** The nonces of revoked tokens, with the time at which each token expires. */
+    private Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a TokenSigner with the specified secret and the default token lifetime.
+     *
+     * @param secret the signing secret shared by every node; at least 32 bytes
+     */
+    public TokenSigner(byte[] secret) {
+        this(secret, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Constructs a TokenSigner with the specified secret and token lifetime.
+     *
+     * @param secret the signing secret shared by every node; at least 32 bytes
+     * @param ttlMillis the lifetime of issued tokens, in milliseconds
+     */
+    public TokenSigner(byte[] secret, long ttlMillis) {
+        if (secret == null || secret.length < 32) {
+            throw new IllegalArgumentException("The token secret must be at least 32 bytes");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.ttlMillis = ttlMillis;
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Issues a token for a chef.
+     *
+     * @param chef the logged in chef
+     * @return the signed token
+     */
+    public String issue(Chef chef) {
+        byte[] nonce = new byte[12];
+        RANDOM.nextBytes(nonce);
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        String payload = chef.getId() + ":" + chef.isAdmin() + ":" + expiresAt + ":" + ENCODER.encodeToString(nonce);
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + ENCODER.encodeToString(sign(encoded));
+    }
+
+    /**
+     * Verifies a token.
+     *
+     * @param token the token
+     * @return the token's claims, or null if the token is malformed, wrongly signed, expired or revoked
+     */
+    public Claims verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        String encoded = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encoded))) {
+                return null;
+            }
+            String[] fields = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split(":");
+            if (fields.length != 4) {
+                return null;
+            }
+            Claims claims = new Claims(Integer.parseInt(fields[0]), Boolean.parseBoolean(fields[1]), Long.parseLong(fields[2]), fields[3]);
+            if (claims.getExpiresAt() <= System.currentTimeMillis() || revoked.containsKey(claims.getNonce())) {
+                return null;
+            }
+            return claims;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Revokes a token, as on logout. Revocations that are no longer needed because their tokens have expired are dropped at the same time.
+     *
+     * @param token the token
+     * @return true if the token was valid and is now revoked
+     */
+    public boolean revoke(String token) {
+        Claims claims = verify(token);
+        long now = System.currentTimeMillis();
+        for (Iterator<Long> expiries = revoked.values().iterator(); expiries.hasNext();) {
+            if (expiries.next() <= now) {
+                expiries.remove();
+            }
+        }
+        if (claims == null) {
+            return false;
+        }
+        revoked.put(claims.getNonce(), claims.getExpiresAt());
+        return true;
+    }
+
+    /**
+     * Retrieves the number of revoked tokens that have not expired yet.
+     *
+     * @return the size of the revocation list
+     */
+    public int getRevokedCount() {
+        return revoked.size();
+    }
+
+    private byte[] sign(String encodedPayload) {
+        return macs.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * The claims carried by a verified token.
+     */
+    public static class Claims {
+        private final int chefId;
+        private final boolean admin;
+        private final long expiresAt;
+        private final String nonce;
+
+        Claims(int chefId, boolean admin, long expiresAt, String nonce) {
+            this.chefId = chefId;
+            this.admin = admin;
+            this.expiresAt = expiresAt;
+            this.nonce = nonce;
+        }
+
+        public int getChefId() {
+            return chefId;
+        }
+
+        public boolean isAdmin() {
+            return admin;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public String getNonce() {
+            return nonce;
+        }
+    }
+}
@@ -7,13 +7,15 @@
 --      3. email: A unique and non-nullable varchar field to store the chef's email address.
 --      4. password: A non-nullable varchar field to store the chef's password.
 --      5. isAdmin: A boolean field to indicate if the chef has admin privileges.
+--      6. version: A non-nullable integer incremented on every update, used for optimistic concurrency.
 
 CREATE TABLE CHEF (
 	id SERIAL PRIMARY KEY,
 	username VARCHAR(50) UNIQUE NOT NULL,
 	email VARCHAR(100) UNIQUE NOT NULL,
 	password VARCHAR(255) NOT NULL,
-	is_admin BOOLEAN DEFAULT FALSE
+	is_admin BOOLEAN DEFAULT FALSE,
+	version INT DEFAULT 0 NOT NULL
 );
 
 
@@ -25,12 +27,14 @@ CREATE TABLE CHEF (
 --      2. name: A unique and non-nullable varchar field to store the recipe's name.
 --      3. instructions: A non-nullable varchar field to store the recipe's instructions.
 --      4. chef_id: A foreign key that references the 'id' field from the Chef table. Ensure that referential integrity is maintained by cascading deletions.
+--      5. version: A non-nullable integer incremented on every update, used for optimistic concurrency.
 CREATE TABLE RECIPE (
 	id SERIAL PRIMARY KEY,
 	name VARCHAR(100) UNIQUE NOT NULL,
 	instructions TEXT NOT NULL,
 	chef_id INT NOT NULL,
-	CONSTRAINT fk_recipe_chef FOREGIN KEY (chef_id)
+	version INT DEFAULT 0 NOT NULL,
+	CONSTRAINT fk_recipe_chef FOREIGN KEY (chef_id)
 		REFERENCES CHEF(id) ON DELETE CASCADE
 );
 
@@ -39,9 +43,11 @@ CREATE TABLE RECIPE (
 -- Fields:
 --      1. id: An auto-incremented primary key to uniquely identify each ingredient.
 --      2. name: A unique and non-nullable varchar field (max 20 characters) to store the ingredient's name.
+--      3. version: A non-nullable integer incremented on every update, used for optimistic concurrency.
 CREATE TABLE INGREDIENT (
 	id SERIAL PRIMARY KEY,
-	name VARCHAR(20) UNIQUE NOT NULL
+	name VARCHAR(20) UNIQUE NOT NULL,
+	version INT DEFAULT 0 NOT NULL
 );
 
 -- Recipe_Ingredient Table
@@ -67,6 +73,56 @@ CREATE TABLE RECIPE_INGREDIENT (
         REFERENCES INGREDIENT(id) ON DELETE CASCADE
 );
 
+-- Change_Log Table
+-- This table is an append-only log of every change to chefs, recipes and ingredients, used by clients to sync incrementally.
+-- Rows are written by the ChangeLogTrigger attached to each table below, in the same transaction as the change.
+-- Fields:
+-- 1. seq: A primary key giving the position of the change in the log, taken from the Change_Log_Seq counter so that it follows commit order.
+-- 2. entity_type: A non-nullable varchar field naming the changed table (CHEF, RECIPE or INGREDIENT).
+-- 3. entity_id: A non-nullable integer holding the id of the changed row.
+-- 4. operation: A non-nullable varchar field holding CREATE, UPDATE or DELETE; DELETE entries are tombstones.
+-- 5. changed_at: A timestamp recording when the change was made.
+CREATE TABLE CHANGE_LOG (
+	seq BIGINT PRIMARY KEY,
+	entity_type VARCHAR(20) NOT NULL,
+	entity_id INT NOT NULL,
+	operation VARCHAR(10) NOT NULL,
+	changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Change_Log_Seq Table
+-- This single-row table holds the last sequence number handed out to the change log. The trigger increments it inside the writing
+-- transaction, which locks the row until that transaction ends, so sequence numbers are handed out in commit order and never skipped.
+-- Fields:
+-- 1. id: A primary key; the table has only the row with id 1.
+-- 2. seq: A non-nullable bigint holding the last sequence number handed out.
+CREATE TABLE CHANGE_LOG_SEQ (
+	id INT PRIMARY KEY,
+	seq BIGINT NOT NULL
+);
+INSERT INTO CHANGE_LOG_SEQ (id, seq) VALUES (1, 0);
+
+CREATE TRIGGER CHEF_CHANGES AFTER INSERT, UPDATE, DELETE ON CHEF FOR EACH ROW CALL 'com.revature.dao.ChangeLogTrigger';
+CREATE TRIGGER RECIPE_CHANGES AFTER INSERT, UPDATE, DELETE ON RECIPE FOR EACH ROW CALL 'com.revature.dao.ChangeLogTrigger';
+CREATE TRIGGER INGREDIENT_CHANGES AFTER INSERT, UPDATE, DELETE ON INGREDIENT FOR EACH ROW CALL 'com.revature.dao.ChangeLogTrigger';
+CREATE TRIGGER RECIPE_INGREDIENT_CHANGES AFTER INSERT, UPDATE, DELETE ON RECIPE_INGREDIENT FOR EACH ROW CALL 'com.revature.dao.ChangeLogTrigger';
+
+-- Chef_Session Table
+-- This table persists the sessions of logged in chefs so that they survive a restart. It is written behind the in-memory session store.
+-- Fields:
+-- 1. token_hash: A primary key holding the SHA-256 hash of the session token as 64 hex digits; the token itself is never stored.
+-- 2. chef_id: A non-nullable foreign key that references the 'id' field from the Chef table; a chef's sessions are deleted with the chef.
+-- 3. created_at: A non-nullable epoch millisecond timestamp of the login, used for the absolute timeout.
+-- 4. last_accessed: A non-nullable epoch millisecond timestamp of the last recorded use, used for the idle timeout.
+CREATE TABLE CHEF_SESSION (
+	token_hash CHAR(64) PRIMARY KEY,
+	chef_id INT NOT NULL,
+	created_at BIGINT NOT NULL,
+	last_accessed BIGINT NOT NULL,
+	CONSTRAINT fk_session_chef FOREIGN KEY (chef_id)
+		REFERENCES CHEF(id) ON DELETE CASCADE
+);
+
 -- DO NOT EDIT ANY CODE BELOW THIS LINE!
 -- The below code inserts values into the tables you define.
 
@@ -0,0 +1,75 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.model.Chef;
+import com.revature.service.AuthenticationService;
+import com.revature.service.ChefService;
+import com.revature.util.AdminMiddleware;
+import com.revature.util.SessionStore;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.UnauthorizedResponse;
+
+public class AdminMiddlewareTest {
+    private Chef admin = new Chef(4, "ChefTrevin", "trevin@revature.com", "trevature", true);
+    private Chef chef = new Chef(1, "JoeCool", "snoopy@null.com", "redbarron", false);
+    private SessionStore sessionStore;
+    private AuthenticationService authService;
+    private AdminMiddleware middleware;
+
+    @BeforeEach
+    void setUp() {
+        ChefService chefService = mock(ChefService.class);
+        when(chefService.findChefByUsername(admin.getUsername())).thenReturn(Optional.of(admin));
+        when(chefService.findChefByUsername(chef.getUsername())).thenReturn(Optional.of(chef));
+        sessionStore = new SessionStore();
+        authService = new AuthenticationService(chefService, sessionStore);
+        middleware = new AdminMiddleware(authService, "DELETE");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionStore.close();
+    }
+
+    @Test
+    void adminCallerIsAllowedAmongOtherSessions() {
+        authService.login(chef);
+        String token = authService.login(admin);
+        authService.login(chef);
+
+        assertDoesNotThrow(() -> middleware.handle(request(HandlerType.DELETE, "Bearer " + token)));
+    }
+
+    @Test
+    void nonAdminAndAnonymousCallersAreDenied() {
+        authService.login(admin);
+        String token = authService.login(chef);
+
+        assertThrows(UnauthorizedResponse.class, () -> middleware.handle(request(HandlerType.DELETE, "Bearer " + token)));
+        assertThrows(UnauthorizedResponse.class, () -> middleware.handle(request(HandlerType.DELETE, null)));
+    }
+
+    @Test
+    void unprotectedMethodsAreNotChecked() {
+        assertDoesNotThrow(() -> middleware.handle(request(HandlerType.GET, null)));
+    }
+
+    private Context request(HandlerType method, String authorization) {
+        Context ctx = mock(Context.class);
+        when(ctx.method()).thenReturn(method);
+        when(ctx.header("Authorization")).thenReturn(authorization);
+        return ctx;
+    }
+}
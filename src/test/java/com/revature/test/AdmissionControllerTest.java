@@ -0,0 +1,122 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.AdmissionController;
+import com.revature.util.AdmissionController.Limit;
+import com.revature.util.QueryStats;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.ServiceUnavailableResponse;
+
+public class AdmissionControllerTest {
+
+    @Test
+    void excessRequestsAreRejectedUntilOneCompletes() {
+        AdmissionController admission = new AdmissionController(new Limit(2, 1, 2), new Limit(1, 1, 1));
+
+        assertTrue(admission.tryAdmit(false));
+        assertTrue(admission.tryAdmit(false));
+        assertFalse(admission.tryAdmit(false));
+        admission.complete(false, 1_000_000);
+        assertTrue(admission.tryAdmit(false));
+        assertEquals(1, admission.getRejectedCount());
+    }
+
+    @Test
+    void readsAndWritesHaveSeparateLimits() {
+        AdmissionController admission = new AdmissionController(new Limit(1, 1, 1), new Limit(1, 1, 1));
+
+        assertTrue(admission.tryAdmit(true));
+        assertFalse(admission.tryAdmit(true));
+        assertTrue(admission.tryAdmit(false));
+    }
+
+    @Test
+    void limitShrinksWhenConnectionWaitsClimbAndGrowsWhenHealthy() {
+        AdmissionController admission = new AdmissionController(new Limit(20, 2, 40), new Limit(1, 1, 1));
+        Limit reads = admission.getReads();
+
+        admission.tryAdmit(false);
+        admission.complete(false, 1_000_000);
+        admission.tryAdmit(false);
+        admission.complete(false, 50_000_000);
+        assertEquals(18, reads.getLimit());
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < reads.getLimit(); i++) {
+                admission.tryAdmit(false);
+            }
+            while (reads.getInFlight() > 0) {
+                admission.complete(false, 1_000_000);
+            }
+        }
+        assertTrue(reads.getLimit() > 18);
+    }
+
+    @Test
+    void handlerRejectsWithServiceUnavailable() {
+        AdmissionController admission = new AdmissionController(new Limit(1, 1, 1), new Limit(1, 1, 1));
+        Context ctx = mock(Context.class);
+        when(ctx.method()).thenReturn(HandlerType.GET);
+
+        admission.handle(ctx);
+        assertThrows(ServiceUnavailableResponse.class, () -> admission.handle(ctx));
+    }
+
+    @Test
+    void exemptPathsAreNotAdmitted() {
+        AdmissionController admission = new AdmissionController(new Limit(1, 1, 1), new Limit(1, 1, 1), "/recipes/import");
+        Context ctx = mock(Context.class);
+        when(ctx.method()).thenReturn(HandlerType.POST);
+        when(ctx.path()).thenReturn("/recipes/import/");
+
+        admission.handle(ctx);
+        admission.handle(ctx);
+        assertEquals(0, admission.getWrites().getInFlight());
+    }
+
+    @Test
+    void releaseRecordsConnectionWaitRatherThanLatency() throws Exception {
+        AdmissionController admission = new AdmissionController(new Limit(1, 1, 1), new Limit(10, 1, 10));
+        QueryStats stats = new QueryStats();
+        Context ctx = requestContext(HandlerType.POST, stats);
+
+        // A slow request that got its connection at once is not congestion
+        admission.handle(ctx);
+        Thread.sleep(20);
+        admission.release(ctx);
+        assertEquals(10, admission.getWrites().getLimit());
+        assertEquals(0, admission.getWrites().getInFlight());
+
+        stats.recordConnectionWait(50_000_000);
+        admission.handle(ctx);
+        admission.release(ctx);
+        assertEquals(9, admission.getWrites().getLimit());
+    }
+
+    private static Context requestContext(HandlerType method, QueryStats stats) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(QueryStats.ATTRIBUTE, stats);
+        Context ctx = mock(Context.class);
+        when(ctx.method()).thenReturn(method);
+        when(ctx.path()).thenReturn("/recipes");
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1))).when(ctx).attribute(anyString(), any());
+        when(ctx.attribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.getArgument(0)));
+        return ctx;
+    }
+}
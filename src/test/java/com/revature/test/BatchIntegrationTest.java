@@ -0,0 +1,117 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.controller.BatchController;
+import com.revature.controller.IngredientController;
+import com.revature.dao.ChefDAO;
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.service.AuthenticationService;
+import com.revature.service.IngredientService;
+import com.revature.service.RecipeService;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+
+import io.javalin.Javalin;
+import io.javalin.json.JavalinJackson;
+import io.javalin.testtools.JavalinTest;
+
+public class BatchIntegrationTest {
+    private Javalin app;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DBUtil.RUN_SQL();
+        ConnectionUtil connectionUtil = new ConnectionUtil();
+        IngredientDAO ingredientDao = new IngredientDAO(connectionUtil);
+        IngredientService ingredientService = new IngredientService(ingredientDao);
+        RecipeService recipeService = new RecipeService(new RecipeDAO(new ChefDAO(connectionUtil), ingredientDao, connectionUtil));
+        AuthenticationService authService = mock(AuthenticationService.class);
+        when(authService.isAdmin("admin-token")).thenReturn(true);
+        app = Javalin.create();
+        new IngredientController(ingredientService).configureRoutes(app);
+        new BatchController(recipeService, ingredientService, authService, connectionUtil).configureRoutes(app);
+    }
+
+    @Test
+    void testBatchSeesItsOwnWrites() {
+        JavalinTest.test(app, (server, client) -> {
+            String body = new JavalinJackson().toJsonString(List.of(
+                    new BatchController.SubRequest("GET", "/ingredients/1", null),
+                    new BatchController.SubRequest("GET", "/ingredients/100", null),
+                    new BatchController.SubRequest("POST", "/ingredients", Map.of("name", "parsnips")),
+                    new BatchController.SubRequest("GET", "/ingredients/7", null)), List.class);
+            assertEquals("[{\"status\":200,\"body\":{\"id\":1,\"name\":\"carrot\"}},"
+                    + "{\"status\":404,\"body\":\"Ingredient not found\"},"
+                    + "{\"status\":201,\"body\":{\"id\":7,\"name\":\"parsnips\"}},"
+                    + "{\"status\":200,\"body\":{\"id\":7,\"name\":\"parsnips\"}}]",
+                    client.post("/batch", body).body().string());
+        });
+    }
+
+    @Test
+    void testWritesAfterAFailedWriteAreSkipped() {
+        JavalinTest.test(app, (server, client) -> {
+            String body = new JavalinJackson().toJsonString(List.of(
+                    new BatchController.SubRequest("PUT", "/ingredients/100", Map.of("id", 100, "name", "parsnips")),
+                    new BatchController.SubRequest("POST", "/ingredients", Map.of("name", "parsnips"))), List.class);
+            assertEquals("[{\"status\":404,\"body\":\"Ingredient not found\"},{\"status\":424,\"body\":\"Skipped after an earlier write failed\"}]",
+                    client.post("/batch", body).body().string());
+            assertEquals(404, client.get("/ingredients/7").code());
+        });
+    }
+
+    @Test
+    void testEarlierWritesAreRolledBackWhenAWriteFails() {
+        JavalinTest.test(app, (server, client) -> {
+            String body = new JavalinJackson().toJsonString(List.of(
+                    new BatchController.SubRequest("POST", "/ingredients", Map.of("name", "parsnips")),
+                    new BatchController.SubRequest("GET", "/ingredients/7", null),
+                    new BatchController.SubRequest("PUT", "/ingredients/100", Map.of("id", 100, "name", "leeks"))), List.class);
+            assertEquals("[{\"status\":424,\"body\":\"Rolled back after a later write failed\"},"
+                    + "{\"status\":200,\"body\":{\"id\":7,\"name\":\"parsnips\"}},"
+                    + "{\"status\":404,\"body\":\"Ingredient not found\"}]",
+                    client.post("/batch", body).body().string());
+            assertEquals(404, client.get("/ingredients/7").code());
+        });
+    }
+
+    @Test
+    void testDeletesNeedAnAdmin() {
+        JavalinTest.test(app, (server, client) -> {
+            BatchController.SubRequest asAdmin = new BatchController.SubRequest("DELETE", "/ingredients/2", null);
+            asAdmin.setHeaders(Map.of("Authorization", "admin-token"));
+            String body = new JavalinJackson().toJsonString(List.of(
+                    new BatchController.SubRequest("DELETE", "/ingredients/1", null), asAdmin), List.class);
+            assertEquals("[{\"status\":401,\"body\":\"Access denied\"},{\"status\":424,\"body\":\"Skipped after an earlier write failed\"}]",
+                    client.post("/batch", body).body().string());
+
+            body = new JavalinJackson().toJsonString(List.of(asAdmin), List.class);
+            assertEquals("[{\"status\":204,\"body\":null}]", client.post("/batch", body).body().string());
+            assertEquals(404, client.get("/ingredients/2").code());
+            assertEquals(200, client.get("/ingredients/1").code());
+        });
+    }
+
+    @Test
+    void testInvalidBatchIsRejected() {
+        JavalinTest.test(app, (server, client) -> {
+            assertEquals(400, client.post("/batch", "{}").code());
+            assertEquals(400, client.post("/batch", "[{\"method\":\"GET\",\"path\":\"/batch\"}]").code());
+            assertEquals(400, client.post("/batch", "[{\"method\":\"GET\",\"path\":\"/ingredients\"}]").code());
+            for (String path : new String[] {"/login", "/register/", "//logout", "/./login?x=1", "/%6Cogin"}) {
+                assertEquals(400, client.post("/batch", "[{\"method\":\"POST\",\"path\":\"" + path + "\"}]").code(), path);
+            }
+        });
+    }
+}
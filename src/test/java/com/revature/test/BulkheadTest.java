@@ -0,0 +1,68 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.Bulkhead;
+
+import io.javalin.Javalin;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.ServiceUnavailableResponse;
+import io.javalin.testtools.JavalinTest;
+
+public class BulkheadTest {
+
+    @Test
+    void fullBulkheadRejectsWithoutAffectingOthers() throws Exception {
+        Bulkhead search = new Bulkhead("search", 1, 1);
+        Bulkhead crud = new Bulkhead("crud", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = search.supply(() -> release.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = search.supply(() -> true);
+        CompletableFuture<Boolean> rejected = search.supply(() -> true);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableResponse.class, error.getCause());
+        assertEquals(1, search.getRejectedCount());
+        assertEquals(1, search.getQueueDepth());
+        assertTrue(crud.supply(() -> true).get(1, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertTrue(running.get(1, TimeUnit.SECONDS));
+        assertTrue(queued.get(1, TimeUnit.SECONDS));
+        assertEquals(2, search.getCompletedCount());
+        assertTrue(search.getMaxLatencyMillis() >= search.getAverageLatencyMillis());
+    }
+
+    @Test
+    void wrappedHandlersRespondAndReportErrors() {
+        Bulkhead bulkhead = new Bulkhead("crud", 2, 4);
+        Javalin app = Javalin.create();
+        app.get("/ok", bulkhead.wrap(ctx -> ctx.status(200).json("ok")));
+        app.get("/bad", bulkhead.wrap(ctx -> {
+            throw new BadRequestResponse("bad");
+        }));
+        app.get("/async", bulkhead.wrapAsync(ctx -> CompletableFuture.runAsync(() -> ctx.status(202).json("later"))));
+
+        JavalinTest.test(app, (server, client) -> {
+            okhttp3.Response ok = client.get("/ok");
+            assertEquals(200, ok.code());
+            assertEquals("ok", ok.body().string());
+            assertEquals(400, client.get("/bad").code());
+            okhttp3.Response async = client.get("/async");
+            assertEquals(202, async.code());
+            assertEquals("later", async.body().string());
+        });
+        assertEquals(3, bulkhead.getCompletedCount());
+    }
+}
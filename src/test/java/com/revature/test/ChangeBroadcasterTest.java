@@ -0,0 +1,103 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.ChangeLogDAO;
+import com.revature.dao.IngredientDAO;
+import com.revature.model.Change;
+import com.revature.model.Ingredient;
+import com.revature.service.ChangeBroadcaster;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+
+public class ChangeBroadcasterTest {
+    private ChangeLogDAO changeLogDao;
+    private IngredientDAO ingredientDao;
+    private BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private ChangeBroadcaster.ChangeSink sink = new ChangeBroadcaster.ChangeSink() {
+        @Override
+        public void send(Change change) {
+            events.add(change.getSeq() + " " + change.getEntityType() + " " + change.getEntityId() + " " + change.getOperation());
+        }
+
+        @Override
+        public void reset(long since) {
+            events.add("reset " + since);
+        }
+    };
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DBUtil.RUN_SQL();
+        ConnectionUtil connectionUtil = new ConnectionUtil();
+        changeLogDao = new ChangeLogDAO(connectionUtil);
+        ingredientDao = new IngredientDAO(connectionUtil);
+    }
+
+    @Test
+    void liveSubscriberReceivesOnlyNewChanges() throws InterruptedException {
+        ChangeBroadcaster broadcaster = new ChangeBroadcaster(changeLogDao, 16, 60_000);
+        broadcaster.subscribe(-1, sink);
+        long seq = changeLogDao.getLatestSeq();
+        ingredientDao.createIngredient(new Ingredient("kale"));
+        broadcaster.publish();
+
+        assertEquals((seq + 1) + " INGREDIENT 7 CREATE", events.poll(5, TimeUnit.SECONDS));
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void resumingSubscriberReplaysMissedChanges() throws InterruptedException {
+        ChangeBroadcaster broadcaster = new ChangeBroadcaster(changeLogDao, 16, 60_000);
+        long seq = changeLogDao.getLatestSeq();
+        Ingredient ingredient = ingredientDao.getIngredientById(1);
+        ingredient.setName("parsnip");
+        ingredientDao.updateIngredient(ingredient);
+
+        broadcaster.subscribe(seq, sink);
+        assertEquals((seq + 1) + " INGREDIENT 1 UPDATE", events.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscriberTooFarBehindIsReset() throws InterruptedException {
+        ChangeBroadcaster broadcaster = new ChangeBroadcaster(changeLogDao, 4, 60_000);
+        broadcaster.subscribe(0, sink);
+
+        assertEquals("reset 0", events.poll(5, TimeUnit.SECONDS),
+                "Replaying the whole seed log does not fit in a buffer of 4");
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void cancelledSubscriberReceivesNothing() throws InterruptedException {
+        ChangeBroadcaster broadcaster = new ChangeBroadcaster(changeLogDao, 16, 60_000);
+        broadcaster.subscribe(-1, sink).cancel();
+        ingredientDao.createIngredient(new Ingredient("kale"));
+        broadcaster.publish();
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribersBeyondTheCapAreRefused() {
+        ChangeBroadcaster broadcaster = new ChangeBroadcaster(changeLogDao, 16, 60_000, 2);
+        ChangeBroadcaster.Subscription first = broadcaster.subscribe(-1, sink);
+        broadcaster.subscribe(-1, sink);
+
+        assertThrows(IllegalStateException.class, () -> broadcaster.subscribe(-1, sink));
+        first.cancel();
+        broadcaster.subscribe(-1, sink);
+        assertEquals(2, broadcaster.getSubscriberCount());
+    }
+}
@@ -0,0 +1,109 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.ChangeLogDAO;
+import com.revature.dao.ChefDAO;
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Change;
+import com.revature.model.Ingredient;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+
+public class ChangeLogDaoTest {
+    private ChangeLogDAO changeLogDao;
+    private IngredientDAO ingredientDao;
+    private RecipeDAO recipeDao;
+    private ConnectionUtil connectionUtil;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DBUtil.RUN_SQL();
+        connectionUtil = new ConnectionUtil();
+        changeLogDao = new ChangeLogDAO(connectionUtil);
+        ingredientDao = new IngredientDAO(connectionUtil);
+        recipeDao = new RecipeDAO(new ChefDAO(connectionUtil), ingredientDao, connectionUtil);
+    }
+
+    @Test
+    void seedDataIsLoggedAsCreates() {
+        List<Change> changes = changeLogDao.getChangesSince(0, 1000);
+        assertEquals(changes.size(), changeLogDao.getLatestSeq());
+        assertEquals(15, changes.stream().filter(c -> c.getOperation().equals("CREATE")).count(),
+                "Every seeded chef, recipe and ingredient should be logged as created");
+    }
+
+    @Test
+    void changesSinceReturnsOnlyNewerEntries() {
+        long since = changeLogDao.getLatestSeq();
+        Ingredient ingredient = ingredientDao.getIngredientById(1);
+        ingredient.setName("parsnip");
+        ingredientDao.updateIngredient(ingredient);
+        ingredientDao.createIngredient(new Ingredient("kale"));
+
+        List<Change> changes = changeLogDao.getChangesSince(since, 10);
+        assertIterableEquals(List.of("INGREDIENT 1 UPDATE", "INGREDIENT 7 CREATE"), describe(changes));
+        assertEquals(1, changeLogDao.getChangesSince(since, 1).size(), "The limit should cap the result");
+    }
+
+    @Test
+    void unchangedRowsAreNotLogged() {
+        long since = changeLogDao.getLatestSeq();
+        ingredientDao.mergeIngredients(List.of("carrot", "potato", "kale"));
+
+        assertIterableEquals(List.of("INGREDIENT 7 CREATE"), describe(changeLogDao.getChangesSince(since, 10)),
+                "Merging existing ingredients should not log them as updated");
+    }
+
+    @Test
+    void deletesAreLoggedAsTombstones() {
+        long since = changeLogDao.getLatestSeq();
+        recipeDao.deleteRecipe(recipeDao.getRecipeById(4));
+
+        List<String> changes = describe(changeLogDao.getChangesSince(since, 10));
+        assertTrue(changes.contains("RECIPE 4 DELETE"), () -> "Expected a tombstone but got " + changes);
+        assertEquals("RECIPE 4 DELETE", changes.get(changes.size() - 1),
+                "Nothing should be logged for a recipe after its tombstone");
+    }
+
+    @Test
+    void changesAreSequencedInCommitOrder() throws Exception {
+        long since = changeLogDao.getLatestSeq();
+        try (Connection conn = connectionUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO Ingredient (name) VALUES ('kale')")) {
+            conn.setAutoCommit(false);
+            stmt.executeUpdate();
+            CompletableFuture<Void> later = CompletableFuture.runAsync(() -> ingredientDao.createIngredient(new Ingredient("leek")));
+            Thread.sleep(200);
+            assertFalse(later.isDone(), "A second writer should wait for the open transaction");
+            assertIterableEquals(List.of(), describe(changeLogDao.getChangesSince(since, 10)),
+                    "No change should be visible ahead of an uncommitted one");
+            conn.commit();
+            later.get(5, TimeUnit.SECONDS);
+        }
+
+        assertIterableEquals(List.of("INGREDIENT 7 CREATE", "INGREDIENT 8 CREATE"), describe(changeLogDao.getChangesSince(since, 10)));
+        assertEquals(since + 2, changeLogDao.getLatestSeq(), "Sequence numbers should not skip");
+    }
+
+    private List<String> describe(List<Change> changes) {
+        return changes.stream()
+                .map(c -> c.getEntityType() + " " + c.getEntityId() + " " + c.getOperation())
+                .collect(Collectors.toList());
+    }
+}
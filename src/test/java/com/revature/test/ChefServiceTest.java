@@ -1,12 +1,14 @@
 package com.revature.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -139,4 +141,24 @@ class ChefServiceTest {
         assertEquals(new Page<Chef>(1, 5, 0, 0, Collections.emptyList()), chefs, () -> "Service shouldn't change the page returned from the dao");
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void usernameAvailabilityIsAnsweredByTheFilterWithoutALookup() {
+        when(chefDao.getAllUsernamesAndEmails()).thenReturn(MOCKS);
+        when(chefDao.findByUsername("JoeCool")).thenReturn(MOCKS.get(0));
+        assertTrue(chefService.usernameExist("JoeCool"));
+        assertFalse(chefService.usernameExist("NewChef"));
+        verify(chefDao, never()).findByUsername("NewChef");
+    }
+
+    @Test
+    void savedChefIsAddedToTheFilter() {
+        when(chefDao.getAllUsernamesAndEmails()).thenReturn(MOCKS);
+        chefService.loadTakenNames();
+        Chef chef = new Chef("NewChef", "new@chef.com", "secret", false);
+        when(chefDao.createChef(chef)).thenReturn(5);
+        when(chefDao.findByEmail("new@chef.com")).thenReturn(chef);
+        chefService.saveChef(chef);
+        assertTrue(chefService.emailExist("new@chef.com"));
+    }
+}
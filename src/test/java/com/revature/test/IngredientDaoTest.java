@@ -15,6 +15,7 @@ import com.revature.util.DBUtil;
 import com.revature.util.Page;
 import com.revature.util.PageOptions;
 import static com.revature.test.utils.TestingUtils.assertCountDifference;
+import static com.revature.test.utils.TestingUtils.assertQueryBudget;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 
@@ -105,6 +106,26 @@ public class IngredientDaoTest {
                 "The returned ingredients don't match the expected ingredients.");
     }
 
+    @Test
+    void sortSpellingsShareOneOrderTest() {
+        List<Ingredient> byNameDescending = Arrays.asList(ingredientList.get(2), ingredientList.get(5));
+        assertIterableEquals(byNameDescending,
+                ingredientDao.getAllIngredients(new PageOptions(1, 2, "name", "desc")).getItems());
+        assertIterableEquals(byNameDescending,
+                ingredientDao.getAllIngredients(new PageOptions(1, 2, "NAME", "Desc")).getItems());
+        // Sorts that are not allowed fall back to ascending by id
+        assertIterableEquals(ingredientList.subList(0, 2),
+                ingredientDao.getAllIngredients(new PageOptions(1, 2, "name; DROP TABLE Ingredient", "sideways")).getItems());
+    }
+
+    @Test
+    void queryBudgetTest() {
+        assertQueryBudget(1, "A page of ingredients should take one query.",
+                () -> ingredientDao.searchIngredients("to", new PageOptions(1, 2, "name", "asc")));
+        assertQueryBudget(1, "Ingredients should be fetched by id in one query.",
+                () -> ingredientDao.getIngredientsByIds(Arrays.asList(3, 1, 2)));
+    }
+
     @Test
     void searchIngredientsTest() {
         List<Ingredient> ingredients = ingredientDao.searchIngredients("to");
@@ -132,4 +153,17 @@ public class IngredientDaoTest {
                 "The returned ingredients don't match the expected ingredients.");
     }
 
+    @Test
+    void mergeIngredientsTest() {
+        assertCountDifference(2, "Expected only the 2 new ingredients to be created", countSelStatement, () -> {
+            List<Ingredient> ingredients = ingredientDao.mergeIngredients(
+                    Arrays.asList("kale", "carrot", "leek", "kale"));
+            List<Ingredient> expectedIngredients = Arrays.asList(new Ingredient(7, "kale"), ingredientList.get(0),
+                    new Ingredient(8, "leek"));
+            assertIterableEquals(expectedIngredients, ingredients,
+                    () -> "The merged ingredients don't match the expected ingredients. Expected: "
+                            + expectedIngredients + " Actual: " + ingredients);
+        });
+    }
+
 }
@@ -47,6 +47,14 @@ public class IngredientIntegrationTest {
         });
     }
 
+    @Test
+    void testGetIngredientsByIds() {
+        JavalinTest.test(app, (server, client) -> {
+            assertEquals("[{\"id\":3,\"name\":\"tomato\"},{\"id\":1,\"name\":\"carrot\"}]", client.get("/ingredients?ids=3,1,100,3").body().string());
+            assertEquals(400, client.get("/ingredients?ids=1,x").code());
+        });
+    }
+
     @Test
     void testDeleteIngredient() {
         JavalinTest.test(app, (server, client) -> {
@@ -108,5 +116,30 @@ public class IngredientIntegrationTest {
             assertEquals("{\"pageNumber\":1,\"pageSize\":3,\"totalPages\":1,\"totalElements\":3,\"items\":[{\"id\":3,\"name\":\"tomato\"},{\"id\":6,\"name\":\"stone\"},{\"id\":2,\"name\":\"potato\"}]}", client.get("/ingredients?term=to&sortBy=name&sortDirection=desc&page=1&pageSize=3").body().string());
         });
     }
-    
-}
\ No newline at end of file
+
+    @Test
+    void testCreateIngredientsInBulk() {
+        JavalinTest.test(app, (server, client) -> {
+            okhttp3.Response response = client.post("/ingredients/bulk", "[\"potato\", \"parsnips\"]");
+            assertEquals(200, response.code());
+            assertEquals("[{\"id\":2,\"name\":\"potato\"},{\"id\":7,\"name\":\"parsnips\"}]", response.body().string());
+            assertEquals(400, client.post("/ingredients/bulk", "[\" \"]").code());
+            assertEquals(400, client.post("/ingredients/bulk", "null").code());
+        });
+    }
+
+    @Test
+    void testConditionalUpdateIngredient() {
+        JavalinTest.test(app, (server, client) -> {
+            assertEquals("\"0\"", client.get("/ingredients/1").header("ETag"));
+            okhttp3.Response updated = client.put("/ingredients/1", "{\"name\": \"parsnips\"}",
+                    builder -> builder.header("If-Match", "\"0\""));
+            assertEquals(204, updated.code());
+            assertEquals("\"1\"", updated.header("ETag"));
+            okhttp3.Response stale = client.put("/ingredients/1", "{\"name\": \"turnips\"}",
+                    builder -> builder.header("If-Match", "\"0\""));
+            assertEquals(409, stale.code());
+            assertEquals("{\"id\":1,\"name\":\"parsnips\"}", client.get("/ingredients/1").body().string());
+        });
+    }
+}
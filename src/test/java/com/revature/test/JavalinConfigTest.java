@@ -54,7 +54,7 @@ class JavalinConfigTest {
 	@Test
 	void test() {
 		
-		new JavalinAppUtil(recipeController, authController, ingredientController).getApp().start();
+		new JavalinAppUtil(recipeController, authController, ingredientController).getApp().start(0).stop();
 		
 	}
 
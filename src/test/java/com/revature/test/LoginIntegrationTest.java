@@ -212,4 +212,18 @@ public class LoginIntegrationTest {
 
 	}
 
+	@Test
+	void testRegisterNameTakenBehindTheFilter() throws IOException {
+		assertEquals(false, chefService.usernameExist("otherNodeChef"), () -> "The filter should be built without the name");
+		chefDAO.createChef(new Chef(0, "otherNodeChef", "othernode@chefmail.com", "1234abc", false));
+
+		RequestBody chefBody = RequestBody.create(
+				"{\"username\": \"otherNodeChef\", \"password\": \"1234abc\", \"email\": \"fresh@chefmail.com\"}",
+				MediaType.get("application/json; charset=utf-8"));
+		Request registerRequest = new Request.Builder().url(BASE_URL + "/register").post(chefBody).build();
+		Response registerResponse = client.newCall(registerRequest).execute();
+		assertEquals(409, registerResponse.code(), () -> "A username taken without the filter seeing it should still conflict");
+		assertEquals("Username already exists", registerResponse.body().string());
+	}
+
 }
\ No newline at end of file
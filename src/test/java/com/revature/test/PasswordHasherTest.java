@@ -0,0 +1,82 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.revature.model.Chef;
+import com.revature.service.AuthenticationService;
+import com.revature.service.ChefService;
+import com.revature.util.PasswordHasher;
+import com.revature.util.SessionStore;
+
+public class PasswordHasherTest {
+    private PasswordHasher hasher = new PasswordHasher(1000, 2, 16);
+
+    @Test
+    void hashesAreSaltedAndVerify() {
+        String first = hasher.hash("redbarron");
+        String second = hasher.hash("redbarron");
+
+        assertNotEquals(first, second, "Each hash should use its own salt");
+        assertTrue(hasher.verify("redbarron", first));
+        assertFalse(hasher.verify("woodstock", first));
+        assertFalse(hasher.needsRehash(first));
+    }
+
+    @Test
+    void legacyPasswordsAndOlderWorkFactorsNeedRehash() {
+        String older = new PasswordHasher(500, 1, 1).hash("redbarron");
+
+        assertTrue(hasher.verify("redbarron", older), "Hashes made with another work factor should still verify");
+        assertTrue(hasher.needsRehash(older));
+        assertTrue(hasher.verify("redbarron", "redbarron"), "Plaintext passwords from before hashing should still verify");
+        assertTrue(hasher.needsRehash("redbarron"));
+    }
+
+    @Test
+    void saturatedPoolRejectsInsteadOfQueueing() {
+        PasswordHasher slow = new PasswordHasher(2_000_000, 1, 1);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(slow.hashAsync("redbarron"));
+        }
+
+        CompletionException e = assertThrows(CompletionException.class, () -> futures.get(3).join());
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    void loginRehashesLegacyPassword() {
+        Chef chef = new Chef(1, "JoeCool", "snoopy@null.com", "redbarron", false);
+        ChefService chefService = mock(ChefService.class);
+        when(chefService.findChefByUsername("JoeCool")).thenReturn(Optional.of(chef));
+        when(chefService.updateChef(any(Chef.class), anyInt())).thenReturn(true);
+        try (SessionStore sessionStore = new SessionStore()) {
+            AuthenticationService authService = new AuthenticationService(chefService, sessionStore, null, hasher);
+
+            assertNotNull(authService.login(new Chef("JoeCool", "redbarron")));
+            ArgumentCaptor<Chef> saved = ArgumentCaptor.forClass(Chef.class);
+            verify(chefService).updateChef(saved.capture(), anyInt());
+            assertFalse(hasher.needsRehash(saved.getValue().getPassword()));
+            assertTrue(hasher.verify("redbarron", saved.getValue().getPassword()));
+        }
+    }
+}
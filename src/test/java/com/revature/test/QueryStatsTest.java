@@ -0,0 +1,81 @@
+package com.revature.test;
+
+import static com.revature.test.utils.TestingUtils.assertQueryBudget;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.ChefDAO;
+import com.revature.util.AsyncExecutor;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+import com.revature.util.QueryStats;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class QueryStatsTest {
+    private ChefDAO chefDao;
+
+    @BeforeEach
+    void setUp() {
+        DBUtil.RUN_SQL();
+        chefDao = new ChefDAO(new ConnectionUtil());
+    }
+
+    @Test
+    void shapesIgnoreLiteralsAndParameterLists() {
+        assertEquals("SELECT * FROM CHEF WHERE id IN (?) AND name = ?",
+                QueryStats.shape("SELECT *  FROM CHEF\n WHERE id IN (?, ?,?) AND name = 'O''Brien'"));
+        assertEquals(QueryStats.shape("SELECT * FROM t1 LIMIT 10"), QueryStats.shape("SELECT * FROM t1 LIMIT 20"));
+    }
+
+    @Test
+    void repeatedStatementsAreDetected() {
+        QueryStats stats = assertQueryBudget(12, "Each lookup should take one query.", () -> {
+            for (int i = 0; i < 3; i++) {
+                for (int id = 1; id <= 4; id++) {
+                    chefDao.getChefById(id);
+                }
+            }
+        });
+        assertEquals(4 * 3, stats.getRowCount());
+        Map<String, Long> repeated = stats.getRepeatedShapes(10);
+        assertEquals(1, repeated.size(), () -> "The lookups should share one shape: " + stats);
+        assertEquals(12L, repeated.values().iterator().next());
+        assertThrows(AssertionError.class, () -> assertQueryBudget(1, "Over budget.",
+                () -> chefDao.getChefsByIds(List.of(1, 2)).forEach(chef -> chefDao.getChefById(chef.getId()))));
+    }
+
+    @Test
+    void requestBindingEndsWithTheDispatch() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        AtomicReference<QueryStats> duringDispatch = new AtomicReference<>();
+        QueryStats.collect(request, mock(HttpServletResponse.class), (req, res) -> duringDispatch.set(QueryStats.current()));
+
+        assertNotNull(duringDispatch.get());
+        verify(request).setAttribute(QueryStats.ATTRIBUTE, duringDispatch.get());
+        assertNull(QueryStats.current(), "The request thread should not keep the request's statistics");
+    }
+
+    @Test
+    void statsFollowAsyncTasks() {
+        QueryStats stats = assertQueryBudget(2, "Two lookups should take two queries.", () -> {
+            AsyncExecutor executor = AsyncExecutor.getDefault();
+            executor.allOrNothing(executor.supply(() -> chefDao.getChefById(1)),
+                    executor.supply(() -> chefDao.getChefById(2))).join();
+        });
+        assertEquals(2, stats.getStatementCount());
+        assertNull(QueryStats.current(), "Statistics should no longer be collected after the assertion");
+    }
+}
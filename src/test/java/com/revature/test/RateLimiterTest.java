@@ -0,0 +1,100 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.model.Chef;
+import com.revature.service.AuthenticationService;
+import com.revature.util.RateLimiter;
+
+import io.javalin.http.Context;
+import io.javalin.http.TooManyRequestsResponse;
+
+public class RateLimiterTest {
+
+    @Test
+    void burstIsAllowedThenRejectedWithRetryAfter() {
+        RateLimiter limiter = new RateLimiter("test", 1, 3);
+        Context ctx = request("10.0.0.1", null);
+
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> limiter.handle(ctx));
+        }
+        assertThrows(TooManyRequestsResponse.class, () -> limiter.handle(ctx));
+        verify(ctx).header(eq("Retry-After"), eq("1"));
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() {
+        RateLimiter limiter = new RateLimiter("test", 1, 1, authService());
+
+        assertDoesNotThrow(() -> limiter.handle(request("10.0.0.1", null)));
+        assertThrows(TooManyRequestsResponse.class, () -> limiter.handle(request("10.0.0.1", null)));
+        assertDoesNotThrow(() -> limiter.handle(request("10.0.0.2", null)));
+        assertDoesNotThrow(() -> limiter.handle(request("10.0.0.1", "Bearer a")));
+        assertDoesNotThrow(() -> limiter.handle(request("10.0.0.1", "Bearer b")));
+    }
+
+    @Test
+    void tokensOfOneChefShareABucket() {
+        RateLimiter limiter = new RateLimiter("test", 1, 1, authService());
+
+        assertDoesNotThrow(() -> limiter.handle(request("10.0.0.1", "Bearer a")));
+        assertThrows(TooManyRequestsResponse.class, () -> limiter.handle(request("10.0.0.2", "Bearer a2")));
+    }
+
+    @Test
+    void invalidTokensAreKeyedByAddress() {
+        RateLimiter limiter = new RateLimiter("test", 1, 1, authService());
+
+        assertDoesNotThrow(() -> limiter.handle(request("10.0.0.1", "Bearer forged1")));
+        assertThrows(TooManyRequestsResponse.class, () -> limiter.handle(request("10.0.0.1", "Bearer forged2")));
+        assertEquals(1, limiter.getTrackedClients());
+    }
+
+    @Test
+    void tokensAreIgnoredWhenKeyingByAddress() {
+        RateLimiter limiter = new RateLimiter("test", 1, 1);
+
+        assertDoesNotThrow(() -> limiter.handle(request("10.0.0.1", "Bearer a")));
+        assertThrows(TooManyRequestsResponse.class, () -> limiter.handle(request("10.0.0.1", "Bearer b")));
+    }
+
+    @Test
+    void trackedClientsStayBounded() {
+        RateLimiter limiter = new RateLimiter("test", 1, 1, null, 100);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.handle(request("10.0." + (i / 256) + "." + (i % 256), null));
+        }
+        assertTrue(limiter.getTrackedClients() <= 100);
+    }
+
+    /** Tokens a and a2 belong to chef 1 and token b to chef 2; any other token is invalid. */
+    private AuthenticationService authService() {
+        AuthenticationService authService = mock(AuthenticationService.class);
+        Chef first = new Chef();
+        first.setId(1);
+        Chef second = new Chef();
+        second.setId(2);
+        when(authService.getChefFromSessionToken("Bearer a")).thenReturn(first);
+        when(authService.getChefFromSessionToken("Bearer a2")).thenReturn(first);
+        when(authService.getChefFromSessionToken("Bearer b")).thenReturn(second);
+        return authService;
+    }
+
+    private Context request(String ip, String authorization) {
+        Context ctx = mock(Context.class);
+        when(ctx.ip()).thenReturn(ip);
+        when(ctx.header("Authorization")).thenReturn(authorization);
+        return ctx;
+    }
+}
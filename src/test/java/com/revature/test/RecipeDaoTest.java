@@ -6,12 +6,15 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -71,6 +74,29 @@ class RecipeDaoTest {
 
     }
 
+    @Test
+    void writeInstructions_FailureMidStreamIsThrown() throws SQLException {
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getCharacterStream("instructions")).thenThrow(new SQLException("connection lost"));
+        AtomicBoolean started = new AtomicBoolean();
+
+        IOException e = assertThrows(IOException.class, () -> recipeDao.writeInstructions(1, () -> {
+            started.set(true);
+            return new StringWriter();
+        }));
+        assertTrue(started.get());
+        assertTrue(e.getCause() instanceof SQLException);
+    }
+
+    @Test
+    void writeInstructions_MissingRecipe() throws Exception {
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        assertFalse(recipeDao.writeInstructions(1, () -> fail("The target should not be opened for a missing recipe")));
+    }
+
     @Test
     void getRecipeById_Success() throws SQLException {
         // Arrange
@@ -0,0 +1,102 @@
+package com.revature.test;
+
+import static com.revature.test.utils.TestingUtils.assertCountDifference;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.ChefDAO;
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.service.RecipeImportService;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+import com.revature.util.ImportResult;
+
+public class RecipeImportServiceTest {
+    private RecipeImportService importService;
+    private String recipeCount = "SELECT COUNT(*) FROM RECIPE";
+    private String lineCount = "SELECT COUNT(*) FROM RECIPE_INGREDIENT";
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DBUtil.RUN_SQL();
+        ConnectionUtil connectionUtil = new ConnectionUtil();
+        ChefDAO chefDao = new ChefDAO(connectionUtil);
+        IngredientDAO ingredientDao = new IngredientDAO(connectionUtil);
+        RecipeDAO recipeDao = new RecipeDAO(chefDao, ingredientDao, connectionUtil);
+        importService = new RecipeImportService(recipeDao, ingredientDao, 2);
+    }
+
+    @Test
+    void importCsvWritesRecipesAndIngredientLines() {
+        String csv = "name,instructions,chef_id,ingredients\n"
+                + "carrot stew,\"Chop carrot, then simmer.\",1,carrot:2:cups;rice:1:cups\n"
+                + "plain rice,Boil rice.,2,rice:1:cups\n"
+                + "lemon water,Squeeze lemon.,3,\n";
+        assertCountDifference(3, "Expected 3 recipes to be imported", recipeCount, () -> {
+            assertCountDifference(3, "Expected 3 ingredient lines to be imported", lineCount, () -> {
+                ImportResult result = importService.importCsv(new StringReader(csv), 2);
+                assertEquals(3, result.getTotalRows());
+                assertEquals(3, result.getImportedRows());
+                assertEquals(0, result.getFailedRows());
+            });
+        });
+    }
+
+    @Test
+    void importCsvReportsBadRowsWithoutAbortingTheChunk() {
+        String csv = "name,instructions,chef_id,ingredients\n"
+                + "good one,Boil.,1,carrot:1:cups\n"
+                + "unknown ingredient,Boil.,1,unobtainium:1:cups\n"
+                + "missing chef,Boil.,99,\n"
+                + "carrot soup,Duplicate name.,1,\n"
+                + "good two,Boil.,2,potato:1:cups\n";
+        assertCountDifference(2, "Expected only the 2 valid recipes to be imported", recipeCount, () -> {
+            ImportResult result = importService.importCsv(new StringReader(csv), 10);
+            assertEquals(5, result.getTotalRows());
+            assertEquals(2, result.getImportedRows());
+            assertEquals(3, result.getFailedRows());
+            assertEquals(2, result.getErrors().get(0).getRow());
+            assertEquals("Unknown ingredient: unobtainium", result.getErrors().get(0).getMessage());
+            assertEquals(3, result.getErrors().get(1).getRow());
+            assertEquals(4, result.getErrors().get(2).getRow());
+        });
+    }
+
+    @Test
+    void importJsonResolvesIngredientNames() {
+        String json = "[{\"name\":\"json soup\",\"instructions\":\"Boil.\",\"author\":{\"id\":4},"
+                + "\"ingredients\":[{\"name\":\"Stone\",\"volume\":1,\"unit\":\"each\"}]},"
+                + "{\"name\":\"no author\",\"instructions\":\"Boil.\"}]";
+        assertCountDifference(1, "Expected 1 ingredient line to be imported", lineCount, () -> {
+            ImportResult result = importService.importJson(
+                    new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 500);
+            assertEquals(2, result.getTotalRows());
+            assertEquals(1, result.getImportedRows());
+            assertEquals("Recipe author id is required", result.getErrors().get(0).getMessage());
+        });
+    }
+
+    @Test
+    void importJsonReportsElementsThatAreNotRecipesAndKeepsReading() {
+        String json = "[{\"name\":\"first\",\"instructions\":\"Boil.\",\"author\":{\"id\":1}}, 5, [1, 2],"
+                + "{\"name\":\"second\",\"instructions\":\"Boil.\",\"author\":{\"id\":2}}]";
+        assertCountDifference(2, "Expected both recipes around the stray values to be imported", recipeCount, () -> {
+            ImportResult result = importService.importJson(
+                    new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 500);
+            assertEquals(4, result.getTotalRows());
+            assertEquals(2, result.getImportedRows());
+            assertEquals(2, result.getFailedRows());
+            assertEquals(2, result.getErrors().get(0).getRow());
+            assertEquals("Expected a recipe object", result.getErrors().get(0).getMessage());
+            assertEquals(3, result.getErrors().get(1).getRow());
+        });
+    }
+}
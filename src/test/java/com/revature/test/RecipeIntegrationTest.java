@@ -17,7 +17,10 @@ import com.revature.controller.AuthenticationController;
 import com.revature.controller.IngredientController;
 import com.revature.controller.RecipeController;
 import com.revature.model.Chef;
+import com.revature.model.ChefSummary;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
+import com.revature.model.RecipeSummary;
 import com.revature.dao.ChefDAO;
 import com.revature.dao.IngredientDAO;
 import com.revature.dao.RecipeDAO;
@@ -123,6 +126,30 @@ class RecipeIntegrationTest {
 				response.body().string(), "Single recipe should be returned a json");
 	}
 
+	@Test
+	void testGetRecipeInstructions() throws IOException {
+		Request request = new Request.Builder().url(BASE_URL + "/recipes/5/instructions").addHeader("Authorization", token).get()
+				.build();
+		Response response = client.newCall(request).execute();
+		assertEquals(200, response.code());
+		assertEquals("text/plain", response.body().contentType().type() + "/" + response.body().contentType().subtype());
+		assertEquals(recipeList.get(4).getInstructions(), response.body().string());
+
+		Request missing = new Request.Builder().url(BASE_URL + "/recipes/99/instructions").addHeader("Authorization", token).get()
+				.build();
+		assertEquals(404, client.newCall(missing).execute().code());
+	}
+
+	@Test
+	void testGetRecipesByIds() throws IOException {
+		Request request = new Request.Builder().url(BASE_URL + "/recipes?ids=3,1,99").addHeader("Authorization", token).get()
+				.build();
+		Response response = client.newCall(request).execute();
+		assertEquals(200, response.code());
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(2), recipeList.get(0)), List.class),
+				response.body().string(), "Recipes should be returned in the requested order");
+	}
+
 	@Test
 	void testGetAllRecipes() throws IOException {
 		Request request = new Request.Builder().url(BASE_URL + "/recipes").addHeader("Authorization", token).get()
@@ -162,6 +189,24 @@ class RecipeIntegrationTest {
 		assertEquals(200, putResponse.code());
 	}
 
+	@Test
+	void testPutRecipeWithIngredients() throws IOException {
+		Recipe updatedRecipe = recipeList.get(3);
+		updatedRecipe.setIngredients(Arrays.asList(new RecipeIngredient(4, "lemon", 2, "Tbs"),
+				new RecipeIngredient(6, "stone", 1, "each")));
+		RequestBody recipeBody = RequestBody.create(new JavalinJackson().toJsonString(updatedRecipe, Recipe.class),
+				MediaType.get("application/json; charset=utf-8"));
+		Request recipeRequest = new Request.Builder().url(BASE_URL + "/recipes/4").addHeader("Authorization", token)
+				.put(recipeBody).build();
+		Response putResponse = client.newCall(recipeRequest).execute();
+		assertEquals(200, putResponse.code());
+		List<RecipeIngredient> lines = recipeDao.getRecipeIngredients(4);
+		assertEquals(2, lines.size(), "Rice should have been removed and stone added");
+		assertEquals("lemon", lines.get(0).getName());
+		assertEquals(2, lines.get(0).getVolume());
+		assertEquals("stone", lines.get(1).getName());
+	}
+
 	@Test
 	void testDeleteRecipe() throws IOException {
 
@@ -179,8 +224,10 @@ class RecipeIntegrationTest {
 	@Test
 	void testFilteredPageOfRecipes() throws IOException {
 
-		List<Recipe> filteredResult = List.of(recipeList.get(2));
-		Page<Recipe> filteredResultPage = new Page<Recipe>(2, 1, 2, 2, filteredResult);
+		Recipe recipe = recipeList.get(2);
+		List<RecipeSummary> filteredResult = List.of(new RecipeSummary(recipe.getId(), recipe.getName(),
+				new ChefSummary(recipe.getAuthor().getId(), recipe.getAuthor().getUsername())));
+		Page<RecipeSummary> filteredResultPage = new Page<RecipeSummary>(2, 1, 2, 2, filteredResult);
 		String filteredResultJSON = new JavalinJackson().toJsonString(filteredResultPage, Page.class);
 		Request request = new Request.Builder()
 				.url(BASE_URL + "/recipes?term=ato&page=2&pageSize=1&sortBy=name&sortDirection=asc").get()
@@ -191,4 +238,34 @@ class RecipeIntegrationTest {
 				"The single result should be returned");
 	}
 
+	@Test
+	void testSortedPageOfRecipes() throws IOException {
+		List<RecipeSummary> sortedResult = new ArrayList<>();
+		for (Recipe recipe : List.of(recipeList.get(2), recipeList.get(4))) {
+			sortedResult.add(new RecipeSummary(recipe.getId(), recipe.getName(),
+					new ChefSummary(recipe.getAuthor().getId(), recipe.getAuthor().getUsername())));
+		}
+		Page<RecipeSummary> sortedResultPage = new Page<RecipeSummary>(1, 2, 3, 5, sortedResult);
+		Request request = new Request.Builder()
+				.url(BASE_URL + "/recipes?page=1&pageSize=2&sortBy=NAME&sortDirection=Desc").get()
+				.addHeader("Authorization", token).build();
+		Response response = client.newCall(request).execute();
+		assertEquals(new JavalinJackson().toJsonString(sortedResultPage, Page.class), response.body().string(),
+				"Recipes should be sorted by name, descending");
+	}
+
+	@Test
+	void testSelectedFieldsOfRecipes() throws IOException {
+		Request request = new Request.Builder().url(BASE_URL + "/recipes?term=stone&fields=name,instructions").get()
+				.addHeader("Authorization", token).build();
+		Response response = client.newCall(request).execute();
+		assertEquals("{\"pageNumber\":1,\"pageSize\":10,\"totalPages\":1,\"totalElements\":1,\"items\":"
+				+ "[{\"id\":5,\"name\":\"stone soup\",\"instructions\":\"Put stone in water.  Boil.  Maybe salt.\"}]}",
+				response.body().string());
+
+		Request badRequest = new Request.Builder().url(BASE_URL + "/recipes?fields=password").get()
+				.addHeader("Authorization", token).build();
+		assertEquals(400, client.newCall(badRequest).execute().code());
+	}
+
 }
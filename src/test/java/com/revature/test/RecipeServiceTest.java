@@ -1,7 +1,9 @@
 package com.revature.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -11,6 +13,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,8 +25,11 @@ import org.mockito.ArgumentCaptor;
 
 import com.revature.model.Ingredient;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeDetail;
+import com.revature.model.RecipeIngredient;
 import com.revature.dao.RecipeDAO;
 import com.revature.service.RecipeService;
+import com.revature.util.AsyncExecutor;
 import com.revature.util.Page;
 import com.revature.util.PageOptions;
 
@@ -79,6 +89,17 @@ public class RecipeServiceTest {
         assertEquals(42, captureRecipe.getId(), () -> "Services should not change the id of existing recipes");
     }
 
+    @Test
+    void saveNewRecipeWithIngredients() {
+        Recipe newRecipe = new Recipe("New Recipe", "New Recipe Instructions");
+        newRecipe.setIngredients(Arrays.asList(new RecipeIngredient(new Ingredient(1, "carrot"), 2, "cups")));
+        when(recipeDao.saveRecipeWithIngredients(any(Recipe.class))).thenReturn(42);
+        recipeService.saveRecipe(newRecipe);
+        verify(recipeDao).saveRecipeWithIngredients(newRecipe);
+        verify(recipeDao, never()).createRecipe(any(Recipe.class));
+        assertEquals(42, newRecipe.getId(), () -> "Services should set the id of newly created recipes");
+    }
+
     @Test
     void deleteRecipe() {
         when(recipeDao.getRecipeById(1)).thenReturn(MOCKS.get(0));
@@ -138,4 +159,52 @@ public class RecipeServiceTest {
         verify(recipeDao).searchRecipesByTerm(termCaptor.capture(), optionsCaptor.capture());
         assertEquals(new Page<Recipe>(1, 5, 0, 0, Collections.emptyList()), recipes, () -> "Service shouldn't change the page returned from the dao");
     }
-}
\ No newline at end of file
+
+    @Test
+    void fetchRecipesConcurrently() throws Exception {
+        when(recipeDao.getRecipeById(1)).thenReturn(MOCKS.get(0));
+        when(recipeDao.searchRecipesByTerm("a")).thenReturn(MOCKS);
+        CompletableFuture<Optional<Recipe>> recipe = recipeService.findRecipeAsync(1);
+        CompletableFuture<List<Recipe>> recipes = recipeService.searchRecipesAsync("a");
+        assertEquals(MOCKS.get(0), recipe.get(1, TimeUnit.SECONDS).get());
+        assertIterableEquals(MOCKS, recipes.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void slowAsyncLookupTimesOut() {
+        when(recipeDao.getRecipeById(1)).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return MOCKS.get(0);
+        });
+        RecipeService service = new RecipeService(recipeDao, null, new AsyncExecutor(Executors.newVirtualThreadPerTaskExecutor(), 50));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> service.findRecipeAsync(1).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+    }
+
+    @Test
+    void fetchRecipeDetailInParallel() throws Exception {
+        List<RecipeIngredient> ingredients = List.of(new RecipeIngredient());
+        when(recipeDao.getRecipeById(1)).thenReturn(MOCKS.get(0));
+        when(recipeDao.getRecipeIngredients(1)).thenReturn(ingredients);
+        when(recipeDao.getOtherRecipesByAuthor(1, RecipeService.RELATED_LIMIT)).thenReturn(MOCKS.subList(1, 3));
+        when(recipeDao.getSimilarRecipes(1, RecipeService.RELATED_LIMIT)).thenReturn(MOCKS.subList(3, 5));
+        RecipeDetail detail = recipeService.getRecipeDetailAsync(1).get(1, TimeUnit.SECONDS).get();
+        assertEquals(MOCKS.get(0), detail.getRecipe());
+        assertEquals(ingredients, detail.getIngredients());
+        assertIterableEquals(MOCKS.subList(1, 3), detail.getAuthorRecipes());
+        assertIterableEquals(MOCKS.subList(3, 5), detail.getSimilarRecipes());
+    }
+
+    @Test
+    void recipeDetailFailsFastWhenAPartFails() {
+        when(recipeDao.getRecipeById(1)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return MOCKS.get(0);
+        });
+        when(recipeDao.getSimilarRecipes(1, RecipeService.RELATED_LIMIT)).thenThrow(new IllegalStateException("down"));
+        long start = System.nanoTime();
+        ExecutionException error = assertThrows(ExecutionException.class, () -> recipeService.getRecipeDetailAsync(1).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+}
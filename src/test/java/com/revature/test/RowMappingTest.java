@@ -0,0 +1,83 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.ResultRow;
+import com.revature.dao.RowMapper;
+import com.revature.dao.RowMapping;
+import com.revature.model.Ingredient;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+import com.revature.util.Page;
+import com.revature.util.PageOptions;
+
+public class RowMappingTest {
+    private static final RowMapper<Ingredient> MAPPER = row -> new Ingredient(row.getInt("id"), row.getString("name"));
+
+    @BeforeEach
+    void setUp() {
+        DBUtil.RUN_SQL();
+    }
+
+    @Test
+    void mapsRowsByPositionResolvedOnce() throws SQLException {
+        try (Connection conn = new ConnectionUtil().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name, id FROM Ingredient ORDER BY id")) {
+            List<Ingredient> ingredients = RowMapping.mapRows(rs, MAPPER);
+            assertEquals(6, ingredients.size());
+            assertEquals(new Ingredient(1, "carrot"), ingredients.get(0));
+            assertEquals(new Ingredient(6, "stone"), ingredients.get(5));
+        }
+    }
+
+    @Test
+    void readsColumnsByPositionAndLooksUpMetadataOnce() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnLabel(1)).thenReturn("ID");
+        when(metaData.getColumnLabel(2)).thenReturn("NAME");
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getInt(1)).thenReturn(1, 2);
+        when(rs.getString(2)).thenReturn("carrot", "potato");
+
+        assertEquals(List.of(new Ingredient(1, "carrot"), new Ingredient(2, "potato")), RowMapping.mapRows(rs, MAPPER));
+        verify(rs, times(1)).getMetaData();
+        verify(rs, never()).getInt("id");
+    }
+
+    @Test
+    void fallsBackToNamesWithoutMetadata() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("id")).thenReturn(3);
+        when(rs.getString("name")).thenReturn("tomato");
+        assertEquals(new Ingredient(3, "tomato"), MAPPER.mapRow(new ResultRow(rs)));
+    }
+
+    @Test
+    void pagesCountAPartialLastPage() throws SQLException {
+        try (Connection conn = new ConnectionUtil().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM Ingredient ORDER BY id")) {
+            Page<Ingredient> page = RowMapping.pageResults(rs, new PageOptions(2, 4), MAPPER);
+            assertEquals(new Page<>(2, 4, 2, 6, List.of(new Ingredient(5, "rice"), new Ingredient(6, "stone"))), page);
+        }
+    }
+}
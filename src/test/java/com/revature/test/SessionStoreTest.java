@@ -0,0 +1,129 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.SessionDAO;
+import com.revature.model.Chef;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+import com.revature.util.SessionStore;
+
+public class SessionStoreTest {
+    private Chef chef = new Chef(1, "JoeCool", "snoopy@null.com", "redbarron", false);
+
+    @Test
+    void createdSessionCanBeLookedUpAndRemoved() {
+        try (SessionStore store = new SessionStore()) {
+            String token = store.create(chef);
+
+            assertEquals(chef, store.get(token).getChef());
+            assertTrue(store.remove(token));
+            assertNull(store.get(token));
+            assertEquals(1, store.getCreatedSessions());
+            assertEquals(1, store.getRemovedSessions());
+            assertEquals(0, store.getActiveSessions());
+        }
+    }
+
+    @Test
+    void idleSessionsExpireAndAreFreedByTheWheel() throws InterruptedException {
+        try (SessionStore store = new SessionStore(50, 60_000, 10, 10)) {
+            String idle = store.create(chef);
+            String busy = store.create(chef);
+            for (int i = 0; i < 10; i++) {
+                Thread.sleep(20);
+                assertNotNull(store.get(busy), "A session in use should not expire while idle ones do");
+            }
+
+            assertEquals(1, store.getActiveSessions(), "The wheel should free the idle session without a lookup");
+            assertEquals(1, store.getExpiredSessions());
+            assertNull(store.get(idle));
+        }
+    }
+
+    @Test
+    void sessionsExpireAtTheAbsoluteTimeoutEvenWhenUsed() throws InterruptedException {
+        try (SessionStore store = new SessionStore(60_000, 100, 10, 10)) {
+            String token = store.create(chef);
+            for (int i = 0; i < 10 && store.get(token) != null; i++) {
+                Thread.sleep(20);
+            }
+
+            assertNull(store.get(token));
+            assertEquals(1, store.getExpiredSessions());
+        }
+    }
+
+    @Test
+    void storeRefusesSessionsBeyondItsBound() {
+        try (SessionStore store = new SessionStore(60_000, 60_000, 2, 1000)) {
+            store.create(chef);
+            String second = store.create(chef);
+
+            assertThrows(IllegalStateException.class, () -> store.create(chef));
+            assertEquals(1, store.getRejectedSessions());
+            store.remove(second);
+            assertNotNull(store.create(chef), "Removing a session should free room for a new one");
+            assertEquals(2, store.getPeakSessions());
+        }
+    }
+
+    @Test
+    void persistedSessionsAreRestoredByANewStore() throws Exception {
+        DBUtil.RUN_SQL();
+        SessionDAO sessionDao = new SessionDAO(new ConnectionUtil());
+        String kept;
+        String loggedOut;
+        try (SessionStore before = new SessionStore(sessionDao)) {
+            kept = before.create(chef);
+            loggedOut = before.create(chef);
+            before.flush();
+            before.remove(loggedOut);
+        }
+        String persistedKey = sessionDao.getAllSessions().get(0).getTokenHash();
+        assertNotEquals(kept, persistedKey, "The token itself should not be persisted");
+        assertEquals(64, persistedKey.length());
+
+        try (SessionStore after = new SessionStore(sessionDao)) {
+            assertEquals(1, after.restore());
+            assertEquals(chef, after.get(kept).getChef());
+            assertNull(after.get(loggedOut));
+        }
+    }
+
+    @Test
+    void sessionsThatExpiredWhileDownAreNotRestored() throws Exception {
+        DBUtil.RUN_SQL();
+        SessionDAO sessionDao = new SessionDAO(new ConnectionUtil());
+        try (SessionStore before = new SessionStore(50, 60_000, 10, 60_000, sessionDao)) {
+            before.create(chef);
+        }
+        Thread.sleep(100);
+
+        try (SessionStore after = new SessionStore(50, 60_000, 10, 60_000, sessionDao)) {
+            assertEquals(0, after.restore());
+            after.flush();
+            assertTrue(sessionDao.getAllSessions().isEmpty(), "Expired sessions should be deleted on restore");
+        }
+    }
+
+    @Test
+    void closedStoreNoLongerTicks() throws InterruptedException {
+        SessionStore store = new SessionStore(50, 60_000, 10, 10);
+        String token = store.create(chef);
+        store.close();
+        Thread.sleep(100);
+
+        assertEquals(1, store.getActiveSessions(), "A closed store should not expire sessions in the background");
+        assertEquals(0, store.getExpiredSessions());
+        assertNull(store.get(token));
+        store.close();
+    }
+}
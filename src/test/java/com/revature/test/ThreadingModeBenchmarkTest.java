@@ -0,0 +1,99 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.controller.AuthenticationController;
+import com.revature.controller.IngredientController;
+import com.revature.controller.RecipeController;
+import com.revature.service.AuthenticationService;
+import com.revature.service.ChefService;
+import com.revature.service.IngredientService;
+import com.revature.service.RecipeService;
+import com.revature.util.JavalinAppUtil;
+
+import io.javalin.Javalin;
+
+/**
+ * Checks which threads the two threading modes of JavalinAppUtil run handlers on, and compares the modes under many concurrent slow requests, such as requests waiting on a slow database.
+ *
+ * The comparison depends on the machine, so it is tagged as a benchmark and left out of the default test run; run it with mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= and read the timings it logs. The platform thread pool is kept small so the difference shows quickly.
+ */
+public class ThreadingModeBenchmarkTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadingModeBenchmarkTest.class);
+    private static final int MAX_THREADS = 16;
+    private static final int CONCURRENT_REQUESTS = 100;
+    private static final long HANDLER_MILLIS = 100;
+
+    @Test
+    void handlersRunOnTheChosenKindOfThread() throws Exception {
+        AtomicBoolean platformVirtual = new AtomicBoolean();
+        AtomicBoolean virtualVirtual = new AtomicBoolean();
+
+        run(false, platformVirtual, 1, 0);
+        run(true, virtualVirtual, 1, 0);
+
+        assertFalse(platformVirtual.get());
+        assertTrue(virtualVirtual.get());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void virtualThreadsServeMoreConcurrentSlowRequests() throws Exception {
+        long platformMillis = run(false, new AtomicBoolean(), CONCURRENT_REQUESTS, HANDLER_MILLIS);
+        long virtualMillis = run(true, new AtomicBoolean(), CONCURRENT_REQUESTS, HANDLER_MILLIS);
+        LOGGER.info("{} concurrent {} ms requests: platform threads (max {}) {} ms, virtual threads {} ms",
+                CONCURRENT_REQUESTS, HANDLER_MILLIS, MAX_THREADS, platformMillis, virtualMillis);
+    }
+
+    /**
+     * Starts an app in the specified threading mode and sends it concurrent requests to a handler that sleeps.
+     *
+     * @return the time the concurrent requests took, in milliseconds
+     */
+    private long run(boolean virtualThreads, AtomicBoolean ranOnVirtualThread, int concurrentRequests, long handlerMillis) throws Exception {
+        AuthenticationService authService = mock(AuthenticationService.class);
+        JavalinAppUtil appUtil = new JavalinAppUtil(new RecipeController(mock(RecipeService.class), authService),
+                new AuthenticationController(mock(ChefService.class), authService), new IngredientController(mock(IngredientService.class)));
+        Javalin app = appUtil.getApp(virtualThreads, MAX_THREADS);
+        app.get("/slow", ctx -> {
+            ranOnVirtualThread.set(Thread.currentThread().isVirtual());
+            Thread.sleep(handlerMillis);
+            ctx.result("done");
+        });
+        app.start(0);
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + "/slow")).build();
+            client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < concurrentRequests; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            app.stop();
+        }
+    }
+}
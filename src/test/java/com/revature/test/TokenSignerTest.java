@@ -0,0 +1,70 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.model.Chef;
+import com.revature.util.TokenSigner;
+
+public class TokenSignerTest {
+    private byte[] secret = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private Chef chef = new Chef(4, "ChefTrevin", "trevin@revature.com", "trevature", true);
+
+    @Test
+    void issuedTokenCarriesChefIdAndAdminFlag() {
+        TokenSigner signer = new TokenSigner(secret);
+        TokenSigner.Claims claims = signer.verify(signer.issue(chef));
+
+        assertNotNull(claims);
+        assertEquals(4, claims.getChefId());
+        assertTrue(claims.isAdmin());
+    }
+
+    @Test
+    void tokenIsAcceptedByAnotherSignerWithTheSameSecretOnly() {
+        String token = new TokenSigner(secret).issue(chef);
+
+        assertNotNull(new TokenSigner(secret).verify(token), "Any node with the shared secret should accept the token");
+        assertNull(new TokenSigner("another secret of thirty-two byte".getBytes(StandardCharsets.UTF_8)).verify(token));
+    }
+
+    @Test
+    void tamperedAndMalformedTokensAreRejected() {
+        TokenSigner signer = new TokenSigner(secret);
+        String token = signer.issue(new Chef(1, "JoeCool", "snoopy@null.com", "redbarron", false));
+        String forgedPayload = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("1:true:9999999999999:abc".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(signer.verify(forgedPayload + token.substring(token.indexOf('.'))));
+        assertNull(signer.verify("not-a-token"));
+        assertNull(signer.verify("a.b.c"));
+    }
+
+    @Test
+    void expiredAndRevokedTokensAreRejected() throws InterruptedException {
+        TokenSigner signer = new TokenSigner(secret, 50);
+        String revoked = signer.issue(chef);
+        String expiring = signer.issue(chef);
+
+        assertTrue(signer.revoke(revoked));
+        assertNull(signer.verify(revoked));
+        assertNotNull(signer.verify(expiring), "Revoking one token should not affect others");
+        Thread.sleep(100);
+        assertNull(signer.verify(expiring));
+        assertFalse(signer.revoke(revoked));
+        assertEquals(0, signer.getRevokedCount(), "Revocations of expired tokens should be dropped");
+    }
+
+    @Test
+    void shortSecretsAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenSigner("short".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -6,6 +6,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 
 import com.revature.util.ConnectionUtil;
+import com.revature.util.QueryStats;
 
 public class TestingUtils {
     private static Connection connection;
@@ -20,6 +21,20 @@ public class TestingUtils {
         }
     }
 
+    public static QueryStats assertQueryBudget(int maxStatements, String msg, Runnable exec) {
+        QueryStats stats = QueryStats.begin();
+        try {
+            exec.run();
+        } finally {
+            QueryStats.end(stats);
+        }
+        if (stats.getStatementCount() > maxStatements) {
+            throw new AssertionError(msg + " Expected at most " + maxStatements + " statements but ran "
+                    + stats.getStatementCount() + ": " + stats.getShapeCounts());
+        }
+        return stats;
+    }
+
     private static int count(String countSelStatement) {
         try(Connection connection = new ConnectionUtil().getConnection()){
             Statement statement = connection.createStatement();